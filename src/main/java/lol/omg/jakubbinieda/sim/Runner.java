@@ -1,70 +1,248 @@
 package lol.omg.jakubbinieda.sim;
 
+import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 import lol.omg.jakubbinieda.sim.controller.BasicController;
 import lol.omg.jakubbinieda.sim.controller.Controller;
 import lol.omg.jakubbinieda.sim.engine.Intersection;
-import lol.omg.jakubbinieda.sim.engine.StepResult;
+import lol.omg.jakubbinieda.sim.engine.StepBuffer;
 import lol.omg.jakubbinieda.sim.engine.loadbalancer.LoadBalancer;
 import lol.omg.jakubbinieda.sim.engine.loadbalancer.RandomBalancer;
 import lol.omg.jakubbinieda.sim.factories.SimpleIntersectionFactory;
+import lol.omg.jakubbinieda.sim.factories.SimpleNetworkFactory;
+import lol.omg.jakubbinieda.sim.io.BackgroundStepSink;
+import lol.omg.jakubbinieda.sim.io.BinaryParser;
+import lol.omg.jakubbinieda.sim.io.CommandSource;
 import lol.omg.jakubbinieda.sim.io.JsonParser;
-import lol.omg.jakubbinieda.sim.io.SimulationInput;
-import lol.omg.jakubbinieda.sim.io.SimulationOutput;
-import lol.omg.jakubbinieda.sim.io.StepStatus;
+import lol.omg.jakubbinieda.sim.io.PrefetchingCommandSource;
+import lol.omg.jakubbinieda.sim.io.StepSink;
 import lol.omg.jakubbinieda.sim.io.commands.AddVehicleCommand;
 import lol.omg.jakubbinieda.sim.io.commands.Command;
 import lol.omg.jakubbinieda.sim.io.commands.StepCommand;
-import lol.omg.jakubbinieda.sim.model.Vehicle;
+import lol.omg.jakubbinieda.sim.model.Movement;
+import lol.omg.jakubbinieda.sim.network.Network;
+import lol.omg.jakubbinieda.sim.network.NetworkWorker;
 
 public final class Runner {
+  private static final List<String> NO_VEHICLES = List.of();
+
+  // Pipe mode runs on an endless stream, so it only rejects duplicates among this many of the
+  // most recently departed vehicles
+  private static final int PIPE_ID_RETENTION = 1 << 20;
+
   private Runner() {}
 
   public static void main(String[] args) {
-    if (args.length != 2) {
+    if (args.length == 3 && args[0].equals("--convert")) {
+      convert(Path.of(args[1]), Path.of(args[2]));
+      return;
+    }
+    if (args.length == 1 && args[0].equals("--ndjson")) {
+      pipe();
+      return;
+    }
+    if (args.length >= 5 && args[0].equals("--worker")) {
+      work(args);
+      return;
+    }
+    boolean pipelined = args.length == 3 && args[0].equals("--pipelined");
+    if (args.length != 2 && !pipelined) {
       System.err.println("Invalid number of arguments");
       return;
     }
 
-    Path inputPath = Path.of(args[0]);
-    Path outputPath = Path.of(args[1]);
+    Path inputPath = Path.of(args[args.length - 2]);
+    Path outputPath = Path.of(args[args.length - 1]);
 
-    SimulationInput input;
+    CommandSource commands;
     try {
-      input = JsonParser.getInstance().readInput(inputPath);
+      commands = openCommands(inputPath, pipelined);
     } catch (Exception e) {
       System.err.println("Error reading input file: " + e.getMessage());
       return;
     }
 
-    List<StepStatus> results = new ArrayList<>();
+    boolean completed;
+    try (commands;
+        StepSink output = openOutput(outputPath, pipelined)) {
+      completed = run(commands, output, false);
+    } catch (IOException e) {
+      System.err.println("Error writing output file: " + e.getMessage());
+      completed = false;
+    }
 
-    LoadBalancer loadBalancer = new RandomBalancer();
+    // A run that failed part-way leaves no output behind
+    if (!completed) {
+      try {
+        Files.deleteIfExists(outputPath);
+      } catch (IOException e) {
+        System.err.println("Error removing output file: " + e.getMessage());
+      }
+    }
+  }
 
-    List<List<String>> phases =
-        List.of(List.of("sg-north", "sg-south"), List.of("sg-east", "sg-west"));
-    Controller controller = new BasicController(3, 5, phases);
+  // Commands come from stdin and results go to stdout, one JSON document per line
+  private static void pipe() {
+    try (CommandSource commands = JsonParser.getInstance().openNdjsonCommands(System.in);
+        StepSink output = JsonParser.getInstance().openNdjsonOutput(System.out)) {
+      run(commands, output, true);
+    } catch (IOException e) {
+      System.err.println("Error writing output: " + e.getMessage());
+    }
+  }
+
+  // --worker host port rows columns [intersection...] steps the listed intersections of a grid, or
+  // all of them, for a NetworkCoordinator listening on host:port. The coordinator keeps the links.
+  private static void work(String[] args) {
+    try {
+      int port = Integer.parseInt(args[2]);
+      Network grid =
+          SimpleNetworkFactory.getInstance()
+              .supplyGrid(
+                  Integer.parseInt(args[3]),
+                  Integer.parseInt(args[4]),
+                  1,
+                  Runner::controller,
+                  RandomBalancer::new);
+
+      List<String> ids =
+          args.length > 5 ? List.of(args).subList(5, args.length) : grid.getIntersectionIds();
+      Map<String, Intersection> owned = new TreeMap<>();
+      for (String id : ids) {
+        owned.put(id, grid.getIntersection(id));
+      }
+
+      new NetworkWorker(owned).run(args[1], port);
+    } catch (IOException e) {
+      System.err.println("Error connecting to coordinator: " + e.getMessage());
+    } catch (RuntimeException e) {
+      System.err.println("Error running worker: " + e.getMessage());
+    }
+  }
+
+  private static void convert(Path inputPath, Path scenarioPath) {
+    try {
+      BinaryParser.getInstance().convert(inputPath, scenarioPath);
+    } catch (Exception e) {
+      System.err.println("Error converting input file: " + e.getMessage());
+    }
+  }
+
+  // Binary scenarios are recognised by their magic number, anything else is read as JSON.
+  // Pipelined runs read, simulate and write on three threads, so a run costs about as much as its
+  // slowest stage.
+  private static CommandSource openCommands(Path inputPath, boolean pipelined) throws IOException {
+    CommandSource commands =
+        BinaryParser.getInstance().isScenario(inputPath)
+            ? BinaryParser.getInstance().openScenario(inputPath)
+            : JsonParser.getInstance().openCommands(inputPath);
+    return pipelined ? new PrefetchingCommandSource(commands) : commands;
+  }
+
+  private static StepSink openOutput(Path outputPath, boolean pipelined) throws IOException {
+    StepSink output =
+        outputPath.toString().endsWith(".bin")
+            ? BinaryParser.getInstance().openResults(outputPath)
+            : JsonParser.getInstance().openOutput(outputPath);
+    return pipelined ? new BackgroundStepSink(output) : output;
+  }
+
+  // Commands are run as they are read and step statuses written as they are produced, so memory
+  // grows with the length of the run only by the IDs kept to reject duplicates. Eager runs take
+  // each step as soon as it is read instead of fast-forwarding runs of steps, and keep a bounded
+  // window of IDs. Returns false when the input cannot be read or the simulation rejects it, e.g.
+  // on a duplicate vehicle ID.
+  private static boolean run(CommandSource commands, StepSink output, boolean eager)
+      throws IOException {
+    try {
+      return simulate(commands, output, eager);
+    } catch (RuntimeException e) {
+      System.err.println("Error running simulation: " + e.getMessage());
+      return false;
+    }
+  }
+
+  private static boolean simulate(CommandSource commands, StepSink output, boolean eager)
+      throws IOException {
+    LoadBalancer loadBalancer = new RandomBalancer();
     Intersection intersection =
-        SimpleIntersectionFactory.getInstance().supply(controller, loadBalancer);
+        SimpleIntersectionFactory.getInstance().supply(controller(), loadBalancer);
+    if (eager) {
+      intersection.getArchive().setIdRetention(PIPE_ID_RETENTION);
+    }
 
-    for (Command cmd : input.commands()) {
-      switch (cmd) {
-        case StepCommand ignore -> {
-          StepResult result = intersection.step();
-          results.add(new StepStatus(result.leftIntersection()));
+    // Consecutive arrivals are queued as one batch right before the next step
+    List<String> arrivalIds = new ArrayList<>();
+    List<Movement> arrivalMovements = new ArrayList<>();
+    StepBuffer buffer = new StepBuffer();
+    int pendingSteps = 0;
+    while (true) {
+      Command command;
+      try {
+        if (!commands.hasNext()) {
+          break;
         }
+        command = commands.next();
+      } catch (Exception e) {
+        System.err.println("Error reading input file: " + e.getMessage());
+        return false;
+      }
+
+      switch (command) {
+        case StepCommand ignore -> pendingSteps++;
         case AddVehicleCommand addVehicleCmd -> {
-          intersection.addVehicle(new Vehicle(addVehicleCmd.vehicleId(), addVehicleCmd.movement()));
+          advance(intersection, pendingSteps, buffer, output);
+          pendingSteps = 0;
+          arrivalIds.add(addVehicleCmd.vehicleId());
+          arrivalMovements.add(addVehicleCmd.movement());
         }
       }
+
+      if (pendingSteps == 1) {
+        addArrivals(intersection, arrivalIds, arrivalMovements);
+      }
+      if (eager) {
+        advance(intersection, pendingSteps, buffer, output);
+        pendingSteps = 0;
+      }
     }
+    advance(intersection, pendingSteps, buffer, output);
+    addArrivals(intersection, arrivalIds, arrivalMovements);
+    return true;
+  }
 
-    try {
-      JsonParser.getInstance().writeOutput(outputPath, new SimulationOutput(results));
-    } catch (Exception e) {
-      System.err.println("Error writing output file: " + e.getMessage());
+  private static Controller controller() {
+    List<List<String>> phases =
+        List.of(List.of("sg-north", "sg-south"), List.of("sg-east", "sg-west"));
+    return new BasicController(3, 5, phases);
+  }
+
+  private static void addArrivals(
+      Intersection intersection, List<String> ids, List<Movement> movements) {
+    if (ids.isEmpty()) {
+      return;
+    }
+
+    intersection.addVehicles(ids, movements);
+    ids.clear();
+    movements.clear();
+  }
+
+  // Runs of steps are fast-forwarded; skipped steps report no vehicles leaving
+  private static void advance(
+      Intersection intersection, int steps, StepBuffer buffer, StepSink output) throws IOException {
+    while (steps > 0) {
+      int taken = intersection.advance(steps, buffer);
+      for (int i = 1; i < taken; i++) {
+        output.write(NO_VEHICLES);
+      }
+      output.write(buffer.copyLeftIntersection());
+      steps -= taken;
     }
   }
 }
@@ -0,0 +1,9 @@
+package lol.omg.jakubbinieda.sim.actor;
+
+// Latencies run from a command entering the inbox to the actor finishing it
+public record ActorMetrics(
+    int inboxDepth,
+    long processedCommands,
+    long failedCommands,
+    long lastLatencyNanos,
+    long maxLatencyNanos) {}
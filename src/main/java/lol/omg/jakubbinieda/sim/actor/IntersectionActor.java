@@ -0,0 +1,148 @@
+package lol.omg.jakubbinieda.sim.actor;
+
+import java.util.Objects;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.locks.ReentrantLock;
+import lol.omg.jakubbinieda.sim.engine.Intersection;
+import lol.omg.jakubbinieda.sim.engine.StepBuffer;
+import lol.omg.jakubbinieda.sim.io.commands.AddVehicleCommand;
+import lol.omg.jakubbinieda.sim.io.commands.Command;
+import lol.omg.jakubbinieda.sim.io.commands.StepCommand;
+
+// Owns an intersection on a virtual thread and applies its commands one at a time, in the order
+// they were submitted; the intersection is never touched from any other thread
+public class IntersectionActor implements AutoCloseable {
+  // Marks the end of the inbox
+  private static final Envelope STOP = new Envelope(null, 0);
+
+  private final String id;
+  private final Intersection intersection;
+  private final StepListener listener;
+  private final LinkedBlockingQueue<Envelope> inbox;
+  private final StepBuffer buffer;
+  private final Thread thread;
+  // A lock rather than synchronized, which would pin the virtual thread's carrier
+  private final ReentrantLock lock;
+
+  // Guarded by lock, so no command can be enqueued after STOP or after the actor has died
+  private boolean closed;
+  private volatile long processedCommands;
+  private volatile long failedCommands;
+  private volatile long lastLatencyNanos;
+  private volatile long maxLatencyNanos;
+
+  public IntersectionActor(String id, Intersection intersection, StepListener listener) {
+    this.id = Objects.requireNonNull(id, "id cannot be null");
+    this.intersection = Objects.requireNonNull(intersection, "intersection cannot be null");
+    this.listener = Objects.requireNonNull(listener, "listener cannot be null");
+    this.inbox = new LinkedBlockingQueue<>();
+    this.buffer = new StepBuffer();
+    this.lock = new ReentrantLock();
+    this.thread = Thread.ofVirtual().name("intersection-" + id).start(this::run);
+  }
+
+  public String getId() {
+    return id;
+  }
+
+  public void submit(Command command) {
+    Objects.requireNonNull(command, "command cannot be null");
+    lock.lock();
+    try {
+      if (closed) {
+        throw new IllegalStateException("Cannot submit when actor " + id + " is closed");
+      }
+      inbox.add(new Envelope(command, System.nanoTime()));
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public ActorMetrics getMetrics() {
+    return new ActorMetrics(
+        inbox.size(), processedCommands, failedCommands, lastLatencyNanos, maxLatencyNanos);
+  }
+
+  // Commands submitted before close() are still applied before the actor stops; later ones are
+  // rejected
+  @Override
+  public void close() {
+    lock.lock();
+    try {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      inbox.add(STOP);
+    } finally {
+      lock.unlock();
+    }
+
+    try {
+      thread.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void run() {
+    try {
+      serve();
+    } finally {
+      // Whatever stopped the actor, later commands are rejected instead of piling up unread
+      lock.lock();
+      try {
+        closed = true;
+        inbox.clear();
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+
+  private void serve() {
+    while (true) {
+      Envelope envelope;
+      try {
+        envelope = inbox.take();
+      } catch (InterruptedException e) {
+        return;
+      }
+      if (envelope == STOP) {
+        return;
+      }
+
+      try {
+        apply(envelope.command());
+      } catch (RuntimeException e) {
+        failedCommands++;
+        reportFailure(envelope.command(), e);
+      }
+
+      long latency = System.nanoTime() - envelope.enqueuedNanos();
+      lastLatencyNanos = latency;
+      maxLatencyNanos = Math.max(maxLatencyNanos, latency);
+      processedCommands++;
+    }
+  }
+
+  private void reportFailure(Command command, RuntimeException failure) {
+    try {
+      listener.onFailure(id, command, failure);
+    } catch (RuntimeException e) {
+      // A listener that cannot take the report must not stop the actor
+    }
+  }
+
+  private void apply(Command command) {
+    switch (command) {
+      case AddVehicleCommand add -> intersection.addVehicle(add.vehicleId(), add.movement());
+      case StepCommand ignore -> {
+        intersection.step(buffer);
+        listener.onStep(id, buffer.toStepResult());
+      }
+    }
+  }
+
+  private record Envelope(Command command, long enqueuedNanos) {}
+}
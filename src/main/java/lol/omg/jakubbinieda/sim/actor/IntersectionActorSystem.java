@@ -0,0 +1,71 @@
+package lol.omg.jakubbinieda.sim.actor;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import lol.omg.jakubbinieda.sim.engine.Intersection;
+import lol.omg.jakubbinieda.sim.io.commands.Command;
+
+// Every intersection advances at its own pace; actors run on virtual threads, so a JVM can hold
+// tens of thousands of them
+public class IntersectionActorSystem implements AutoCloseable {
+  private final StepListener listener;
+  private final Map<String, IntersectionActor> actors;
+  private final ReentrantLock lock;
+
+  // Guarded by lock
+  private boolean closed;
+
+  public IntersectionActorSystem(StepListener listener) {
+    this.listener = Objects.requireNonNull(listener, "listener cannot be null");
+    this.actors = new ConcurrentHashMap<>();
+    this.lock = new ReentrantLock();
+  }
+
+  public IntersectionActor spawn(String id, Intersection intersection) {
+    Objects.requireNonNull(id, "id cannot be null");
+    lock.lock();
+    try {
+      if (closed) {
+        throw new IllegalStateException("Cannot spawn when system is closed");
+      }
+      if (actors.containsKey(id)) {
+        throw new IllegalArgumentException("Intersection with ID " + id + " already exists");
+      }
+
+      IntersectionActor actor = new IntersectionActor(id, intersection, listener);
+      actors.put(id, actor);
+      return actor;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public void send(String intersectionId, Command command) {
+    IntersectionActor actor = actors.get(intersectionId);
+    if (actor == null) {
+      throw new IllegalArgumentException("Unknown intersection: " + intersectionId);
+    }
+    actor.submit(command);
+  }
+
+  // Keyed by intersection ID, in ID order
+  public Map<String, ActorMetrics> getMetrics() {
+    Map<String, ActorMetrics> metrics = new TreeMap<>();
+    actors.forEach((id, actor) -> metrics.put(id, actor.getMetrics()));
+    return metrics;
+  }
+
+  @Override
+  public void close() {
+    lock.lock();
+    try {
+      closed = true;
+      actors.values().forEach(IntersectionActor::close);
+    } finally {
+      lock.unlock();
+    }
+  }
+}
@@ -0,0 +1,11 @@
+package lol.omg.jakubbinieda.sim.actor;
+
+import lol.omg.jakubbinieda.sim.engine.StepResult;
+import lol.omg.jakubbinieda.sim.io.commands.Command;
+
+// Called on the actor's own thread, so implementations shared between actors must be thread-safe
+public interface StepListener {
+  void onStep(String intersectionId, StepResult result);
+
+  default void onFailure(String intersectionId, Command command, RuntimeException failure) {}
+}
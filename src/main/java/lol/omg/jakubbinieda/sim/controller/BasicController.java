@@ -2,15 +2,17 @@ package lol.omg.jakubbinieda.sim.controller;
 
 import java.util.*;
 import lol.omg.jakubbinieda.sim.engine.IntersectionState;
+import lol.omg.jakubbinieda.sim.geometry.ConflictMatrix;
 import lol.omg.jakubbinieda.sim.geometry.IntersectionLayout;
 import lol.omg.jakubbinieda.sim.model.Direction;
 import lol.omg.jakubbinieda.sim.model.Movement;
-import lol.omg.jakubbinieda.sim.model.TurnType;
 import lol.omg.jakubbinieda.sim.signal.SignalCommand;
 import lol.omg.jakubbinieda.sim.signal.SignalGroup;
 import lol.omg.jakubbinieda.sim.signal.SignalState;
 
 public class BasicController implements Controller {
+  private static final Direction[] DIRECTIONS = Direction.values();
+
   private final int minGreen;
   private final int maxGreen;
   private final List<List<String>> phaseDefinitions;
@@ -72,6 +74,57 @@ public class BasicController implements Controller {
     };
   }
 
+  @Override
+  public int nextDecisionStep(IntersectionState state) {
+    if (phases == null) {
+      throw new IllegalStateException("Controller not initialized");
+    }
+
+    int next = state.step() + 1;
+    if (stage != Stage.GREEN) {
+      return next;
+    }
+    if (phases.size() <= 1) {
+      return Integer.MAX_VALUE;
+    }
+
+    int bestPhase = selectBestPhase(state, activePhase);
+    if (scorePhase(phases.get(bestPhase), state) > scorePhase(phases.get(activePhase), state)) {
+      return Math.max(next, greenStartStep + minGreen);
+    }
+    return Math.max(next, greenStartStep + maxGreen);
+  }
+
+  // Without demand elsewhere, only more vehicles on other roads or fewer on the active ones can
+  // make a switch worthwhile before maxGreen
+  @Override
+  public List<QueueTrigger> queueTriggers(IntersectionState state) {
+    if (phases == null) {
+      throw new IllegalStateException("Controller not initialized");
+    }
+    if (stage != Stage.GREEN || phases.size() <= 1) {
+      return List.of();
+    }
+
+    Phase active = phases.get(activePhase);
+    int bestPhase = selectBestPhase(state, activePhase);
+    if (scorePhase(phases.get(bestPhase), state) > scorePhase(active, state)) {
+      return List.of();
+    }
+
+    List<QueueTrigger> triggers = new ArrayList<>();
+    for (Map.Entry<Direction, Integer> entry : state.waitingPerRoad().entrySet()) {
+      Direction road = entry.getKey();
+      int waiting = entry.getValue();
+      if (!active.approachDirections().contains(road)) {
+        triggers.add(QueueTrigger.atLeast(road, waiting + 1));
+      } else if (waiting > 0) {
+        triggers.add(QueueTrigger.atMost(road, waiting - 1));
+      }
+    }
+    return triggers;
+  }
+
   private List<Phase> resolvePhases(List<List<String>> definitions, List<SignalGroup> groups) {
     Map<String, SignalGroup> groupMap = new HashMap<>();
     for (SignalGroup g : groups) {
@@ -188,15 +241,7 @@ public class BasicController implements Controller {
   }
 
   private boolean movementsConflict(Movement a, Movement b) {
-    if (a.from() == b.from()) {
-      return false;
-    }
-
-    if (a.from() == b.from().opposite()) {
-      return (a.getTurnType() == TurnType.LEFT) != (b.getTurnType() == TurnType.LEFT);
-    }
-
-    return !(a.getTurnType() == TurnType.RIGHT && b.getTurnType() == TurnType.RIGHT);
+    return ConflictMatrix.getInstance().conflicts(a, b);
   }
 
   private int selectBestPhase(IntersectionState state, int excludePhase) {
@@ -213,10 +258,15 @@ public class BasicController implements Controller {
     return bestIndex;
   }
 
+  // Runs on every decision, so it loops instead of streaming to stay allocation-free
   private int scorePhase(Phase phase, IntersectionState state) {
-    return phase.approachDirections().stream()
-        .mapToInt(d -> state.waitingPerRoad().getOrDefault(d, 0))
-        .sum();
+    int score = 0;
+    for (Direction direction : DIRECTIONS) {
+      if (phase.approachDirections().contains(direction)) {
+        score += state.waitingPerRoad().getOrDefault(direction, 0);
+      }
+    }
+    return score;
   }
 
   private Map<String, SignalState> phaseOverrides(int phaseIndex, SignalState state) {
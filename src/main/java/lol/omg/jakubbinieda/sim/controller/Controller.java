@@ -9,4 +9,14 @@ public interface Controller {
   void initialize(IntersectionLayout layout);
 
   List<SignalCommand> decide(IntersectionState state);
+
+  // Both are asked right after decide(), with the same state. Until the returned step, decide()
+  // is only called again once a trigger fires, so the calls skipped must be no-ops
+  default int nextDecisionStep(IntersectionState state) {
+    return state.step() + 1;
+  }
+
+  default List<QueueTrigger> queueTriggers(IntersectionState state) {
+    return List.of();
+  }
 }
@@ -0,0 +1,32 @@
+package lol.omg.jakubbinieda.sim.controller;
+
+import java.util.Objects;
+import lol.omg.jakubbinieda.sim.model.Direction;
+
+// Wakes the controller once the number of vehicles waiting on a road reaches the given bound
+public record QueueTrigger(Direction road, Bound bound, int count) {
+  public QueueTrigger {
+    Objects.requireNonNull(road, "road cannot be null");
+    Objects.requireNonNull(bound, "bound cannot be null");
+  }
+
+  public static QueueTrigger atLeast(Direction road, int count) {
+    return new QueueTrigger(road, Bound.AT_LEAST, count);
+  }
+
+  public static QueueTrigger atMost(Direction road, int count) {
+    return new QueueTrigger(road, Bound.AT_MOST, count);
+  }
+
+  public boolean fires(int waiting) {
+    return switch (bound) {
+      case AT_LEAST -> waiting >= count;
+      case AT_MOST -> waiting <= count;
+    };
+  }
+
+  public enum Bound {
+    AT_LEAST,
+    AT_MOST
+  }
+}
@@ -0,0 +1,5 @@
+package lol.omg.jakubbinieda.sim.engine;
+
+import lol.omg.jakubbinieda.sim.model.Movement;
+
+public record ArchivedVehicle(String id, Movement movement, int waitTime, int exitStep) {}
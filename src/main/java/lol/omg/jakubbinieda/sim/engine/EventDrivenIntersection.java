@@ -0,0 +1,197 @@
+package lol.omg.jakubbinieda.sim.engine;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+import lol.omg.jakubbinieda.sim.controller.Controller;
+import lol.omg.jakubbinieda.sim.engine.EventQueue.Type;
+import lol.omg.jakubbinieda.sim.engine.crossing.ConstantCrossingTime;
+import lol.omg.jakubbinieda.sim.engine.crossing.CrossingTimeModel;
+import lol.omg.jakubbinieda.sim.engine.loadbalancer.LoadBalancer;
+import lol.omg.jakubbinieda.sim.geometry.IntersectionLayout;
+import lol.omg.jakubbinieda.sim.model.Movement;
+
+// Evaluates only the steps at which an event is due; every other step is idle and is skipped.
+// Results match Intersection stepped once per step.
+public class EventDrivenIntersection {
+  private final IntersectionLayout layout;
+  private final Intersection intersection;
+  private final EventQueue events;
+
+  private final Set<String> scheduledIds;
+  private final IntRing freeArrivalSlots;
+  private String[] arrivalIds;
+  private Movement[] arrivalMovements;
+  private int arrivalSlots;
+
+  private int wakeUpGeneration;
+  private int scheduledCompletion;
+
+  public EventDrivenIntersection(
+      IntersectionLayout layout, Controller controller, LoadBalancer loadBalancer) {
+    this(layout, controller, loadBalancer, Intersection.DEFAULT_ARCHIVE_CAPACITY);
+  }
+
+  public EventDrivenIntersection(
+      IntersectionLayout layout,
+      Controller controller,
+      LoadBalancer loadBalancer,
+      int archiveCapacity) {
+    this(layout, controller, loadBalancer, archiveCapacity, new ConstantCrossingTime(1));
+  }
+
+  public EventDrivenIntersection(
+      IntersectionLayout layout,
+      Controller controller,
+      LoadBalancer loadBalancer,
+      int archiveCapacity,
+      CrossingTimeModel crossingTimeModel) {
+    this.layout = Objects.requireNonNull(layout, "layout cannot be null");
+    this.intersection =
+        new Intersection(layout, controller, loadBalancer, archiveCapacity, crossingTimeModel);
+    this.events = new EventQueue();
+
+    this.scheduledIds = new HashSet<>();
+    this.freeArrivalSlots = new IntRing();
+    this.arrivalIds = new String[0];
+    this.arrivalMovements = new Movement[0];
+    this.arrivalSlots = 0;
+
+    // The first step always asks the controller
+    this.wakeUpGeneration = 0;
+    events.add(1, Type.CONTROLLER_WAKE_UP, wakeUpGeneration);
+  }
+
+  public void addVehicle(String id, Movement movement) {
+    scheduleArrival(intersection.stepCount() + 1, id, movement);
+  }
+
+  // The vehicle joins its queue right before the given step is taken
+  public void scheduleArrival(int step, String id, Movement movement) {
+    Objects.requireNonNull(id, "id cannot be null");
+    Objects.requireNonNull(movement, "movement cannot be null");
+
+    int current = intersection.stepCount();
+    if (step <= current) {
+      throw new IllegalArgumentException(
+          "Cannot schedule arrival at step " + step + " when current step is " + current);
+    }
+    if (intersection.getIdTable().lookup(id) != VehicleIdTable.NONE || scheduledIds.contains(id)) {
+      throw new IllegalArgumentException("Vehicle with ID " + id + " already exists");
+    }
+    if (layout.getLanesFor(movement).isEmpty()) {
+      throw new IllegalArgumentException("No lanes available for movement " + movement);
+    }
+
+    int slot;
+    if (freeArrivalSlots.isEmpty()) {
+      if (arrivalSlots == arrivalIds.length) {
+        arrivalIds = Arrays.copyOf(arrivalIds, Math.max(8, arrivalSlots * 2));
+        arrivalMovements = Arrays.copyOf(arrivalMovements, arrivalIds.length);
+      }
+      slot = arrivalSlots++;
+    } else {
+      slot = freeArrivalSlots.poll();
+    }
+
+    scheduledIds.add(id);
+    arrivalIds[slot] = id;
+    arrivalMovements[slot] = movement;
+    events.add(step, Type.ARRIVAL, slot);
+  }
+
+  public VehicleArchive getArchive() {
+    return intersection.getArchive();
+  }
+
+  public VehicleIdTable getIdTable() {
+    return intersection.getIdTable();
+  }
+
+  public StepResult step() {
+    StepBuffer buffer = new StepBuffer();
+    step(buffer);
+    return buffer.toStepResult();
+  }
+
+  public void step(StepBuffer buffer) {
+    advance(1, buffer);
+  }
+
+  // Same contract as Intersection.advance: the last step taken is in the buffer and the earlier
+  // ones were idle
+  public int advance(int steps, StepBuffer buffer) {
+    if (steps < 1) {
+      throw new IllegalArgumentException("steps must be positive");
+    }
+    Objects.requireNonNull(buffer, "buffer cannot be null");
+
+    int current = intersection.stepCount();
+    int next = nextEventStep();
+    if (next - current > steps) {
+      intersection.skipTo(current + steps);
+      intersection.fillIdle(buffer);
+      return steps;
+    }
+
+    evaluate(next, buffer);
+    return next - current;
+  }
+
+  private int nextEventStep() {
+    while (!events.isEmpty()) {
+      if (events.peekType() != Type.CONTROLLER_WAKE_UP
+          || events.peekPayload() == wakeUpGeneration) {
+        return events.peekStep();
+      }
+      // Superseded by a later evaluation
+      events.remove();
+    }
+    return Integer.MAX_VALUE;
+  }
+
+  private void evaluate(int step, StepBuffer buffer) {
+    intersection.skipTo(step - 1);
+    while (!events.isEmpty() && events.peekStep() == step) {
+      Type type = events.peekType();
+      int payload = events.peekPayload();
+      events.remove();
+
+      if (type == Type.ARRIVAL) {
+        arrive(payload);
+      }
+    }
+
+    intersection.step(buffer);
+    scheduleAfter(step);
+  }
+
+  private void arrive(int slot) {
+    String id = arrivalIds[slot];
+    Movement movement = arrivalMovements[slot];
+    arrivalIds[slot] = null;
+    arrivalMovements[slot] = null;
+    freeArrivalSlots.add(slot);
+
+    scheduledIds.remove(id);
+    intersection.addVehicle(id, movement);
+  }
+
+  private void scheduleAfter(int step) {
+    int completion = intersection.nextCrossingCompletion();
+    if (completion != Integer.MAX_VALUE && completion != scheduledCompletion) {
+      events.add(completion, Type.CROSSING_COMPLETION, 0);
+      scheduledCompletion = completion;
+    }
+    if (intersection.hasPendingEntries()) {
+      events.add(step + 1, Type.QUEUE_DISCHARGE, 0);
+    }
+
+    int wakeUp = Math.max(step + 1, intersection.nextDecisionStep());
+    wakeUpGeneration++;
+    if (wakeUp != Integer.MAX_VALUE) {
+      events.add(wakeUp, Type.CONTROLLER_WAKE_UP, wakeUpGeneration);
+    }
+  }
+}
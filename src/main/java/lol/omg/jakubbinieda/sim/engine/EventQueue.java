@@ -0,0 +1,141 @@
+package lol.omg.jakubbinieda.sim.engine;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+// Binary min-heap of events ordered by step, then by insertion order
+class EventQueue {
+  enum Type {
+    ARRIVAL,
+    CROSSING_COMPLETION,
+    QUEUE_DISCHARGE,
+    CONTROLLER_WAKE_UP
+  }
+
+  private static final int INITIAL_CAPACITY = 16;
+  private static final Type[] TYPES = Type.values();
+
+  private int[] steps;
+  private long[] sequences;
+  private byte[] types;
+  private int[] payloads;
+  private int size;
+  private long nextSequence;
+
+  EventQueue() {
+    this.steps = new int[INITIAL_CAPACITY];
+    this.sequences = new long[INITIAL_CAPACITY];
+    this.types = new byte[INITIAL_CAPACITY];
+    this.payloads = new int[INITIAL_CAPACITY];
+  }
+
+  void add(int step, Type type, int payload) {
+    if (size == steps.length) {
+      grow();
+    }
+
+    int slot = size++;
+    set(slot, step, nextSequence++, (byte) type.ordinal(), payload);
+    siftUp(slot);
+  }
+
+  int size() {
+    return size;
+  }
+
+  boolean isEmpty() {
+    return size == 0;
+  }
+
+  int peekStep() {
+    checkNotEmpty();
+    return steps[0];
+  }
+
+  Type peekType() {
+    checkNotEmpty();
+    return TYPES[types[0]];
+  }
+
+  int peekPayload() {
+    checkNotEmpty();
+    return payloads[0];
+  }
+
+  void remove() {
+    checkNotEmpty();
+
+    size--;
+    if (size > 0) {
+      set(0, steps[size], sequences[size], types[size], payloads[size]);
+      siftDown(0);
+    }
+  }
+
+  private void siftUp(int slot) {
+    while (slot > 0) {
+      int parent = (slot - 1) / 2;
+      if (!before(slot, parent)) {
+        return;
+      }
+      swap(slot, parent);
+      slot = parent;
+    }
+  }
+
+  private void siftDown(int slot) {
+    while (true) {
+      int smallest = slot;
+      int left = 2 * slot + 1;
+      int right = left + 1;
+      if (left < size && before(left, smallest)) {
+        smallest = left;
+      }
+      if (right < size && before(right, smallest)) {
+        smallest = right;
+      }
+      if (smallest == slot) {
+        return;
+      }
+      swap(slot, smallest);
+      slot = smallest;
+    }
+  }
+
+  private boolean before(int a, int b) {
+    if (steps[a] != steps[b]) {
+      return steps[a] < steps[b];
+    }
+    return sequences[a] < sequences[b];
+  }
+
+  private void swap(int a, int b) {
+    int step = steps[a];
+    long sequence = sequences[a];
+    byte type = types[a];
+    int payload = payloads[a];
+    set(a, steps[b], sequences[b], types[b], payloads[b]);
+    set(b, step, sequence, type, payload);
+  }
+
+  private void set(int slot, int step, long sequence, byte type, int payload) {
+    steps[slot] = step;
+    sequences[slot] = sequence;
+    types[slot] = type;
+    payloads[slot] = payload;
+  }
+
+  private void checkNotEmpty() {
+    if (size == 0) {
+      throw new NoSuchElementException("Event queue is empty");
+    }
+  }
+
+  private void grow() {
+    int capacity = steps.length * 2;
+    steps = Arrays.copyOf(steps, capacity);
+    sequences = Arrays.copyOf(sequences, capacity);
+    types = Arrays.copyOf(types, capacity);
+    payloads = Arrays.copyOf(payloads, capacity);
+  }
+}
@@ -0,0 +1,55 @@
+package lol.omg.jakubbinieda.sim.engine;
+
+import java.util.NoSuchElementException;
+
+// FIFO of ints in a power-of-two ring that doubles when full
+class IntRing {
+  private static final int INITIAL_CAPACITY = 8;
+
+  private int[] elements;
+  private int head;
+  private int size;
+
+  IntRing() {
+    this.elements = new int[INITIAL_CAPACITY];
+  }
+
+  void add(int value) {
+    if (size == elements.length) {
+      grow();
+    }
+    elements[(head + size) & (elements.length - 1)] = value;
+    size++;
+  }
+
+  int peek() {
+    if (size == 0) {
+      throw new NoSuchElementException("Ring is empty");
+    }
+    return elements[head];
+  }
+
+  int poll() {
+    int value = peek();
+    head = (head + 1) & (elements.length - 1);
+    size--;
+    return value;
+  }
+
+  int size() {
+    return size;
+  }
+
+  boolean isEmpty() {
+    return size == 0;
+  }
+
+  private void grow() {
+    int[] grown = new int[elements.length * 2];
+    int firstPart = elements.length - head;
+    System.arraycopy(elements, head, grown, 0, firstPart);
+    System.arraycopy(elements, 0, grown, firstPart, head);
+    elements = grown;
+    head = 0;
+  }
+}
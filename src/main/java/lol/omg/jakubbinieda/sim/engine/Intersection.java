@@ -1,180 +1,529 @@
 package lol.omg.jakubbinieda.sim.engine;
 
-import static java.util.stream.Collectors.toMap;
-import static java.util.stream.Collectors.toSet;
-
-import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.Deque;
-import java.util.EnumMap;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
-import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.function.IntSupplier;
 import lol.omg.jakubbinieda.sim.controller.Controller;
+import lol.omg.jakubbinieda.sim.controller.QueueTrigger;
+import lol.omg.jakubbinieda.sim.engine.crossing.ConstantCrossingTime;
+import lol.omg.jakubbinieda.sim.engine.crossing.CrossingTimeModel;
 import lol.omg.jakubbinieda.sim.engine.loadbalancer.LoadBalancer;
+import lol.omg.jakubbinieda.sim.geometry.ConflictMatrix;
 import lol.omg.jakubbinieda.sim.geometry.IntersectionLayout;
 import lol.omg.jakubbinieda.sim.geometry.Lane;
 import lol.omg.jakubbinieda.sim.model.Direction;
 import lol.omg.jakubbinieda.sim.model.Movement;
 import lol.omg.jakubbinieda.sim.model.TurnType;
 import lol.omg.jakubbinieda.sim.model.Vehicle;
-import lol.omg.jakubbinieda.sim.model.Vehicle.State;
 import lol.omg.jakubbinieda.sim.signal.SignalCommand;
 import lol.omg.jakubbinieda.sim.signal.SignalGroup;
 import lol.omg.jakubbinieda.sim.signal.SignalState;
 
 public class Intersection {
+  public static final int DEFAULT_ARCHIVE_CAPACITY = 1024;
+
+  private static final int TURN_TYPES = TurnType.values().length;
+  private static final int[] MOVEMENT_TURN_TYPES = new int[Movement.COUNT];
+  private static final int[] EXIT_MASKS = new int[Direction.values().length];
+
+  static {
+    for (int ordinal = 0; ordinal < Movement.COUNT; ordinal++) {
+      Movement movement = Movement.fromOrdinal(ordinal);
+      MOVEMENT_TURN_TYPES[ordinal] = movement.getTurnType().ordinal();
+      EXIT_MASKS[movement.to().ordinal()] |= 1 << ordinal;
+    }
+  }
+
   private final IntersectionLayout layout;
   private final Controller controller;
   private final LoadBalancer loadBalancer;
+  private final ConflictMatrix conflictMatrix;
 
-  private final Map<String, Vehicle> allVehicles;
-  private final Map<Lane, Deque<Vehicle>> laneQueues;
+  private final VehicleStore vehicles;
+  private final VehicleIdTable idTable;
+  private final VehicleArchive archive;
+  private final Map<Lane, Integer> laneIndices;
   private final Map<String, SignalState> signalStates;
-  private final Set<Vehicle> vehiclesOnIntersection;
+  private final List<SignalGroup> signalGroups;
+  private final int[] signalGroupMasks;
+  private final IntersectionStateTracker stateTracker;
+
+  private final List<List<Lane>> movementLanes;
+  private final int[][] movementLaneIndices;
+
+  private IntRing[] laneQueues;
+  private int[] activeLanes;
+  private int activeLaneCount;
+  private int[] candidateLanes;
+  private int[] candidateTurnTypes;
+  private final CrossingTimeModel crossingTimeModel;
+  private final TimingWheel crossings;
+
+  private final IntSupplier waitClock;
 
   private int stepCount;
+  private int settledSteps;
+  private int permittedMovements;
+  private int blockedMovements;
+  private int nextDecision;
+  // Copied out of the controller's list, so checking them every step does not allocate
+  private QueueTrigger[] triggers;
+  private int triggerCount;
 
   public Intersection(IntersectionLayout layout, Controller controller, LoadBalancer loadBalancer) {
+    this(layout, controller, loadBalancer, DEFAULT_ARCHIVE_CAPACITY);
+  }
+
+  public Intersection(
+      IntersectionLayout layout,
+      Controller controller,
+      LoadBalancer loadBalancer,
+      int archiveCapacity) {
+    this(layout, controller, loadBalancer, archiveCapacity, new ConstantCrossingTime(1));
+  }
+
+  public Intersection(
+      IntersectionLayout layout,
+      Controller controller,
+      LoadBalancer loadBalancer,
+      int archiveCapacity,
+      CrossingTimeModel crossingTimeModel) {
     this.layout = Objects.requireNonNull(layout, "layout cannot be null");
     this.controller = Objects.requireNonNull(controller, "controller cannot be null");
     this.loadBalancer = Objects.requireNonNull(loadBalancer, "loadBalancer cannot be null");
-
-    this.allVehicles = new LinkedHashMap<>();
-    this.laneQueues = new LinkedHashMap<>();
+    this.crossingTimeModel =
+        Objects.requireNonNull(crossingTimeModel, "crossingTimeModel cannot be null");
+    this.conflictMatrix = ConflictMatrix.getInstance();
+
+    this.vehicles = new VehicleStore();
+    this.idTable = new VehicleIdTable();
+    this.archive = new VehicleArchive(archiveCapacity, idTable);
+    this.laneIndices = new HashMap<>();
+    this.movementLanes = new ArrayList<>(Collections.nCopies(Movement.COUNT, null));
+    this.movementLaneIndices = new int[Movement.COUNT][];
+    this.laneQueues = new IntRing[0];
+    this.activeLanes = new int[0];
+    this.activeLaneCount = 0;
+    this.candidateLanes = new int[0];
+    this.candidateTurnTypes = new int[0];
+    this.crossings = new TimingWheel();
     this.signalStates = new LinkedHashMap<>();
-    this.vehiclesOnIntersection = new LinkedHashSet<>();
+    this.waitClock = () -> settledSteps;
     this.stepCount = 0;
-
-    for (SignalGroup sg : layout.getSignalGroups()) {
+    this.settledSteps = 0;
+
+    this.signalGroups = List.copyOf(layout.getSignalGroups());
+    this.signalGroupMasks = new int[signalGroups.size()];
+    this.permittedMovements = 0;
+    this.blockedMovements = 0;
+    this.nextDecision = 1;
+    this.triggers = new QueueTrigger[Direction.values().length];
+    this.triggerCount = 0;
+
+    for (int i = 0; i < signalGroups.size(); i++) {
+      SignalGroup sg = signalGroups.get(i);
       signalStates.put(sg.id(), SignalState.RED);
+      for (Movement movement : sg.movements()) {
+        signalGroupMasks[i] |= 1 << movement.ordinal();
+      }
     }
+
+    this.stateTracker = new IntersectionStateTracker(signalStates, layout.getApproachDirections());
+    layout.getLanes().forEach(this::laneIndex);
   }
 
   public void addVehicle(Vehicle vehicle) {
     Objects.requireNonNull(vehicle, "vehicle cannot be null");
 
-    if (allVehicles.containsKey(vehicle.getId())) {
-      throw new IllegalArgumentException("Vehicle with ID " + vehicle.getId() + " already exists");
+    String id = vehicle.getId();
+    Movement movement = vehicle.getMovement();
+    int lane = assignLane(id, movement);
+    int waitTime = vehicle.getWaitTime();
+    vehicle.startWaiting(waitClock);
+    enqueue(lane, vehicles.add(idTable.add(id), movement, waitTime, settledSteps, vehicle));
+  }
+
+  // Same as addVehicle(Vehicle), but the engine keeps the vehicle only in its store
+  public void addVehicle(String id, Movement movement) {
+    Objects.requireNonNull(id, "id cannot be null");
+    Objects.requireNonNull(movement, "movement cannot be null");
+
+    int lane = assignLane(id, movement);
+    enqueue(lane, vehicles.add(idTable.add(id), movement, 0, settledSteps, null));
+  }
+
+  // The whole batch is validated before any vehicle is queued
+  public void addVehicles(Collection<Vehicle> batch) {
+    Objects.requireNonNull(batch, "vehicles cannot be null");
+
+    List<String> ids = new ArrayList<>(batch.size());
+    List<Movement> movements = new ArrayList<>(batch.size());
+    List<Vehicle> facades = new ArrayList<>(batch.size());
+    for (Vehicle vehicle : batch) {
+      Objects.requireNonNull(vehicle, "vehicle cannot be null");
+      if (vehicle.getState() != Vehicle.State.QUEUED) {
+        throw new IllegalStateException("Cannot add vehicle when state is " + vehicle.getState());
+      }
+
+      ids.add(vehicle.getId());
+      movements.add(vehicle.getMovement());
+      facades.add(vehicle);
+    }
+
+    addBatch(ids, movements, facades);
+  }
+
+  public void addVehicles(List<String> ids, List<Movement> movements) {
+    Objects.requireNonNull(ids, "ids cannot be null");
+    Objects.requireNonNull(movements, "movements cannot be null");
+
+    if (ids.size() != movements.size()) {
+      throw new IllegalArgumentException("ids and movements must have the same size");
+    }
+    for (int i = 0; i < ids.size(); i++) {
+      Objects.requireNonNull(ids.get(i), "id cannot be null");
+      Objects.requireNonNull(movements.get(i), "movement cannot be null");
+    }
+
+    addBatch(ids, movements, null);
+  }
+
+  private void addBatch(List<String> ids, List<Movement> movements, List<Vehicle> facades) {
+    Set<String> batchIds = new HashSet<>();
+    List<List<Lane>> candidates = new ArrayList<>(ids.size());
+    for (int i = 0; i < ids.size(); i++) {
+      String id = ids.get(i);
+      if (!batchIds.add(id)) {
+        throw new IllegalArgumentException("Vehicle with ID " + id + " already exists");
+      }
+      candidates.add(candidateLanes(id, movements.get(i)));
+    }
+
+    List<Lane> selected = loadBalancer.selectLanes(candidates);
+    if (selected.size() != ids.size()) {
+      throw new IllegalStateException(
+          "Load balancer selected " + selected.size() + " lanes for " + ids.size() + " vehicles");
+    }
+
+    for (int i = 0; i < ids.size(); i++) {
+      Movement movement = movements.get(i);
+      int lane = resolveLane(movement.ordinal(), candidates.get(i), selected.get(i));
+      int id = idTable.add(ids.get(i));
+
+      if (facades == null) {
+        enqueue(lane, vehicles.add(id, movement, 0, settledSteps, null));
+      } else {
+        Vehicle vehicle = facades.get(i);
+        int waitTime = vehicle.getWaitTime();
+        vehicle.startWaiting(waitClock);
+        enqueue(lane, vehicles.add(id, movement, waitTime, settledSteps, vehicle));
+      }
+    }
+  }
+
+  private int assignLane(String id, Movement movement) {
+    List<Lane> lanes = candidateLanes(id, movement);
+    return resolveLane(movement.ordinal(), lanes, loadBalancer.selectLane(lanes));
+  }
+
+  private List<Lane> candidateLanes(String id, Movement movement) {
+    if (idTable.lookup(id) != VehicleIdTable.NONE) {
+      throw new IllegalArgumentException("Vehicle with ID " + id + " already exists");
     }
 
-    if (layout.getLanesFor(vehicle.getMovement()).isEmpty()) {
-      throw new IllegalArgumentException(
-          "No lanes available for movement " + vehicle.getMovement());
+    List<Lane> lanes = lanesFor(movement.ordinal(), movement);
+    if (lanes.isEmpty()) {
+      throw new IllegalArgumentException("No lanes available for movement " + movement);
     }
+    return lanes;
+  }
+
+  private int resolveLane(int ordinal, List<Lane> lanes, Lane selected) {
+    int[] indices = movementLaneIndices[ordinal];
+    for (int i = 0; i < indices.length; i++) {
+      if (lanes.get(i) == selected) {
+        return indices[i];
+      }
+    }
+    return laneIndex(selected);
+  }
+
+  private List<Lane> lanesFor(int ordinal, Movement movement) {
+    List<Lane> lanes = movementLanes.get(ordinal);
+    if (lanes == null) {
+      lanes = List.copyOf(layout.getLanesFor(movement));
+      movementLaneIndices[ordinal] = lanes.stream().mapToInt(this::laneIndex).toArray();
+      movementLanes.set(ordinal, lanes);
+    }
+    return lanes;
+  }
+
+  // Lanes missing from the layout's lane list are indexed the first time they are seen
+  private int laneIndex(Lane lane) {
+    Integer index = laneIndices.get(lane);
+    if (index != null) {
+      return index;
+    }
+
+    int added = stateTracker.addLane(lane.id(), lane.approach());
+    laneIndices.put(lane, added);
+    laneQueues = Arrays.copyOf(laneQueues, added + 1);
+    activeLanes = Arrays.copyOf(activeLanes, added + 1);
+    candidateLanes = new int[added + 1];
+    candidateTurnTypes = new int[added + 1];
+    return added;
+  }
+
+  // Lanes are scanned in first-use order, which keeps the entry tie-break unchanged
+  private void enqueue(int lane, int handle) {
+    if (laneQueues[lane] == null) {
+      laneQueues[lane] = new IntRing();
+      activeLanes[activeLaneCount++] = lane;
+    }
+    laneQueues[lane].add(handle);
+
+    stateTracker.vehicleQueued(lane);
+  }
+
+  public VehicleArchive getArchive() {
+    return archive;
+  }
+
+  public VehicleIdTable getIdTable() {
+    return idTable;
+  }
+
+  // Vehicles heading for a blocked exit stay queued even on green, e.g. while the road beyond the
+  // exit is full
+  public void setExitBlocked(Direction exit, boolean blocked) {
+    Objects.requireNonNull(exit, "exit cannot be null");
 
-    Lane assignedLane = loadBalancer.selectLane(layout.getLanesFor(vehicle.getMovement()));
-    laneQueues.computeIfAbsent(assignedLane, lane -> new ArrayDeque<>()).add(vehicle);
-    allVehicles.put(vehicle.getId(), vehicle);
+    if (blocked) {
+      blockedMovements |= EXIT_MASKS[exit.ordinal()];
+    } else {
+      blockedMovements &= ~EXIT_MASKS[exit.ordinal()];
+    }
   }
 
   public StepResult step() {
+    StepBuffer buffer = new StepBuffer();
+    step(buffer);
+    return buffer.toStepResult();
+  }
+
+  public void step(StepBuffer buffer) {
+    Objects.requireNonNull(buffer, "buffer cannot be null");
+
+    // Last step's departures were resolvable until now
+    archive.forgetExpired();
     stepCount++;
 
-    IntersectionState state = getCurrentIntersectionState();
-    List<SignalCommand> commands = controller.decide(state);
+    if (decisionDue()) {
+      IntersectionState state = stateTracker.publish(stepCount);
+      List<SignalCommand> commands = controller.decide(state);
+      nextDecision = controller.nextDecisionStep(state);
+      setQueueTriggers(controller.queueTriggers(state));
 
-    applyCommands(commands);
+      applyCommands(commands);
+    }
+
+    buffer.begin(stepCount, signalGroups.size(), activeLaneCount, idTable);
 
-    List<Vehicle> vehiclesExited = exitVehicles();
+    exitVehicles(buffer);
 
     enterVehicles();
 
-    for (Vehicle vehicle : allVehicles.values()) {
-      if (vehicle.getState() == State.QUEUED) {
-        vehicle.incrementWaitTime();
+    // Vehicles still queued at this point have waited one more step
+    settledSteps = stepCount;
+
+    fillBuffer(buffer);
+  }
+
+  private boolean decisionDue() {
+    return stepCount >= nextDecision || triggerFired();
+  }
+
+  private boolean triggerFired() {
+    for (int i = 0; i < triggerCount; i++) {
+      if (triggers[i].fires(stateTracker.waiting(triggers[i].road()))) {
+        return true;
       }
     }
+    return false;
+  }
 
-    return new StepResult(
-        stepCount,
-        Map.copyOf(signalStates),
-        vehiclesExited.stream().map(Vehicle::getId).toList(),
-        laneQueues.entrySet().stream()
-            .collect(toMap(e -> e.getKey().id(), e -> e.getValue().size())));
+  private void setQueueTriggers(List<QueueTrigger> queueTriggers) {
+    int count = queueTriggers.size();
+    if (count > triggers.length) {
+      triggers = new QueueTrigger[count];
+    }
+
+    for (int i = 0; i < count; i++) {
+      triggers[i] = queueTriggers.get(i);
+    }
+    // Drops triggers left over from a longer list
+    Arrays.fill(triggers, count, Math.max(count, triggerCount), null);
+    triggerCount = count;
   }
 
-  private void enterVehicles() {
-    Set<Movement> enteringThisStep = new HashSet<>();
+  // Takes up to the given number of steps, skipping the ones in which nothing can change;
+  // returns how many were taken, the last one is in the buffer and the earlier ones were idle
+  public int advance(int steps, StepBuffer buffer) {
+    if (steps < 1) {
+      throw new IllegalArgumentException("steps must be positive");
+    }
+    Objects.requireNonNull(buffer, "buffer cannot be null");
 
-    List<Map.Entry<Lane, Vehicle>> candidates = new ArrayList<>();
+    int idle = idleSteps(steps);
+    if (idle == 0) {
+      step(buffer);
+      return 1;
+    }
 
-    for (var entry : laneQueues.entrySet()) {
-      Deque<Vehicle> queue = entry.getValue();
-      if (queue.isEmpty()) {
-        continue;
-      }
+    skipTo(stepCount + idle);
+    if (idle == steps) {
+      fillIdle(buffer);
+      return idle;
+    }
 
-      Vehicle vehicle = queue.peek();
-      Movement movement = vehicle.getMovement();
+    step(buffer);
+    return idle + 1;
+  }
 
-      for (SignalGroup signalGroup : layout.getSignalGroups()) {
-        SignalState state = signalStates.get(signalGroup.id());
-        if ((state == SignalState.GREEN || state == SignalState.GREEN_ARROW)
-            && signalGroup.movements().contains(movement)) {
-          candidates.add(Map.entry(entry.getKey(), vehicle));
-          break;
-        }
-      }
+  private int idleSteps(int limit) {
+    if (stepCount == 0 || hasPendingEntries()) {
+      return 0;
     }
 
-    candidates.sort(
-        Comparator.comparingInt(e -> e.getValue().getMovement().getTurnType().ordinal()));
+    long wake = Math.min(nextDecisionStep(), nextCrossingCompletion());
+    return (int) Math.max(0, Math.min(limit, wake - stepCount - 1));
+  }
+
+  int stepCount() {
+    return stepCount;
+  }
 
-    for (var candidate : candidates) {
-      Vehicle vehicle = candidate.getValue();
-      Movement movement = vehicle.getMovement();
+  // Lower bound on the step at which the next crossing vehicle exits
+  int nextCrossingCompletion() {
+    return crossings.nextDue();
+  }
 
-      if (canEnter(movement, enteringThisStep)) {
-        laneQueues.get(candidate.getKey()).poll();
-        vehicle.startCrossing(1);
-        vehiclesOnIntersection.add(vehicle);
-        enteringThisStep.add(movement);
+  // True when a queue head is permitted, so the next step lets it enter
+  boolean hasPendingEntries() {
+    int open = permittedMovements & ~blockedMovements;
+    for (int i = 0; i < activeLaneCount; i++) {
+      IntRing queue = laneQueues[activeLanes[i]];
+      if (queue.isEmpty()) {
+        continue;
+      }
+      if ((open & (1 << vehicles.movementOrdinal(queue.peek()))) != 0) {
+        return true;
       }
     }
+    return false;
   }
 
-  private boolean canEnter(Movement movement, Set<Movement> enteringThisStep) {
+  // Step at which decide() runs next if no vehicle arrives, enters or exits before it
+  int nextDecisionStep() {
+    return triggerFired() ? stepCount + 1 : Math.max(stepCount + 1, nextDecision);
+  }
 
-    for (Movement entering : enteringThisStep) {
-      if (conflicts(movement, entering)) {
-        return false;
-      }
-    }
+  // Only valid while nothing can change, i.e. every skipped step would be idle
+  void skipTo(int step) {
+    stepCount = step;
+    settledSteps = step;
+  }
 
-    return true;
+  void fillIdle(StepBuffer buffer) {
+    buffer.begin(stepCount, signalGroups.size(), activeLaneCount, idTable);
+    fillBuffer(buffer);
   }
 
-  private boolean conflicts(Movement a, Movement b) {
-    if (a.from() == b.from()) {
-      return false;
+  private void fillBuffer(StepBuffer buffer) {
+    for (int group = 0; group < signalGroups.size(); group++) {
+      String id = signalGroups.get(group).id();
+      buffer.setSignalState(group, id, signalStates.get(id));
+    }
+    // Lanes that never had a vehicle are left out, as in IntersectionState
+    for (int i = 0; i < activeLaneCount; i++) {
+      int lane = activeLanes[i];
+      buffer.setQueueLength(i, stateTracker.laneId(lane), laneQueues[lane].size());
     }
+  }
+
+  private void enterVehicles() {
+    int enteringThisStep = 0;
+    int candidateCount = 0;
+    int open = permittedMovements & ~blockedMovements;
+
+    for (int i = 0; i < activeLaneCount; i++) {
+      int lane = activeLanes[i];
+      if (laneQueues[lane].isEmpty()) {
+        continue;
+      }
 
-    if (a.from().equals(b.from().opposite())) {
-      return opposingConflict(a.getTurnType(), b.getTurnType());
+      int movement = vehicles.movementOrdinal(laneQueues[lane].peek());
+      if ((open & (1 << movement)) != 0) {
+        candidateLanes[candidateCount] = lane;
+        candidateTurnTypes[candidateCount++] = MOVEMENT_TURN_TYPES[movement];
+      }
     }
 
-    return perpendicularConflict(a.getTurnType(), b.getTurnType());
-  }
+    // One pass per turn type gives the same order as a stable sort by turn type
+    for (int turnType = 0; turnType < TURN_TYPES; turnType++) {
+      for (int i = 0; i < candidateCount; i++) {
+        if (candidateTurnTypes[i] != turnType) {
+          continue;
+        }
+
+        int lane = candidateLanes[i];
+        int movement = vehicles.movementOrdinal(laneQueues[lane].peek());
 
-  private boolean opposingConflict(TurnType a, TurnType b) {
-    return (a == TurnType.LEFT) != (b == TurnType.LEFT);
+        if ((conflictMatrix.conflictMask(movement) & enteringThisStep) == 0) {
+          int handle = laneQueues[lane].poll();
+          int crossingTime = crossingTime(handle);
+          vehicles.startCrossing(handle, settledSteps, crossingTime);
+          crossings.schedule(handle, stepCount + crossingTime);
+          stateTracker.vehicleEntered(lane, vehicles.movement(handle));
+          enteringThisStep |= 1 << movement;
+        }
+      }
+    }
   }
 
-  private boolean perpendicularConflict(TurnType a, TurnType b) {
-    return !(a == TurnType.RIGHT && b == TurnType.RIGHT);
+  private int crossingTime(int handle) {
+    String id = idTable.resolve(vehicles.id(handle));
+    int crossingTime = crossingTimeModel.crossingTime(id, vehicles.movement(handle));
+    if (crossingTime < 1) {
+      throw new IllegalStateException(
+          "Crossing time model returned " + crossingTime + " for vehicle " + id);
+    }
+    return crossingTime;
   }
 
-  private List<Vehicle> exitVehicles() {
-    List<Vehicle> exited = new ArrayList<>(vehiclesOnIntersection);
-    exited.forEach(Vehicle::tickCrossing);
-    vehiclesOnIntersection.clear();
-    return exited;
+  // Only the vehicles due at this step are visited
+  private void exitVehicles(StepBuffer buffer) {
+    crossings.advanceTo(stepCount);
+    int handle;
+    while ((handle = crossings.pollDue()) != TimingWheel.NONE) {
+      vehicles.finishCrossing(handle);
+
+      int id = vehicles.id(handle);
+      Movement movement = vehicles.movement(handle);
+      archive.retire(id, movement, vehicles.waitTime(handle, settledSteps), stepCount);
+      stateTracker.vehicleExited(movement);
+      buffer.addLeftVehicle(id, movement);
+      vehicles.release(handle);
+    }
   }
 
   private void applyCommands(List<SignalCommand> commands) {
@@ -182,41 +531,28 @@ public class Intersection {
       return;
     }
 
-    Set<String> knownIds = layout.getSignalGroups().stream().map(SignalGroup::id).collect(toSet());
-
-    for (SignalCommand command : commands) {
-      if (knownIds.contains(command.signalGroupId())) {
-        signalStates.put(command.signalGroupId(), command.newState());
+    boolean changed = false;
+    for (int i = 0; i < commands.size(); i++) {
+      SignalCommand command = commands.get(i);
+      if (signalStates.containsKey(command.signalGroupId())) {
+        SignalState previous = signalStates.put(command.signalGroupId(), command.newState());
+        changed |= previous != command.newState();
       }
     }
-  }
 
-  private IntersectionState getCurrentIntersectionState() {
-    Map<Direction, Integer> waitingPerRoad = new EnumMap<>(Direction.class);
+    if (changed) {
+      permittedMovements = computePermittedMovements();
+    }
+  }
 
-    for (Direction direction : layout.getApproachDirections()) {
-      int total = 0;
-      for (Lane lane : layout.getRoad(direction).lanes()) {
-        Deque<Vehicle> queue = laneQueues.get(lane);
-        if (queue != null) {
-          total += queue.size();
-        }
+  private int computePermittedMovements() {
+    int mask = 0;
+    for (int i = 0; i < signalGroups.size(); i++) {
+      SignalState state = signalStates.get(signalGroups.get(i).id());
+      if (state == SignalState.GREEN || state == SignalState.GREEN_ARROW) {
+        mask |= signalGroupMasks[i];
       }
-      waitingPerRoad.put(direction, total);
-    }
-
-    Set<Movement> vehiclesOnIntersection =
-        allVehicles.values().stream()
-            .filter(vehicle -> vehicle.getState() == State.CROSSING)
-            .map(Vehicle::getMovement)
-            .collect(toSet());
-
-    return new IntersectionState(
-        stepCount,
-        signalStates,
-        laneQueues.entrySet().stream()
-            .collect(toMap(entry -> entry.getKey().id(), entry -> entry.getValue().size())),
-        waitingPerRoad,
-        vehiclesOnIntersection);
+    }
+    return mask;
   }
 }
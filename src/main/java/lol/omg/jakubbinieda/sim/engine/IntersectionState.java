@@ -1,14 +1,90 @@
 package lol.omg.jakubbinieda.sim.engine;
 
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import lol.omg.jakubbinieda.sim.model.Direction;
 import lol.omg.jakubbinieda.sim.model.Movement;
 import lol.omg.jakubbinieda.sim.signal.SignalState;
 
-public record IntersectionState(
-    int step,
-    Map<String, SignalState> signalStates,
-    Map<String, Integer> queueLengths,
-    Map<Direction, Integer> waitingPerRoad,
-    Set<Movement> vehiclesOnIntersection) {}
+// Not a record: the engine hands out one instance whose step and views it refreshes in place
+public class IntersectionState {
+  private final Map<String, SignalState> signalStates;
+  private final Map<String, Integer> queueLengths;
+  private final Map<Direction, Integer> waitingPerRoad;
+  private final Set<Movement> vehiclesOnIntersection;
+
+  private int step;
+
+  public IntersectionState(
+      int step,
+      Map<String, SignalState> signalStates,
+      Map<String, Integer> queueLengths,
+      Map<Direction, Integer> waitingPerRoad,
+      Set<Movement> vehiclesOnIntersection) {
+    this.step = step;
+    this.signalStates = signalStates;
+    this.queueLengths = queueLengths;
+    this.waitingPerRoad = waitingPerRoad;
+    this.vehiclesOnIntersection = vehiclesOnIntersection;
+  }
+
+  public int step() {
+    return step;
+  }
+
+  public Map<String, SignalState> signalStates() {
+    return signalStates;
+  }
+
+  public Map<String, Integer> queueLengths() {
+    return queueLengths;
+  }
+
+  public Map<Direction, Integer> waitingPerRoad() {
+    return waitingPerRoad;
+  }
+
+  public Set<Movement> vehiclesOnIntersection() {
+    return vehiclesOnIntersection;
+  }
+
+  void setStep(int step) {
+    this.step = step;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof IntersectionState other)) {
+      return false;
+    }
+    return step == other.step
+        && Objects.equals(signalStates, other.signalStates)
+        && Objects.equals(queueLengths, other.queueLengths)
+        && Objects.equals(waitingPerRoad, other.waitingPerRoad)
+        && Objects.equals(vehiclesOnIntersection, other.vehiclesOnIntersection);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(step, signalStates, queueLengths, waitingPerRoad, vehiclesOnIntersection);
+  }
+
+  @Override
+  public String toString() {
+    return "IntersectionState[step="
+        + step
+        + ", signalStates="
+        + signalStates
+        + ", queueLengths="
+        + queueLengths
+        + ", waitingPerRoad="
+        + waitingPerRoad
+        + ", vehiclesOnIntersection="
+        + vehiclesOnIntersection
+        + "]";
+  }
+}
@@ -0,0 +1,270 @@
+package lol.omg.jakubbinieda.sim.engine;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import lol.omg.jakubbinieda.sim.model.Direction;
+import lol.omg.jakubbinieda.sim.model.Movement;
+import lol.omg.jakubbinieda.sim.signal.SignalState;
+
+// Counters are updated as vehicles move; controllers see a copy published at decision time. Like
+// the lane queues, queue lengths only cover lanes that have been used, in first-use order.
+class IntersectionStateTracker {
+  private final List<String> laneIds;
+  private final Map<String, Integer> laneIndices;
+  private final List<Direction> approaches;
+
+  private int[] laneApproaches;
+  private int[] queueLengths;
+  // usedLanes lists lanes in first-use order; usedOrder holds a lane's position there plus one
+  private int[] usedLanes;
+  private int[] usedOrder;
+  private int usedLaneCount;
+  private final int[] waitingPerRoad;
+  private final int[] crossingPerMovement;
+  private int crossingMask;
+
+  private int[] publishedQueueLengths;
+  private int publishedUsedLaneCount;
+  private final int[] publishedWaitingPerRoad;
+  private int publishedCrossingMask;
+  private boolean dirty;
+
+  private final IntersectionState state;
+
+  IntersectionStateTracker(Map<String, SignalState> signalStates, List<Direction> approaches) {
+    this.laneIds = new ArrayList<>();
+    this.laneIndices = new HashMap<>();
+    this.approaches = List.copyOf(approaches);
+
+    this.laneApproaches = new int[0];
+    this.queueLengths = new int[0];
+    this.usedLanes = new int[0];
+    this.usedOrder = new int[0];
+    this.usedLaneCount = 0;
+    this.waitingPerRoad = new int[Direction.values().length];
+    this.crossingPerMovement = new int[Movement.COUNT];
+    this.crossingMask = 0;
+
+    this.publishedQueueLengths = new int[0];
+    this.publishedUsedLaneCount = 0;
+    this.publishedWaitingPerRoad = new int[Direction.values().length];
+    this.publishedCrossingMask = 0;
+    this.dirty = false;
+
+    this.state =
+        new IntersectionState(
+            0,
+            Collections.unmodifiableMap(signalStates),
+            new QueueLengthsView(),
+            new WaitingPerRoadView(),
+            new CrossingMovementsView());
+  }
+
+  int addLane(String laneId, Direction approach) {
+    int index = laneIds.size();
+    laneIds.add(laneId);
+    laneIndices.put(laneId, index);
+
+    laneApproaches = Arrays.copyOf(laneApproaches, index + 1);
+    laneApproaches[index] = approach.ordinal();
+    queueLengths = Arrays.copyOf(queueLengths, index + 1);
+    publishedQueueLengths = Arrays.copyOf(publishedQueueLengths, index + 1);
+    usedLanes = Arrays.copyOf(usedLanes, index + 1);
+    usedOrder = Arrays.copyOf(usedOrder, index + 1);
+    return index;
+  }
+
+  void vehicleQueued(int lane) {
+    if (usedOrder[lane] == 0) {
+      usedLanes[usedLaneCount++] = lane;
+      usedOrder[lane] = usedLaneCount;
+    }
+    queueLengths[lane]++;
+    waitingPerRoad[laneApproaches[lane]]++;
+    dirty = true;
+  }
+
+  void vehicleEntered(int lane, Movement movement) {
+    queueLengths[lane]--;
+    waitingPerRoad[laneApproaches[lane]]--;
+
+    int ordinal = movement.ordinal();
+    crossingPerMovement[ordinal]++;
+    crossingMask |= 1 << ordinal;
+    dirty = true;
+  }
+
+  void vehicleExited(Movement movement) {
+    int ordinal = movement.ordinal();
+    if (--crossingPerMovement[ordinal] == 0) {
+      crossingMask &= ~(1 << ordinal);
+    }
+    dirty = true;
+  }
+
+  String laneId(int lane) {
+    return laneIds.get(lane);
+  }
+
+  int queueLength(int lane) {
+    return queueLengths[lane];
+  }
+
+  int waiting(Direction road) {
+    return waitingPerRoad[road.ordinal()];
+  }
+
+  IntersectionState publish(int step) {
+    if (dirty) {
+      System.arraycopy(queueLengths, 0, publishedQueueLengths, 0, queueLengths.length);
+      publishedUsedLaneCount = usedLaneCount;
+      System.arraycopy(waitingPerRoad, 0, publishedWaitingPerRoad, 0, waitingPerRoad.length);
+      publishedCrossingMask = crossingMask;
+      dirty = false;
+    }
+
+    state.setStep(step);
+    return state;
+  }
+
+  private class QueueLengthsView extends AbstractMap<String, Integer> {
+    @Override
+    public Integer get(Object key) {
+      return containsKey(key) ? publishedQueueLengths[laneIndices.get(key)] : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+      Integer index = laneIndices.get(key);
+      return index != null && usedOrder[index] != 0 && usedOrder[index] <= publishedUsedLaneCount;
+    }
+
+    @Override
+    public int size() {
+      return publishedUsedLaneCount;
+    }
+
+    @Override
+    public Set<Entry<String, Integer>> entrySet() {
+      return new AbstractSet<>() {
+        @Override
+        public Iterator<Entry<String, Integer>> iterator() {
+          return new Iterator<>() {
+            private int next = 0;
+
+            @Override
+            public boolean hasNext() {
+              return next < publishedUsedLaneCount;
+            }
+
+            @Override
+            public Entry<String, Integer> next() {
+              if (!hasNext()) {
+                throw new NoSuchElementException();
+              }
+              int lane = usedLanes[next++];
+              return new SimpleImmutableEntry<>(laneIds.get(lane), publishedQueueLengths[lane]);
+            }
+          };
+        }
+
+        @Override
+        public int size() {
+          return publishedUsedLaneCount;
+        }
+      };
+    }
+  }
+
+  private class WaitingPerRoadView extends AbstractMap<Direction, Integer> {
+    @Override
+    public Integer get(Object key) {
+      if (!containsKey(key)) {
+        return null;
+      }
+      return publishedWaitingPerRoad[((Direction) key).ordinal()];
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+      return key instanceof Direction && approaches.contains(key);
+    }
+
+    @Override
+    public int size() {
+      return approaches.size();
+    }
+
+    @Override
+    public Set<Entry<Direction, Integer>> entrySet() {
+      return new AbstractSet<>() {
+        @Override
+        public Iterator<Entry<Direction, Integer>> iterator() {
+          Iterator<Direction> directions = approaches.iterator();
+          return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+              return directions.hasNext();
+            }
+
+            @Override
+            public Entry<Direction, Integer> next() {
+              Direction direction = directions.next();
+              return new SimpleImmutableEntry<>(
+                  direction, publishedWaitingPerRoad[direction.ordinal()]);
+            }
+          };
+        }
+
+        @Override
+        public int size() {
+          return approaches.size();
+        }
+      };
+    }
+  }
+
+  private class CrossingMovementsView extends AbstractSet<Movement> {
+    @Override
+    public boolean contains(Object o) {
+      return o instanceof Movement movement
+          && (publishedCrossingMask & (1 << movement.ordinal())) != 0;
+    }
+
+    @Override
+    public int size() {
+      return Integer.bitCount(publishedCrossingMask);
+    }
+
+    @Override
+    public Iterator<Movement> iterator() {
+      return new Iterator<>() {
+        private int remaining = publishedCrossingMask;
+
+        @Override
+        public boolean hasNext() {
+          return remaining != 0;
+        }
+
+        @Override
+        public Movement next() {
+          if (remaining == 0) {
+            throw new NoSuchElementException();
+          }
+          int ordinal = Integer.numberOfTrailingZeros(remaining);
+          remaining &= remaining - 1;
+          return Movement.fromOrdinal(ordinal);
+        }
+      };
+    }
+  }
+}
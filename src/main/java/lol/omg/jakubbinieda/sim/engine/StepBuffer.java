@@ -0,0 +1,141 @@
+package lol.omg.jakubbinieda.sim.engine;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import lol.omg.jakubbinieda.sim.model.Movement;
+import lol.omg.jakubbinieda.sim.signal.SignalState;
+
+// Mutable counterpart of StepResult; arrays only grow, so a reused buffer stops allocating
+public class StepBuffer {
+  private int step;
+
+  private String[] signalGroupIds = new String[0];
+  private SignalState[] signalStates = new SignalState[0];
+  private int signalGroupCount;
+
+  private String[] laneIds = new String[0];
+  private int[] queueLengths = new int[0];
+  private int laneCount;
+
+  private VehicleIdTable idTable;
+  private int[] leftIntersection = new int[8];
+  private Movement[] leftMovements = new Movement[8];
+  private int leftCount;
+
+  public int getStep() {
+    return step;
+  }
+
+  public int getSignalGroupCount() {
+    return signalGroupCount;
+  }
+
+  public String getSignalGroupId(int group) {
+    return signalGroupIds[checkIndex(group, signalGroupCount)];
+  }
+
+  public SignalState getSignalState(int group) {
+    return signalStates[checkIndex(group, signalGroupCount)];
+  }
+
+  public int getLaneCount() {
+    return laneCount;
+  }
+
+  public String getLaneId(int lane) {
+    return laneIds[checkIndex(lane, laneCount)];
+  }
+
+  public int getQueueLength(int lane) {
+    return queueLengths[checkIndex(lane, laneCount)];
+  }
+
+  public int getLeftCount() {
+    return leftCount;
+  }
+
+  public int getLeftVehicle(int index) {
+    return leftIntersection[checkIndex(index, leftCount)];
+  }
+
+  public Movement getLeftMovement(int index) {
+    return leftMovements[checkIndex(index, leftCount)];
+  }
+
+  public String getLeftVehicleId(int index) {
+    return idTable.resolve(getLeftVehicle(index));
+  }
+
+  public int[] copyLeftVehicles() {
+    return Arrays.copyOf(leftIntersection, leftCount);
+  }
+
+  public List<String> copyLeftIntersection() {
+    String[] ids = new String[leftCount];
+    for (int i = 0; i < leftCount; i++) {
+      ids[i] = idTable.resolve(leftIntersection[i]);
+    }
+    return List.of(ids);
+  }
+
+  public StepResult toStepResult() {
+    Map<String, SignalState> states = new HashMap<>();
+    for (int i = 0; i < signalGroupCount; i++) {
+      states.put(signalGroupIds[i], signalStates[i]);
+    }
+
+    Map<String, Integer> lengths = new HashMap<>();
+    for (int i = 0; i < laneCount; i++) {
+      lengths.put(laneIds[i], queueLengths[i]);
+    }
+
+    return new StepResult(step, Map.copyOf(states), copyLeftIntersection(), lengths);
+  }
+
+  void begin(int step, int signalGroupCount, int laneCount, VehicleIdTable idTable) {
+    this.step = step;
+    this.idTable = idTable;
+
+    if (signalGroupIds.length < signalGroupCount) {
+      signalGroupIds = Arrays.copyOf(signalGroupIds, signalGroupCount);
+      signalStates = Arrays.copyOf(signalStates, signalGroupCount);
+    }
+    this.signalGroupCount = signalGroupCount;
+
+    if (laneIds.length < laneCount) {
+      laneIds = Arrays.copyOf(laneIds, laneCount);
+      queueLengths = Arrays.copyOf(queueLengths, laneCount);
+    }
+    this.laneCount = laneCount;
+
+    this.leftCount = 0;
+  }
+
+  void setSignalState(int group, String signalGroupId, SignalState state) {
+    signalGroupIds[group] = signalGroupId;
+    signalStates[group] = state;
+  }
+
+  void setQueueLength(int lane, String laneId, int length) {
+    laneIds[lane] = laneId;
+    queueLengths[lane] = length;
+  }
+
+  void addLeftVehicle(int vehicleId, Movement movement) {
+    if (leftCount == leftIntersection.length) {
+      leftIntersection = Arrays.copyOf(leftIntersection, leftCount * 2);
+      leftMovements = Arrays.copyOf(leftMovements, leftCount * 2);
+    }
+    leftIntersection[leftCount] = vehicleId;
+    leftMovements[leftCount++] = movement;
+  }
+
+  private static int checkIndex(int index, int size) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+    }
+    return index;
+  }
+}
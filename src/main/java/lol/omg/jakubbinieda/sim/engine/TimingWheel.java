@@ -0,0 +1,143 @@
+package lol.omg.jakubbinieda.sim.engine;
+
+import java.util.Arrays;
+
+// Hierarchical timing wheel of int handles keyed by due step. Each level has 64 slots and covers
+// 64 times the span of the level below; a slot is cascaded one level down when the wheel enters
+// its span. Handles due at the same step come out in the order they were scheduled.
+class TimingWheel {
+  static final int NONE = -1;
+
+  private static final int SLOT_BITS = 6;
+  private static final int SLOTS = 1 << SLOT_BITS;
+  private static final int LEVELS = (Integer.SIZE + SLOT_BITS - 1) / SLOT_BITS;
+
+  private final int[] heads;
+  private final int[] tails;
+  private int[] next;
+  private int[] dues;
+
+  private int current;
+  private int size;
+
+  TimingWheel() {
+    this.heads = new int[LEVELS * SLOTS];
+    this.tails = new int[LEVELS * SLOTS];
+    this.next = new int[16];
+    this.dues = new int[16];
+    Arrays.fill(heads, NONE);
+    Arrays.fill(tails, NONE);
+  }
+
+  void schedule(int handle, int due) {
+    if (due <= current) {
+      throw new IllegalArgumentException(
+          "Cannot schedule at step " + due + " when current step is " + current);
+    }
+
+    if (handle >= next.length) {
+      int capacity = Math.max(next.length * 2, handle + 1);
+      next = Arrays.copyOf(next, capacity);
+      dues = Arrays.copyOf(dues, capacity);
+    }
+    dues[handle] = due;
+    insert(handle);
+    size++;
+  }
+
+  // Steps skipped over must have nothing due; see nextDue()
+  void advanceTo(int step) {
+    if (step < current) {
+      throw new IllegalArgumentException(
+          "Cannot advance to step " + step + " when current step is " + current);
+    }
+
+    int previous = current;
+    current = step;
+    for (int level = LEVELS - 1; level > 0; level--) {
+      int shift = level * SLOT_BITS;
+      if ((step >>> shift) != (previous >>> shift)) {
+        cascade(slot(level, step));
+      }
+    }
+  }
+
+  // Next handle due at the current step, or NONE
+  int pollDue() {
+    int slot = slot(0, current);
+    int handle = heads[slot];
+    if (handle == NONE) {
+      return NONE;
+    }
+
+    heads[slot] = next[handle];
+    if (heads[slot] == NONE) {
+      tails[slot] = NONE;
+    }
+    size--;
+    return handle;
+  }
+
+  // Earliest step at which a handle may be due; exact for the lowest level, the start of the
+  // slot's span for higher ones. Integer.MAX_VALUE when the wheel is empty.
+  int nextDue() {
+    if (size == 0) {
+      return Integer.MAX_VALUE;
+    }
+    if (heads[slot(0, current)] != NONE) {
+      return current;
+    }
+
+    for (int level = 0; level < LEVELS; level++) {
+      int shift = level * SLOT_BITS;
+      int digit = (current >>> shift) & (SLOTS - 1);
+      for (int d = digit + 1; d < SLOTS; d++) {
+        if (heads[level * SLOTS + d] != NONE) {
+          long base = ((long) current >>> (shift + SLOT_BITS)) << (shift + SLOT_BITS);
+          return (int) Math.min(Integer.MAX_VALUE, base | ((long) d << shift));
+        }
+      }
+    }
+    return Integer.MAX_VALUE;
+  }
+
+  int size() {
+    return size;
+  }
+
+  private void insert(int handle) {
+    int due = dues[handle];
+    int level = 0;
+    while (level < LEVELS - 1) {
+      int shift = (level + 1) * SLOT_BITS;
+      if ((due >>> shift) == (current >>> shift)) {
+        break;
+      }
+      level++;
+    }
+
+    int slot = slot(level, due);
+    next[handle] = NONE;
+    if (tails[slot] == NONE) {
+      heads[slot] = handle;
+    } else {
+      next[tails[slot]] = handle;
+    }
+    tails[slot] = handle;
+  }
+
+  private void cascade(int slot) {
+    int handle = heads[slot];
+    heads[slot] = NONE;
+    tails[slot] = NONE;
+    while (handle != NONE) {
+      int following = next[handle];
+      insert(handle);
+      handle = following;
+    }
+  }
+
+  private static int slot(int level, int step) {
+    return level * SLOTS + ((step >>> (level * SLOT_BITS)) & (SLOTS - 1));
+  }
+}
@@ -0,0 +1,139 @@
+package lol.omg.jakubbinieda.sim.engine;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Objects;
+import lol.omg.jakubbinieda.sim.model.Movement;
+import lol.omg.jakubbinieda.sim.model.Vehicle;
+import lol.omg.jakubbinieda.sim.model.Vehicle.State;
+
+// Keeps only the most recent summaries. Retired IDs are remembered so duplicates are still
+// rejected,
+// by default for the archive's lifetime, which costs an interned ID per vehicle ever retired. With
+// an ID retention set, only that many of the most recently retired IDs are remembered and memory
+// stays flat; an older ID may then be reused by a new vehicle.
+public class VehicleArchive {
+  public static final int UNBOUNDED_RETENTION = Integer.MAX_VALUE;
+
+  private final int capacity;
+  private final VehicleIdTable idTable;
+  private final int[] ids;
+  private final Movement[] movements;
+  private final int[] waitTimes;
+  private final int[] exitSteps;
+  private final BitSet retired;
+  private final IntRing retiredOrder;
+
+  private int head;
+  private int size;
+  private long retiredCount;
+  private int retention;
+
+  public VehicleArchive(int capacity) {
+    this(capacity, new VehicleIdTable());
+  }
+
+  VehicleArchive(int capacity, VehicleIdTable idTable) {
+    if (capacity < 0) {
+      throw new IllegalArgumentException("capacity cannot be negative");
+    }
+
+    this.capacity = capacity;
+    this.idTable = idTable;
+    this.ids = new int[capacity];
+    this.movements = new Movement[capacity];
+    this.waitTimes = new int[capacity];
+    this.exitSteps = new int[capacity];
+    this.retired = new BitSet();
+    this.retiredOrder = new IntRing();
+    this.retention = UNBOUNDED_RETENTION;
+  }
+
+  public void setIdRetention(int retention) {
+    if (retention < capacity) {
+      throw new IllegalArgumentException("retention cannot be less than capacity");
+    }
+    if (retiredCount > 0) {
+      throw new IllegalStateException("Cannot set ID retention when vehicles have been retired");
+    }
+
+    this.retention = retention;
+  }
+
+  public int getIdRetention() {
+    return retention;
+  }
+
+  public void retire(Vehicle vehicle, int exitStep) {
+    Objects.requireNonNull(vehicle, "vehicle cannot be null");
+
+    if (vehicle.getState() != State.EXITED) {
+      throw new IllegalStateException("Cannot retire vehicle when state is " + vehicle.getState());
+    }
+
+    int id = idTable.intern(vehicle.getId());
+    if (retired.get(id)) {
+      throw new IllegalArgumentException("Vehicle with ID " + vehicle.getId() + " already retired");
+    }
+    retire(id, vehicle.getMovement(), vehicle.getWaitTime(), exitStep);
+    forgetExpired();
+  }
+
+  void retire(int id, Movement movement, int waitTime, int exitStep) {
+    retired.set(id);
+    retiredCount++;
+    if (retention != UNBOUNDED_RETENTION) {
+      retiredOrder.add(id);
+    }
+    if (capacity == 0) {
+      return;
+    }
+
+    int slot = (head + size) % capacity;
+    if (size == capacity) {
+      head = (head + 1) % capacity;
+    } else {
+      size++;
+    }
+
+    ids[slot] = id;
+    movements[slot] = movement;
+    waitTimes[slot] = waitTime;
+    exitSteps[slot] = exitStep;
+  }
+
+  // Releases the IDs that fell out of the retention window. Separate from retire() so that an
+  // intersection can keep this step's departures resolvable until its next step.
+  void forgetExpired() {
+    while (retiredOrder.size() > retention) {
+      int id = retiredOrder.poll();
+      retired.clear(id);
+      idTable.release(id);
+    }
+  }
+
+  public boolean contains(String id) {
+    int handle = idTable.lookup(id);
+    return handle != VehicleIdTable.NONE && retired.get(handle);
+  }
+
+  public long getRetiredCount() {
+    return retiredCount;
+  }
+
+  public int getCapacity() {
+    return capacity;
+  }
+
+  public List<ArchivedVehicle> getRecent() {
+    List<ArchivedVehicle> recent = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      int slot = (head + i) % capacity;
+      recent.add(
+          new ArchivedVehicle(
+              idTable.resolve(ids[slot]), movements[slot], waitTimes[slot], exitSteps[slot]));
+    }
+    return recent;
+  }
+}
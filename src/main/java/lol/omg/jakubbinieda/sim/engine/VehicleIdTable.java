@@ -0,0 +1,131 @@
+package lol.omg.jakubbinieda.sim.engine;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+// Interns vehicle IDs to dense int handles; an ID keeps its handle until it is released, after
+// which the handle may be given to another ID
+public class VehicleIdTable {
+  public static final int NONE = -1;
+
+  private static final int INITIAL_CAPACITY = 16;
+
+  private String[] ids;
+  private int[] slots;
+  private int size;
+
+  // Handles below highWater have been given out; released ones wait in freeHandles for reuse
+  private int highWater;
+  private int[] freeHandles;
+  private int freeCount;
+
+  public VehicleIdTable() {
+    this.ids = new String[INITIAL_CAPACITY];
+    this.slots = new int[INITIAL_CAPACITY * 2];
+    this.size = 0;
+    this.highWater = 0;
+    this.freeHandles = new int[0];
+    this.freeCount = 0;
+  }
+
+  public int add(String id) {
+    Objects.requireNonNull(id, "id cannot be null");
+
+    int slot = findSlot(id);
+    if (slots[slot] != 0) {
+      throw new IllegalArgumentException("Vehicle with ID " + id + " already exists");
+    }
+
+    int handle;
+    if (freeCount > 0) {
+      handle = freeHandles[--freeCount];
+    } else {
+      if (highWater == ids.length) {
+        ids = Arrays.copyOf(ids, highWater * 2);
+      }
+      handle = highWater++;
+    }
+    ids[handle] = id;
+    slots[slot] = handle + 1;
+    size++;
+
+    if (size * 2 > slots.length) {
+      rehash();
+    }
+    return handle;
+  }
+
+  public int intern(String id) {
+    int handle = lookup(id);
+    return handle == NONE ? add(id) : handle;
+  }
+
+  public int lookup(String id) {
+    Objects.requireNonNull(id, "id cannot be null");
+    return slots[findSlot(id)] - 1;
+  }
+
+  public String resolve(int handle) {
+    if (handle < 0 || handle >= highWater || ids[handle] == null) {
+      throw new IllegalArgumentException("Unknown vehicle handle " + handle);
+    }
+    return ids[handle];
+  }
+
+  public void release(int handle) {
+    int slot = findSlot(resolve(handle));
+    int mask = slots.length - 1;
+
+    // Backward-shift deletion: pull later entries of the probe run into the gap, unless that
+    // would move them in front of their home slot
+    int next = (slot + 1) & mask;
+    while (slots[next] != 0) {
+      int home = mix(ids[slots[next] - 1].hashCode()) & mask;
+      if (((next - home) & mask) >= ((next - slot) & mask)) {
+        slots[slot] = slots[next];
+        slot = next;
+      }
+      next = (next + 1) & mask;
+    }
+    slots[slot] = 0;
+
+    ids[handle] = null;
+    size--;
+    if (freeCount == freeHandles.length) {
+      freeHandles = Arrays.copyOf(freeHandles, Math.max(INITIAL_CAPACITY, freeCount * 2));
+    }
+    freeHandles[freeCount++] = handle;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  private int findSlot(String id) {
+    int mask = slots.length - 1;
+    int slot = mix(id.hashCode()) & mask;
+    while (slots[slot] != 0 && !ids[slots[slot] - 1].equals(id)) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  private void rehash() {
+    slots = new int[slots.length * 2];
+    int mask = slots.length - 1;
+    for (int handle = 0; handle < highWater; handle++) {
+      if (ids[handle] == null) {
+        continue;
+      }
+      int slot = mix(ids[handle].hashCode()) & mask;
+      while (slots[slot] != 0) {
+        slot = (slot + 1) & mask;
+      }
+      slots[slot] = handle + 1;
+    }
+  }
+
+  private static int mix(int hash) {
+    return hash ^ (hash >>> 16);
+  }
+}
@@ -0,0 +1,136 @@
+package lol.omg.jakubbinieda.sim.engine;
+
+import java.util.Arrays;
+import lol.omg.jakubbinieda.sim.model.Movement;
+import lol.omg.jakubbinieda.sim.model.Vehicle;
+import lol.omg.jakubbinieda.sim.model.Vehicle.State;
+
+// Live vehicles as parallel arrays addressed by int handles; released handles are reused
+class VehicleStore {
+  static final int NONE = -1;
+
+  private static final int INITIAL_CAPACITY = 16;
+  private static final State[] STATES = State.values();
+
+  private int[] ids;
+  private byte[] movements;
+  private byte[] states;
+  private int[] waitTimes;
+  private int[] waitingSince;
+  private int[] crossingTimes;
+  private Vehicle[] facades;
+
+  private int[] freeHandles;
+  private int freeCount;
+  private int highWater;
+  private int size;
+
+  VehicleStore() {
+    this.ids = new int[INITIAL_CAPACITY];
+    this.movements = new byte[INITIAL_CAPACITY];
+    this.states = new byte[INITIAL_CAPACITY];
+    this.waitTimes = new int[INITIAL_CAPACITY];
+    this.waitingSince = new int[INITIAL_CAPACITY];
+    this.crossingTimes = new int[INITIAL_CAPACITY];
+    this.facades = new Vehicle[INITIAL_CAPACITY];
+    this.freeHandles = new int[INITIAL_CAPACITY];
+  }
+
+  int add(int id, Movement movement, int waitTime, int clock, Vehicle facade) {
+    int handle;
+    if (freeCount > 0) {
+      handle = freeHandles[--freeCount];
+    } else {
+      if (highWater == ids.length) {
+        grow();
+      }
+      handle = highWater++;
+    }
+
+    ids[handle] = id;
+    movements[handle] = (byte) movement.ordinal();
+    states[handle] = (byte) State.QUEUED.ordinal();
+    waitTimes[handle] = waitTime;
+    waitingSince[handle] = clock;
+    crossingTimes[handle] = 0;
+    facades[handle] = facade;
+    size++;
+    return handle;
+  }
+
+  void release(int handle) {
+    if (STATES[states[handle]] != State.EXITED) {
+      throw new IllegalStateException("Cannot release vehicle when state is " + state(handle));
+    }
+
+    ids[handle] = VehicleIdTable.NONE;
+    facades[handle] = null;
+    if (freeCount == freeHandles.length) {
+      freeHandles = Arrays.copyOf(freeHandles, freeCount * 2);
+    }
+    freeHandles[freeCount++] = handle;
+    size--;
+  }
+
+  int size() {
+    return size;
+  }
+
+  int id(int handle) {
+    return ids[handle];
+  }
+
+  int movementOrdinal(int handle) {
+    return movements[handle];
+  }
+
+  Movement movement(int handle) {
+    return Movement.fromOrdinal(movements[handle]);
+  }
+
+  State state(int handle) {
+    return STATES[states[handle]];
+  }
+
+  int waitTime(int handle, int clock) {
+    if (STATES[states[handle]] != State.QUEUED) {
+      return waitTimes[handle];
+    }
+    return waitTimes[handle] + clock - waitingSince[handle];
+  }
+
+  void startCrossing(int handle, int clock, int crossingTime) {
+    waitTimes[handle] = waitTime(handle, clock);
+    states[handle] = (byte) State.CROSSING.ordinal();
+    crossingTimes[handle] = crossingTime;
+
+    if (facades[handle] != null) {
+      facades[handle].startCrossing(crossingTime);
+    }
+  }
+
+  // The façade is only caught up here, so mid-crossing it still reports the full crossing time
+  void finishCrossing(int handle) {
+    if (STATES[states[handle]] != State.CROSSING) {
+      throw new IllegalStateException("Cannot finish crossing when state is " + state(handle));
+    }
+
+    states[handle] = (byte) State.EXITED.ordinal();
+    if (facades[handle] != null) {
+      for (int i = 0; i < crossingTimes[handle]; i++) {
+        facades[handle].tickCrossing();
+      }
+    }
+  }
+
+  private void grow() {
+    int capacity = ids.length * 2;
+    ids = Arrays.copyOf(ids, capacity);
+    movements = Arrays.copyOf(movements, capacity);
+    states = Arrays.copyOf(states, capacity);
+    waitTimes = Arrays.copyOf(waitTimes, capacity);
+    waitingSince = Arrays.copyOf(waitingSince, capacity);
+    crossingTimes = Arrays.copyOf(crossingTimes, capacity);
+    facades = Arrays.copyOf(facades, capacity);
+  }
+}
@@ -0,0 +1,19 @@
+package lol.omg.jakubbinieda.sim.engine.crossing;
+
+import lol.omg.jakubbinieda.sim.model.Movement;
+
+public class ConstantCrossingTime implements CrossingTimeModel {
+  private final int steps;
+
+  public ConstantCrossingTime(int steps) {
+    if (steps < 1) {
+      throw new IllegalArgumentException("steps must be positive");
+    }
+    this.steps = steps;
+  }
+
+  @Override
+  public int crossingTime(String vehicleId, Movement movement) {
+    return steps;
+  }
+}
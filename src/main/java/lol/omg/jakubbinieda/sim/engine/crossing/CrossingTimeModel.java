@@ -0,0 +1,8 @@
+package lol.omg.jakubbinieda.sim.engine.crossing;
+
+import lol.omg.jakubbinieda.sim.model.Movement;
+
+public interface CrossingTimeModel {
+  // Steps the vehicle spends on the intersection; must be positive
+  int crossingTime(String vehicleId, Movement movement);
+}
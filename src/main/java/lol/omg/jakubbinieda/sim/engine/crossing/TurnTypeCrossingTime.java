@@ -0,0 +1,32 @@
+package lol.omg.jakubbinieda.sim.engine.crossing;
+
+import java.util.Map;
+import java.util.Objects;
+import lol.omg.jakubbinieda.sim.model.Movement;
+import lol.omg.jakubbinieda.sim.model.TurnType;
+
+// Per-turn-type crossing times, e.g. longer for left turns that cross the whole intersection
+public class TurnTypeCrossingTime implements CrossingTimeModel {
+  private final int[] steps;
+
+  public TurnTypeCrossingTime(Map<TurnType, Integer> steps) {
+    Objects.requireNonNull(steps, "steps cannot be null");
+
+    this.steps = new int[TurnType.values().length];
+    for (TurnType turnType : TurnType.values()) {
+      Integer time = steps.get(turnType);
+      if (time == null) {
+        throw new IllegalArgumentException("Missing crossing time for " + turnType);
+      }
+      if (time < 1) {
+        throw new IllegalArgumentException("Crossing time for " + turnType + " must be positive");
+      }
+      this.steps[turnType.ordinal()] = time;
+    }
+  }
+
+  @Override
+  public int crossingTime(String vehicleId, Movement movement) {
+    return steps[movement.getTurnType().ordinal()];
+  }
+}
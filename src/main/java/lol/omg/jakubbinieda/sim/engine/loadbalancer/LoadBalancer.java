@@ -1,8 +1,21 @@
 package lol.omg.jakubbinieda.sim.engine.loadbalancer;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import lol.omg.jakubbinieda.sim.geometry.Lane;
 
 public interface LoadBalancer {
   Lane selectLane(List<Lane> lanes);
+
+  // One selection per vehicle, in batch order; balancers may override to assign the batch jointly
+  default List<Lane> selectLanes(List<List<Lane>> candidates) {
+    Objects.requireNonNull(candidates, "candidates cannot be null");
+
+    List<Lane> selected = new ArrayList<>(candidates.size());
+    for (List<Lane> lanes : candidates) {
+      selected.add(selectLane(lanes));
+    }
+    return selected;
+  }
 }
@@ -0,0 +1,67 @@
+package lol.omg.jakubbinieda.sim.factories;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+import lol.omg.jakubbinieda.sim.controller.Controller;
+import lol.omg.jakubbinieda.sim.engine.Intersection;
+import lol.omg.jakubbinieda.sim.engine.loadbalancer.LoadBalancer;
+import lol.omg.jakubbinieda.sim.model.Direction;
+import lol.omg.jakubbinieda.sim.network.Link;
+import lol.omg.jakubbinieda.sim.network.Network;
+
+public class SimpleNetworkFactory {
+  public static final SimpleNetworkFactory INSTANCE = new SimpleNetworkFactory();
+
+  public static SimpleNetworkFactory getInstance() {
+    return INSTANCE;
+  }
+
+  public static String intersectionId(int row, int column) {
+    return "r" + row + "c" + column;
+  }
+
+  // Grid of simple intersections, row 0 to the north, with links both ways between neighbours
+  public Network supplyGrid(
+      int rows,
+      int columns,
+      int travelTime,
+      Supplier<Controller> controllers,
+      Supplier<LoadBalancer> loadBalancers) {
+    Objects.requireNonNull(controllers, "controllers cannot be null");
+    Objects.requireNonNull(loadBalancers, "loadBalancers cannot be null");
+    if (rows < 1 || columns < 1) {
+      throw new IllegalArgumentException("Grid must have at least one row and column");
+    }
+
+    SimpleIntersectionFactory factory = SimpleIntersectionFactory.getInstance();
+    Map<String, Intersection> intersections = new HashMap<>();
+    List<Link> links = new ArrayList<>();
+    for (int row = 0; row < rows; row++) {
+      for (int column = 0; column < columns; column++) {
+        String id = intersectionId(row, column);
+        intersections.put(id, factory.supply(controllers.get(), loadBalancers.get()));
+
+        if (column + 1 < columns) {
+          String east = intersectionId(row, column + 1);
+          links.add(
+              new Link(id + "-" + east, id, Direction.EAST, east, Direction.WEST, travelTime));
+          links.add(
+              new Link(east + "-" + id, east, Direction.WEST, id, Direction.EAST, travelTime));
+        }
+        if (row + 1 < rows) {
+          String south = intersectionId(row + 1, column);
+          links.add(
+              new Link(id + "-" + south, id, Direction.SOUTH, south, Direction.NORTH, travelTime));
+          links.add(
+              new Link(south + "-" + id, south, Direction.NORTH, id, Direction.SOUTH, travelTime));
+        }
+      }
+    }
+
+    return new Network(intersections, links);
+  }
+}
@@ -0,0 +1,50 @@
+package lol.omg.jakubbinieda.sim.geometry;
+
+import lol.omg.jakubbinieda.sim.model.Movement;
+import lol.omg.jakubbinieda.sim.model.TurnType;
+
+public class ConflictMatrix {
+  public static final ConflictMatrix INSTANCE = new ConflictMatrix();
+
+  private final int[] conflictMasks;
+
+  private ConflictMatrix() {
+    this.conflictMasks = new int[Movement.COUNT];
+
+    for (int a = 0; a < Movement.COUNT; a++) {
+      for (int b = 0; b < Movement.COUNT; b++) {
+        if (computeConflict(Movement.fromOrdinal(a), Movement.fromOrdinal(b))) {
+          conflictMasks[a] |= 1 << b;
+        }
+      }
+    }
+  }
+
+  public static ConflictMatrix getInstance() {
+    return INSTANCE;
+  }
+
+  public int conflictMask(int movementOrdinal) {
+    return conflictMasks[movementOrdinal];
+  }
+
+  public int conflictMask(Movement movement) {
+    return conflictMasks[movement.ordinal()];
+  }
+
+  public boolean conflicts(Movement a, Movement b) {
+    return (conflictMasks[a.ordinal()] & (1 << b.ordinal())) != 0;
+  }
+
+  private static boolean computeConflict(Movement a, Movement b) {
+    if (a.from() == b.from()) {
+      return false;
+    }
+
+    if (a.from() == b.from().opposite()) {
+      return (a.getTurnType() == TurnType.LEFT) != (b.getTurnType() == TurnType.LEFT);
+    }
+
+    return !(a.getTurnType() == TurnType.RIGHT && b.getTurnType() == TurnType.RIGHT);
+  }
+}
@@ -11,6 +11,7 @@ import lol.omg.jakubbinieda.sim.signal.SignalGroup;
 
 public class IntersectionLayout {
   private final Map<Direction, Road> roads;
+  private final List<Lane> lanes;
   private final Set<Movement> movements;
   private final List<SignalGroup> signalGroups;
 
@@ -22,6 +23,9 @@ public class IntersectionLayout {
       throw new IllegalArgumentException("signalGroups cannot be empty");
     }
 
+    // A lane's position in this list is its index for the lifetime of the layout
+    this.lanes = roads.values().stream().flatMap(road -> road.lanes().stream()).toList();
+
     this.movements =
         roads.values().stream()
             .flatMap(road -> road.getAllMovements().stream())
@@ -46,6 +50,10 @@ public class IntersectionLayout {
     return road == null ? List.of() : road.getLanesAllowingMovement(movement.to());
   }
 
+  public List<Lane> getLanes() {
+    return lanes;
+  }
+
   public Set<Movement> getAllMovements() {
     return movements;
   }
@@ -0,0 +1,127 @@
+package lol.omg.jakubbinieda.sim.io;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+// Writes to the sink on its own thread, handing step statuses over in batches through a bounded
+// queue; write() blocks once the queue is full. Lists must not change after they are written.
+public class BackgroundStepSink implements StepSink {
+  public static final int DEFAULT_BATCH_SIZE = 1024;
+  public static final int DEFAULT_QUEUE_CAPACITY = 8;
+
+  private static final List<List<String>> END = new ArrayList<>();
+
+  private final StepSink sink;
+  private final int batchSize;
+  private final BlockingQueue<List<List<String>>> batches;
+  private final Thread writer;
+
+  private List<List<String>> current;
+  private volatile Exception failure;
+  private boolean closed;
+
+  public BackgroundStepSink(StepSink sink) {
+    this(sink, DEFAULT_BATCH_SIZE, DEFAULT_QUEUE_CAPACITY);
+  }
+
+  public BackgroundStepSink(StepSink sink, int batchSize, int queueCapacity) {
+    Objects.requireNonNull(sink, "sink cannot be null");
+    if (batchSize < 1) {
+      throw new IllegalArgumentException("batchSize must be positive");
+    }
+    if (queueCapacity < 1) {
+      throw new IllegalArgumentException("queueCapacity must be positive");
+    }
+
+    this.sink = sink;
+    this.batchSize = batchSize;
+    this.batches = new ArrayBlockingQueue<>(queueCapacity);
+    this.current = new ArrayList<>(batchSize);
+    this.writer = Thread.ofPlatform().name("step-writer").daemon().start(this::drain);
+  }
+
+  // A write error on the writer thread is thrown by the next write() or by close()
+  @Override
+  public void write(List<String> leftVehicles) throws IOException {
+    Objects.requireNonNull(leftVehicles, "leftVehicles cannot be null");
+    if (closed) {
+      throw new IllegalStateException("Cannot write when sink is closed");
+    }
+    checkFailure();
+
+    current.add(leftVehicles);
+    if (current.size() == batchSize) {
+      put(current);
+      current = new ArrayList<>(batchSize);
+    }
+  }
+
+  // Waits for everything written so far to reach the sink, then closes it
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+
+    closed = true;
+    try {
+      if (!current.isEmpty()) {
+        put(current);
+      }
+      put(END);
+      writer.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting for the writer");
+    } finally {
+      sink.close();
+    }
+    checkFailure();
+  }
+
+  private void put(List<List<String>> batch) throws IOException {
+    try {
+      batches.put(batch);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting for the writer");
+    }
+  }
+
+  private void checkFailure() throws IOException {
+    Exception e = failure;
+    if (e != null) {
+      throw new IOException(e.getMessage(), e);
+    }
+  }
+
+  // After a failure batches are still taken and dropped, so write() never blocks on a full queue
+  private void drain() {
+    try {
+      while (true) {
+        List<List<String>> batch = batches.take();
+        if (batch == END) {
+          return;
+        }
+        if (failure != null) {
+          continue;
+        }
+
+        try {
+          for (List<String> leftVehicles : batch) {
+            sink.write(leftVehicles);
+          }
+        } catch (Exception e) {
+          failure = e;
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
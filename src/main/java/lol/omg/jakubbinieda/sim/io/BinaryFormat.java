@@ -0,0 +1,78 @@
+package lol.omg.jakubbinieda.sim.io;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+// Scenario: magic, version, varint ID count, the IDs as varint length and UTF-8 bytes, then one
+// varint per command until the end of the file. An even command is a run of (value >>> 1) steps,
+// an odd one adds a vehicle with movement ordinal (value >>> 1) and the next dictionary ID.
+//
+// Results: magic, version, then per step a varint count followed by the IDs that left.
+final class BinaryFormat {
+  static final int SCENARIO_MAGIC = 0x544c5343;
+  static final int RESULTS_MAGIC = 0x544c5352;
+  static final byte VERSION = 1;
+  static final int HEADER_BYTES = Integer.BYTES + 1;
+
+  // Leaves the shifted run length within an unsigned int
+  static final int MAX_STEP_RUN = Integer.MAX_VALUE;
+
+  private BinaryFormat() {}
+
+  static void writeVarint(OutputStream out, int value) throws IOException {
+    while ((value & ~0x7f) != 0) {
+      out.write((value & 0x7f) | 0x80);
+      value >>>= 7;
+    }
+    out.write(value);
+  }
+
+  static int readVarint(ByteBuffer buffer) throws IOException {
+    int value = 0;
+    for (int shift = 0; shift < Integer.SIZE; shift += 7) {
+      if (!buffer.hasRemaining()) {
+        throw new IOException("Unexpected end of binary data");
+      }
+      byte b = buffer.get();
+      value |= (b & 0x7f) << shift;
+      if (b >= 0) {
+        return value;
+      }
+    }
+    throw new IOException("Varint is longer than 32 bits");
+  }
+
+  static void writeString(OutputStream out, String value) throws IOException {
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    writeVarint(out, bytes.length);
+    out.write(bytes);
+  }
+
+  static String readString(ByteBuffer buffer) throws IOException {
+    int length = readVarint(buffer);
+    if (length < 0 || length > buffer.remaining()) {
+      throw new IOException("Unexpected end of binary data");
+    }
+
+    int start = buffer.position();
+    buffer.position(start + length);
+    return StandardCharsets.UTF_8.decode(buffer.slice(start, length)).toString();
+  }
+
+  static void writeHeader(OutputStream out, int magic) throws IOException {
+    out.write(ByteBuffer.allocate(Integer.BYTES).putInt(magic).array());
+    out.write(VERSION);
+  }
+
+  static void checkHeader(ByteBuffer buffer, int magic, String kind) throws IOException {
+    if (buffer.remaining() < HEADER_BYTES || buffer.getInt() != magic) {
+      throw new IOException("Not a binary " + kind + " file");
+    }
+    byte version = buffer.get();
+    if (version != VERSION) {
+      throw new IOException("Unsupported binary " + kind + " version " + version);
+    }
+  }
+}
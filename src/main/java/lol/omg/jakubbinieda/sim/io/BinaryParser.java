@@ -0,0 +1,140 @@
+package lol.omg.jakubbinieda.sim.io;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import lol.omg.jakubbinieda.sim.io.commands.AddVehicleCommand;
+import lol.omg.jakubbinieda.sim.io.commands.Command;
+import lol.omg.jakubbinieda.sim.io.commands.StepCommand;
+
+public class BinaryParser {
+  public static final BinaryParser INSTANCE = new BinaryParser();
+
+  private BinaryParser() {}
+
+  public static BinaryParser getInstance() {
+    return INSTANCE;
+  }
+
+  public boolean isScenario(Path path) throws IOException {
+    Objects.requireNonNull(path, "path cannot be null");
+
+    try (InputStream in = Files.newInputStream(path)) {
+      byte[] magic = in.readNBytes(Integer.BYTES);
+      return magic.length == Integer.BYTES
+          && ByteBuffer.wrap(magic).getInt() == BinaryFormat.SCENARIO_MAGIC;
+    }
+  }
+
+  public BinaryScenarioReader openScenario(Path path) throws IOException {
+    Objects.requireNonNull(path, "path cannot be null");
+
+    return new BinaryScenarioReader(map(path));
+  }
+
+  public BinaryResultWriter openResults(Path path) throws IOException {
+    Objects.requireNonNull(path, "path cannot be null");
+
+    return new BinaryResultWriter(new BufferedOutputStream(Files.newOutputStream(path)));
+  }
+
+  public SimulationOutput readResults(Path path) throws IOException {
+    Objects.requireNonNull(path, "path cannot be null");
+
+    ByteBuffer buffer = map(path);
+    BinaryFormat.checkHeader(buffer, BinaryFormat.RESULTS_MAGIC, "results");
+
+    List<StepStatus> statuses = new ArrayList<>();
+    while (buffer.hasRemaining()) {
+      int count = BinaryFormat.readVarint(buffer);
+      if (count < 0 || count > buffer.remaining()) {
+        throw new IOException("Unexpected end of binary data");
+      }
+
+      List<String> leftVehicles = new ArrayList<>(count);
+      for (int i = 0; i < count; i++) {
+        leftVehicles.add(BinaryFormat.readString(buffer));
+      }
+      statuses.add(new StepStatus(leftVehicles));
+    }
+    return new SimulationOutput(statuses);
+  }
+
+  // Streams the JSON commands once; they are encoded to a temporary file next to the scenario
+  // while the dictionary is collected, as the dictionary has to come first
+  public void convert(Path input, Path scenario) throws IOException {
+    Objects.requireNonNull(input, "input cannot be null");
+    Objects.requireNonNull(scenario, "scenario cannot be null");
+
+    Path directory = scenario.toAbsolutePath().getParent();
+    Path encoded = Files.createTempFile(directory, scenario.getFileName().toString(), ".tmp");
+    try {
+      List<String> ids = new ArrayList<>();
+      try (CommandReader commands = JsonParser.getInstance().openCommands(input);
+          OutputStream out = new BufferedOutputStream(Files.newOutputStream(encoded))) {
+        encodeCommands(commands, ids, out);
+      }
+
+      try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(scenario))) {
+        BinaryFormat.writeHeader(out, BinaryFormat.SCENARIO_MAGIC);
+        BinaryFormat.writeVarint(out, ids.size());
+        for (String id : ids) {
+          BinaryFormat.writeString(out, id);
+        }
+        Files.copy(encoded, out);
+      }
+    } finally {
+      Files.deleteIfExists(encoded);
+    }
+  }
+
+  private void encodeCommands(CommandReader commands, List<String> ids, OutputStream out)
+      throws IOException {
+    int steps = 0;
+    while (commands.hasNext()) {
+      Command command = commands.next();
+      switch (command) {
+        case StepCommand ignore -> {
+          if (steps == BinaryFormat.MAX_STEP_RUN) {
+            BinaryFormat.writeVarint(out, steps << 1);
+            steps = 0;
+          }
+          steps++;
+        }
+        case AddVehicleCommand addVehicleCmd -> {
+          if (steps > 0) {
+            BinaryFormat.writeVarint(out, steps << 1);
+            steps = 0;
+          }
+          if (addVehicleCmd.vehicleId() == null) {
+            throw new IOException("Cannot convert a vehicle without an ID");
+          }
+          ids.add(addVehicleCmd.vehicleId());
+          BinaryFormat.writeVarint(out, addVehicleCmd.movement().ordinal() << 1 | 1);
+        }
+      }
+    }
+    if (steps > 0) {
+      BinaryFormat.writeVarint(out, steps << 1);
+    }
+  }
+
+  private MappedByteBuffer map(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      if (channel.size() > Integer.MAX_VALUE) {
+        throw new IOException("Binary files over 2 GiB are not supported");
+      }
+      return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+  }
+}
@@ -0,0 +1,38 @@
+package lol.omg.jakubbinieda.sim.io;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Objects;
+
+// Binary counterpart of StepStatusWriter; a step nobody left in takes a single byte
+public class BinaryResultWriter implements StepSink {
+  private final OutputStream out;
+  private boolean closed;
+
+  BinaryResultWriter(OutputStream out) throws IOException {
+    this.out = out;
+
+    BinaryFormat.writeHeader(out, BinaryFormat.RESULTS_MAGIC);
+  }
+
+  @Override
+  public void write(List<String> leftVehicles) throws IOException {
+    Objects.requireNonNull(leftVehicles, "leftVehicles cannot be null");
+
+    BinaryFormat.writeVarint(out, leftVehicles.size());
+    for (int i = 0; i < leftVehicles.size(); i++) {
+      BinaryFormat.writeString(out, leftVehicles.get(i));
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+
+    closed = true;
+    out.close();
+  }
+}
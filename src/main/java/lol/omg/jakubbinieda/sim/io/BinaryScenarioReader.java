@@ -0,0 +1,78 @@
+package lol.omg.jakubbinieda.sim.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.NoSuchElementException;
+import lol.omg.jakubbinieda.sim.io.commands.AddVehicleCommand;
+import lol.omg.jakubbinieda.sim.io.commands.Command;
+import lol.omg.jakubbinieda.sim.io.commands.StepCommand;
+import lol.omg.jakubbinieda.sim.model.Movement;
+
+// Decodes commands straight from the mapped file; one cursor walks the commands and another the
+// dictionary, which hands out IDs in the order vehicles are added
+public class BinaryScenarioReader implements CommandSource {
+  private static final StepCommand STEP = new StepCommand();
+
+  private final ByteBuffer commands;
+  private final ByteBuffer ids;
+  private int remainingIds;
+  private int pendingSteps;
+
+  BinaryScenarioReader(ByteBuffer buffer) throws IOException {
+    BinaryFormat.checkHeader(buffer, BinaryFormat.SCENARIO_MAGIC, "scenario");
+
+    this.remainingIds = BinaryFormat.readVarint(buffer);
+    if (remainingIds < 0) {
+      throw new IOException("Invalid dictionary size " + Integer.toUnsignedString(remainingIds));
+    }
+    this.ids = buffer.duplicate();
+    for (int i = 0; i < remainingIds; i++) {
+      int length = BinaryFormat.readVarint(buffer);
+      if (length < 0 || length > buffer.remaining()) {
+        throw new IOException("Unexpected end of binary data");
+      }
+      buffer.position(buffer.position() + length);
+    }
+    this.commands = buffer;
+  }
+
+  @Override
+  public boolean hasNext() {
+    return pendingSteps > 0 || commands.hasRemaining();
+  }
+
+  @Override
+  public Command next() throws IOException {
+    if (!hasNext()) {
+      throw new NoSuchElementException("No more commands");
+    }
+    if (pendingSteps > 0) {
+      pendingSteps--;
+      return STEP;
+    }
+
+    int value = BinaryFormat.readVarint(commands);
+    if ((value & 1) == 0) {
+      int steps = value >>> 1;
+      if (steps == 0) {
+        throw new IOException("Step run cannot be empty");
+      }
+      pendingSteps = steps - 1;
+      return STEP;
+    }
+
+    int code = value >>> 1;
+    if (code >= Movement.COUNT) {
+      throw new IOException("Invalid movement code " + code);
+    }
+    if (remainingIds == 0) {
+      throw new IOException("Dictionary has no ID left for a vehicle");
+    }
+    remainingIds--;
+    return new AddVehicleCommand(BinaryFormat.readString(ids), Movement.fromOrdinal(code));
+  }
+
+  // The mapping is released once the buffer is unreachable
+  @Override
+  public void close() {}
+}
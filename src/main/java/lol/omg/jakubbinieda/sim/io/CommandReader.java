@@ -0,0 +1,92 @@
+package lol.omg.jakubbinieda.sim.io;
+
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.util.NoSuchElementException;
+import lol.omg.jakubbinieda.sim.io.commands.Command;
+
+// Reads the commands array of an input file one command at a time, so only the current command
+// is held in memory
+public class CommandReader implements CommandSource {
+  private final com.fasterxml.jackson.core.JsonParser parser;
+  private final ObjectMapper mapper;
+
+  private boolean inCommands;
+  // The parser is on the START_OBJECT of a command next() has not read yet
+  private boolean ready;
+  private boolean finished;
+
+  CommandReader(com.fasterxml.jackson.core.JsonParser parser, ObjectMapper mapper) {
+    this.parser = parser;
+    this.mapper = mapper;
+  }
+
+  @Override
+  public boolean hasNext() throws IOException {
+    if (ready) {
+      return true;
+    }
+    if (finished) {
+      return false;
+    }
+    if (!inCommands) {
+      findCommands();
+      if (finished) {
+        return false;
+      }
+    }
+
+    JsonToken token = parser.nextToken();
+    if (token == JsonToken.END_ARRAY) {
+      finished = true;
+      return false;
+    }
+    if (token != JsonToken.START_OBJECT) {
+      throw new IOException("Expected a command but found " + token);
+    }
+
+    ready = true;
+    return true;
+  }
+
+  @Override
+  public Command next() throws IOException {
+    if (!hasNext()) {
+      throw new NoSuchElementException("No more commands");
+    }
+
+    ready = false;
+    return mapper.readValue(parser, Command.class);
+  }
+
+  @Override
+  public void close() throws IOException {
+    parser.close();
+  }
+
+  // Moves to the start of the commands array, skipping any other field of the input object
+  private void findCommands() throws IOException {
+    if (parser.nextToken() != JsonToken.START_OBJECT) {
+      throw new IOException("Expected the input to be a JSON object");
+    }
+
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String field = parser.currentName();
+      JsonToken value = parser.nextToken();
+      if (field.equals("commands")) {
+        if (value == JsonToken.VALUE_NULL) {
+          break;
+        }
+        if (value != JsonToken.START_ARRAY) {
+          throw new IOException("Expected commands to be an array but found " + value);
+        }
+        inCommands = true;
+        return;
+      }
+      parser.skipChildren();
+    }
+
+    finished = true;
+  }
+}
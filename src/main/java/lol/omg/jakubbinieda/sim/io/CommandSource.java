@@ -0,0 +1,12 @@
+package lol.omg.jakubbinieda.sim.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import lol.omg.jakubbinieda.sim.io.commands.Command;
+
+// Commands of an input, read one at a time
+public interface CommandSource extends Closeable {
+  boolean hasNext() throws IOException;
+
+  Command next() throws IOException;
+}
@@ -1,17 +1,24 @@
 package lol.omg.jakubbinieda.sim.io;
 
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.util.DefaultIndenter;
 import com.fasterxml.jackson.core.util.DefaultPrettyPrinter;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
 import java.nio.file.Path;
 import java.util.Objects;
+import lol.omg.jakubbinieda.sim.io.commands.Command;
 
 public class JsonParser {
   public static final JsonParser INSTANCE = new JsonParser();
 
   private final ObjectMapper mapper;
+  private final DefaultPrettyPrinter printer;
 
   private JsonParser() {
     DefaultPrettyPrinter printer = new DefaultPrettyPrinter();
@@ -19,6 +26,7 @@ public class JsonParser {
     printer =
         printer.withSeparators(DefaultPrettyPrinter.DEFAULT_SEPARATORS.withArrayEmptySeparator(""));
 
+    this.printer = printer;
     this.mapper = new ObjectMapper();
     mapper.setDefaultPrettyPrinter(printer);
     mapper.enable(SerializationFeature.INDENT_OUTPUT);
@@ -34,6 +42,39 @@ public class JsonParser {
     return mapper.readValue(path.toFile(), SimulationInput.class);
   }
 
+  public CommandReader openCommands(Path path) throws IOException {
+    Objects.requireNonNull(path, "path cannot be null");
+
+    return new CommandReader(mapper.getFactory().createParser(path.toFile()), mapper);
+  }
+
+  public StepStatusWriter openOutput(Path path) throws IOException {
+    Objects.requireNonNull(path, "path cannot be null");
+
+    JsonGenerator generator = mapper.getFactory().createGenerator(path.toFile(), JsonEncoding.UTF8);
+    generator.setPrettyPrinter(printer.createInstance());
+    return new StepStatusWriter(generator);
+  }
+
+  // The caller keeps ownership of the stream, so it can be stdin
+  public NdjsonCommandReader openNdjsonCommands(InputStream in) throws IOException {
+    Objects.requireNonNull(in, "in cannot be null");
+
+    com.fasterxml.jackson.core.JsonParser parser = mapper.getFactory().createParser(in);
+    parser.disable(com.fasterxml.jackson.core.JsonParser.Feature.AUTO_CLOSE_SOURCE);
+    return new NdjsonCommandReader(mapper.readerFor(Command.class).readValues(parser));
+  }
+
+  // The caller keeps ownership of the stream, so it can be stdout
+  public NdjsonStatusWriter openNdjsonOutput(OutputStream out) throws IOException {
+    Objects.requireNonNull(out, "out cannot be null");
+
+    JsonGenerator generator = mapper.getFactory().createGenerator(out, JsonEncoding.UTF8);
+    generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    generator.setRootValueSeparator(null);
+    return new NdjsonStatusWriter(generator, out instanceof PrintStream print ? print : null);
+  }
+
   public void writeOutput(Path path, SimulationOutput output) throws IOException {
     Objects.requireNonNull(path, "path cannot be null");
     Objects.requireNonNull(output, "output cannot be null");
@@ -0,0 +1,36 @@
+package lol.omg.jakubbinieda.sim.io;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import java.io.IOException;
+import java.util.NoSuchElementException;
+import lol.omg.jakubbinieda.sim.io.commands.Command;
+
+// Reads one command per line; a command is returned as soon as its line has arrived, without
+// waiting for the next one
+public class NdjsonCommandReader implements CommandSource {
+  private final MappingIterator<Command> commands;
+
+  NdjsonCommandReader(MappingIterator<Command> commands) {
+    this.commands = commands;
+  }
+
+  @Override
+  public boolean hasNext() throws IOException {
+    return commands.hasNextValue();
+  }
+
+  @Override
+  public Command next() throws IOException {
+    if (!hasNext()) {
+      throw new NoSuchElementException("No more commands");
+    }
+
+    return commands.nextValue();
+  }
+
+  // Leaves the underlying stream open
+  @Override
+  public void close() throws IOException {
+    commands.close();
+  }
+}
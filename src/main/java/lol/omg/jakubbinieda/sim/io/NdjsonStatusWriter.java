@@ -0,0 +1,45 @@
+package lol.omg.jakubbinieda.sim.io;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.List;
+import java.util.Objects;
+
+// Writes each step status as one line and flushes it right away
+public class NdjsonStatusWriter implements StepSink {
+  private final JsonGenerator generator;
+  private final PrintStream console;
+
+  NdjsonStatusWriter(JsonGenerator generator, PrintStream console) {
+    this.generator = generator;
+    this.console = console;
+  }
+
+  @Override
+  public void write(List<String> leftVehicles) throws IOException {
+    Objects.requireNonNull(leftVehicles, "leftVehicles cannot be null");
+
+    generator.writeStartObject();
+    generator.writeFieldName("leftVehicles");
+    generator.writeStartArray();
+    for (int i = 0; i < leftVehicles.size(); i++) {
+      generator.writeString(leftVehicles.get(i));
+    }
+    generator.writeEndArray();
+    generator.writeEndObject();
+    generator.writeRaw('\n');
+    generator.flush();
+
+    // A PrintStream swallows errors, so a closed pipe would otherwise go unnoticed
+    if (console != null && console.checkError()) {
+      throw new IOException("Cannot write to the output stream");
+    }
+  }
+
+  // Leaves the underlying stream open
+  @Override
+  public void close() throws IOException {
+    generator.close();
+  }
+}
@@ -0,0 +1,130 @@
+package lol.omg.jakubbinieda.sim.io;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import lol.omg.jakubbinieda.sim.io.commands.Command;
+
+// Reads the source on its own thread, handing commands over in batches through a bounded queue;
+// the reader blocks once the queue is full, so at most queueCapacity batches are held in memory
+public class PrefetchingCommandSource implements CommandSource {
+  public static final int DEFAULT_BATCH_SIZE = 1024;
+  public static final int DEFAULT_QUEUE_CAPACITY = 8;
+
+  private final CommandSource source;
+  private final BlockingQueue<Batch> batches;
+  private final Thread reader;
+
+  private List<Command> current;
+  private int position;
+  private boolean finished;
+  private Exception failure;
+  private boolean closed;
+
+  public PrefetchingCommandSource(CommandSource source) {
+    this(source, DEFAULT_BATCH_SIZE, DEFAULT_QUEUE_CAPACITY);
+  }
+
+  public PrefetchingCommandSource(CommandSource source, int batchSize, int queueCapacity) {
+    Objects.requireNonNull(source, "source cannot be null");
+    if (batchSize < 1) {
+      throw new IllegalArgumentException("batchSize must be positive");
+    }
+    if (queueCapacity < 1) {
+      throw new IllegalArgumentException("queueCapacity must be positive");
+    }
+
+    this.source = source;
+    this.batches = new ArrayBlockingQueue<>(queueCapacity);
+    this.current = List.of();
+    this.reader =
+        Thread.ofPlatform().name("command-reader").daemon().start(() -> prefetch(batchSize));
+  }
+
+  // A read error is thrown once the commands read before it have been returned
+  @Override
+  public boolean hasNext() throws IOException {
+    while (position == current.size()) {
+      if (failure != null) {
+        throw new IOException(failure.getMessage(), failure);
+      }
+      if (finished) {
+        return false;
+      }
+      take();
+    }
+    return true;
+  }
+
+  @Override
+  public Command next() throws IOException {
+    if (!hasNext()) {
+      throw new NoSuchElementException("No more commands");
+    }
+
+    return current.get(position++);
+  }
+
+  // Stops the reader thread, even when it is blocked on a full queue, before closing the source
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+
+    closed = true;
+    reader.interrupt();
+    try {
+      reader.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    source.close();
+  }
+
+  private void take() throws IOException {
+    Batch batch;
+    try {
+      batch = batches.take();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting for commands");
+    }
+
+    current = batch.commands();
+    position = 0;
+    finished = batch.last();
+    failure = batch.failure();
+  }
+
+  private void prefetch(int batchSize) {
+    try {
+      while (true) {
+        List<Command> commands = new ArrayList<>(batchSize);
+        try {
+          while (commands.size() < batchSize && source.hasNext()) {
+            commands.add(source.next());
+          }
+        } catch (Exception e) {
+          batches.put(new Batch(commands, true, e));
+          return;
+        }
+
+        boolean last = commands.size() < batchSize;
+        batches.put(new Batch(commands, last, null));
+        if (last) {
+          return;
+        }
+      }
+    } catch (InterruptedException e) {
+      // Closed before the source was read to the end
+    }
+  }
+
+  private record Batch(List<Command> commands, boolean last, Exception failure) {}
+}
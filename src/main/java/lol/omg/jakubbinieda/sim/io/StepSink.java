@@ -0,0 +1,10 @@
+package lol.omg.jakubbinieda.sim.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+
+// Receives the vehicles that left during each step, in step order
+public interface StepSink extends Closeable {
+  void write(List<String> leftVehicles) throws IOException;
+}
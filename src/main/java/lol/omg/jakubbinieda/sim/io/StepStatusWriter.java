@@ -0,0 +1,60 @@
+package lol.omg.jakubbinieda.sim.io;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import java.io.IOException;
+import java.util.List;
+import java.util.Objects;
+
+// Writes a SimulationOutput one step status at a time; the file ends up byte for byte the same as
+// JsonParser.writeOutput() would write. Entries reach the file whenever the generator's buffer
+// fills, so the file can be followed while the run is going.
+public class StepStatusWriter implements StepSink {
+  private final JsonGenerator generator;
+
+  StepStatusWriter(JsonGenerator generator) throws IOException {
+    this.generator = generator;
+
+    generator.writeStartObject();
+    generator.writeFieldName("stepStatuses");
+    generator.writeStartArray();
+  }
+
+  public void write(StepStatus status) throws IOException {
+    Objects.requireNonNull(status, "status cannot be null");
+
+    write(status.leftVehicles());
+  }
+
+  @Override
+  public void write(List<String> leftVehicles) throws IOException {
+    Objects.requireNonNull(leftVehicles, "leftVehicles cannot be null");
+
+    generator.writeStartObject();
+    generator.writeFieldName("leftVehicles");
+    generator.writeStartArray();
+    for (int i = 0; i < leftVehicles.size(); i++) {
+      generator.writeString(leftVehicles.get(i));
+    }
+    generator.writeEndArray();
+    generator.writeEndObject();
+  }
+
+  public void flush() throws IOException {
+    generator.flush();
+  }
+
+  // Closes the stepStatuses array and the output object
+  @Override
+  public void close() throws IOException {
+    if (generator.isClosed()) {
+      return;
+    }
+
+    try {
+      generator.writeEndArray();
+      generator.writeEndObject();
+    } finally {
+      generator.close();
+    }
+  }
+}
@@ -3,11 +3,37 @@ package lol.omg.jakubbinieda.sim.model;
 import java.util.Objects;
 
 public record Movement(Direction from, Direction to) {
+  private static final int DIRECTIONS = Direction.values().length;
+
+  public static final int COUNT = DIRECTIONS * DIRECTIONS;
+
+  private static final Movement[] VALUES = new Movement[COUNT];
+
+  static {
+    for (Direction from : Direction.values()) {
+      for (Direction to : Direction.values()) {
+        Movement movement = new Movement(from, to);
+        VALUES[movement.ordinal()] = movement;
+      }
+    }
+  }
+
   public Movement {
     Objects.requireNonNull(from, "from cannot be null");
     Objects.requireNonNull(to, "to cannot be null");
   }
 
+  public static Movement fromOrdinal(int ordinal) {
+    if (ordinal < 0 || ordinal >= COUNT) {
+      throw new IllegalArgumentException("Invalid movement ordinal " + ordinal);
+    }
+    return VALUES[ordinal];
+  }
+
+  public int ordinal() {
+    return from.ordinal() * DIRECTIONS + to.ordinal();
+  }
+
   public TurnType getTurnType() {
     if (from == to) {
       return TurnType.U_TURN;
@@ -1,6 +1,7 @@
 package lol.omg.jakubbinieda.sim.model;
 
 import java.util.Objects;
+import java.util.function.IntSupplier;
 
 public class Vehicle {
   private final String id;
@@ -8,6 +9,8 @@ public class Vehicle {
   private int crossingTimeRemaining;
   private State state;
   private int waitTime;
+  private IntSupplier waitClock;
+  private int waitingSince;
 
   public Vehicle(String id, Movement movement) {
     this.id = Objects.requireNonNull(id, "id cannot be null");
@@ -31,7 +34,10 @@ public class Vehicle {
   }
 
   public int getWaitTime() {
-    return waitTime;
+    if (waitClock == null) {
+      return waitTime;
+    }
+    return waitTime + waitClock.getAsInt() - waitingSince;
   }
 
   public int getCrossingTimeRemaining() {
@@ -45,6 +51,17 @@ public class Vehicle {
     waitTime++;
   }
 
+  public void startWaiting(IntSupplier clock) {
+    Objects.requireNonNull(clock, "clock cannot be null");
+    if (state != State.QUEUED) {
+      throw new IllegalStateException("Cannot start waiting when state is " + state);
+    }
+
+    this.waitTime = getWaitTime();
+    this.waitClock = clock;
+    this.waitingSince = clock.getAsInt();
+  }
+
   public void startCrossing(int crossingTime) {
     if (state != State.QUEUED) {
       throw new IllegalStateException("Cannot start crossing when state is " + state);
@@ -53,6 +70,8 @@ public class Vehicle {
       throw new IllegalArgumentException("Crossing time must be positive");
     }
 
+    this.waitTime = getWaitTime();
+    this.waitClock = null;
     this.state = State.CROSSING;
     this.crossingTimeRemaining = crossingTime;
   }
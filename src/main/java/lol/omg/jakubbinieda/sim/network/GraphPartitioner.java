@@ -0,0 +1,120 @@
+package lol.omg.jakubbinieda.sim.network;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+// Grows each shard from its heaviest unassigned intersection along links until it holds its share
+// of the remaining weight, so connected intersections end up together and hot ones are spread out
+public class GraphPartitioner {
+  public static final GraphPartitioner INSTANCE = new GraphPartitioner();
+
+  private static final int UNASSIGNED = -1;
+
+  private GraphPartitioner() {}
+
+  public static GraphPartitioner getInstance() {
+    return INSTANCE;
+  }
+
+  // Returns the shard of every intersection, indexed like intersectionIds
+  public int[] partition(
+      List<String> intersectionIds, List<Link> links, long[] weights, int shards) {
+    Objects.requireNonNull(intersectionIds, "intersectionIds cannot be null");
+    Objects.requireNonNull(links, "links cannot be null");
+    Objects.requireNonNull(weights, "weights cannot be null");
+    if (shards < 1) {
+      throw new IllegalArgumentException("shards must be positive");
+    }
+    if (weights.length != intersectionIds.size()) {
+      throw new IllegalArgumentException(
+          "Expected " + intersectionIds.size() + " weights but got " + weights.length);
+    }
+
+    int count = intersectionIds.size();
+    List<List<Integer>> neighbours = neighbours(intersectionIds, links);
+
+    long remainingWeight = 0;
+    for (long weight : weights) {
+      remainingWeight += weight(weight);
+    }
+
+    int[] assignment = new int[count];
+    Arrays.fill(assignment, UNASSIGNED);
+    int unassigned = count;
+    int shardCount = Math.min(shards, count);
+
+    for (int shard = 0; shard < shardCount; shard++) {
+      int shardsLeft = shardCount - shard;
+      long target = remainingWeight / shardsLeft;
+      long shardWeight = 0;
+
+      ArrayDeque<Integer> frontier = new ArrayDeque<>();
+      // Every later shard needs at least one intersection
+      while (unassigned > shardsLeft - 1 && (shardWeight < target || shardsLeft == 1)) {
+        if (frontier.isEmpty()) {
+          frontier.add(heaviestUnassigned(assignment, weights));
+        }
+
+        int node = frontier.poll();
+        if (assignment[node] != UNASSIGNED) {
+          continue;
+        }
+
+        assignment[node] = shard;
+        unassigned--;
+        shardWeight += weight(weights[node]);
+        for (int neighbour : neighbours.get(node)) {
+          if (assignment[neighbour] == UNASSIGNED) {
+            frontier.add(neighbour);
+          }
+        }
+      }
+
+      remainingWeight -= shardWeight;
+    }
+
+    return assignment;
+  }
+
+  private static List<List<Integer>> neighbours(List<String> intersectionIds, List<Link> links) {
+    Map<String, Integer> indices = new HashMap<>();
+    List<List<Integer>> neighbours = new ArrayList<>();
+    for (int i = 0; i < intersectionIds.size(); i++) {
+      indices.put(intersectionIds.get(i), i);
+      neighbours.add(new ArrayList<>());
+    }
+
+    for (Link link : links) {
+      Integer from = indices.get(link.from());
+      Integer to = indices.get(link.to());
+      if (from == null || to == null) {
+        throw new IllegalArgumentException(
+            "Unknown intersection: " + (from == null ? link.from() : link.to()));
+      }
+      neighbours.get(from).add(to);
+      neighbours.get(to).add(from);
+    }
+    return neighbours;
+  }
+
+  private static int heaviestUnassigned(int[] assignment, long[] weights) {
+    int heaviest = UNASSIGNED;
+    for (int i = 0; i < assignment.length; i++) {
+      if (assignment[i] == UNASSIGNED
+          && (heaviest == UNASSIGNED || weight(weights[i]) > weight(weights[heaviest]))) {
+        heaviest = i;
+      }
+    }
+    return heaviest;
+  }
+
+  // An intersection that took no measurable time still costs something to visit
+  private static long weight(long weight) {
+    return Math.max(1, weight);
+  }
+}
@@ -0,0 +1,37 @@
+package lol.omg.jakubbinieda.sim.network;
+
+import java.util.Objects;
+import lol.omg.jakubbinieda.sim.model.Direction;
+
+// Directed road from the exit of one intersection to an approach of the next; capacity is the
+// number of vehicles the road holds at once
+public record Link(
+    String id,
+    String from,
+    Direction exit,
+    String to,
+    Direction approach,
+    int travelTime,
+    int capacity) {
+  public static final int DEFAULT_CAPACITY = 64;
+
+  public Link {
+    Objects.requireNonNull(id, "id cannot be null");
+    Objects.requireNonNull(from, "from cannot be null");
+    Objects.requireNonNull(exit, "exit cannot be null");
+    Objects.requireNonNull(to, "to cannot be null");
+    Objects.requireNonNull(approach, "approach cannot be null");
+
+    if (travelTime < 1) {
+      throw new IllegalArgumentException("travelTime must be positive");
+    }
+    if (capacity < 1) {
+      throw new IllegalArgumentException("capacity must be positive");
+    }
+  }
+
+  public Link(
+      String id, String from, Direction exit, String to, Direction approach, int travelTime) {
+    this(id, from, exit, to, approach, travelTime, DEFAULT_CAPACITY);
+  }
+}
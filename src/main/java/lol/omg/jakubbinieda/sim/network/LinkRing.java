@@ -0,0 +1,108 @@
+package lol.omg.jakubbinieda.sim.network;
+
+import java.util.NoSuchElementException;
+
+// Bounded single-producer single-consumer ring of the vehicle IDs on one link. The producer is
+// whoever steps the link's source intersection and the consumer whoever delivers its arrivals;
+// they may be different threads. Vehicles that exit while the ring is full wait in a spillback
+// queue that only the producer touches, and enter the link as soon as there is room.
+final class LinkRing {
+  private final int capacity;
+  private final String[] vehicleIds;
+  private final int[] arrivalSteps;
+
+  // Only the producer writes tail and only the consumer writes head
+  private volatile long head;
+  private volatile long tail;
+
+  private String[] spilled;
+  private int spilledHead;
+  private int spilledCount;
+
+  LinkRing(int capacity) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("capacity must be positive");
+    }
+
+    this.capacity = capacity;
+    this.vehicleIds = new String[capacity];
+    this.arrivalSteps = new int[capacity];
+    this.spilled = new String[0];
+  }
+
+  // Producer side
+
+  void push(String vehicleId, int arrivalStep) {
+    if (spilledCount == 0 && tail - head < capacity) {
+      write(vehicleId, arrivalStep);
+    } else {
+      spill(vehicleId);
+    }
+  }
+
+  // Moves spilled vehicles onto the link while it has room; they arrive after travelTime
+  void drainSpilled(int step, int travelTime) {
+    while (spilledCount > 0 && tail - head < capacity) {
+      String vehicleId = spilled[spilledHead];
+      spilled[spilledHead] = null;
+      spilledHead = (spilledHead + 1) % spilled.length;
+      spilledCount--;
+      write(vehicleId, step + travelTime);
+    }
+  }
+
+  // True when a vehicle exiting now would have to wait for room
+  boolean isBlocked() {
+    return spilledCount > 0 || tail - head == capacity;
+  }
+
+  // Consumer side
+
+  boolean hasArrival(int step) {
+    long current = head;
+    return current != tail && arrivalSteps[index(current)] <= step;
+  }
+
+  // Clears the slot so the link holds no reference to vehicles it delivered
+  String poll() {
+    long current = head;
+    if (current == tail) {
+      throw new NoSuchElementException("Link is empty");
+    }
+
+    String vehicleId = vehicleIds[index(current)];
+    vehicleIds[index(current)] = null;
+    head = current + 1;
+    return vehicleId;
+  }
+
+  // Vehicles on the link plus those waiting to enter it; only exact between steps
+  int size() {
+    return (int) (tail - head) + spilledCount;
+  }
+
+  private void write(String vehicleId, int arrivalStep) {
+    long current = tail;
+    vehicleIds[index(current)] = vehicleId;
+    arrivalSteps[index(current)] = arrivalStep;
+    // Publishes the slot to the consumer
+    tail = current + 1;
+  }
+
+  private void spill(String vehicleId) {
+    if (spilledCount == spilled.length) {
+      String[] grown = new String[Math.max(8, spilled.length * 2)];
+      for (int i = 0; i < spilledCount; i++) {
+        grown[i] = spilled[(spilledHead + i) % spilled.length];
+      }
+      spilled = grown;
+      spilledHead = 0;
+    }
+    spilled[(spilledHead + spilledCount) % spilled.length] = vehicleId;
+    spilledCount++;
+  }
+
+  private int index(long position) {
+    return (int) (position % capacity);
+  }
+}
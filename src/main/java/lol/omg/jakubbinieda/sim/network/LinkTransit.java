@@ -0,0 +1,139 @@
+package lol.omg.jakubbinieda.sim.network;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import lol.omg.jakubbinieda.sim.model.Direction;
+import lol.omg.jakubbinieda.sim.model.Movement;
+
+// Vehicles travelling on links between intersections, which are referred to by their index in
+// intersectionIds. Stepping intersection i produces onto its outgoing links (blockedExits, handOff)
+// and deliver consumes from all links, so each link has a single producer and a single consumer.
+final class LinkTransit {
+  private static final int NO_LINK = -1;
+
+  interface ArrivalSink {
+    void arrive(int intersection, String vehicleId, Movement movement);
+  }
+
+  private final List<String> intersectionIds;
+  private final Map<String, Integer> intersectionIndices;
+  private final RouteSelector routeSelector;
+
+  private final List<Link> links;
+  private final int[] linkTargets;
+  private final int[][] outgoingLinks;
+  private final LinkRing[] rings;
+
+  LinkTransit(List<String> intersectionIds, Collection<Link> links, RouteSelector routeSelector) {
+    this.intersectionIds = intersectionIds;
+    this.routeSelector = Objects.requireNonNull(routeSelector, "routeSelector cannot be null");
+
+    this.intersectionIndices = new HashMap<>();
+    this.outgoingLinks = new int[intersectionIds.size()][Direction.values().length];
+    for (int i = 0; i < intersectionIds.size(); i++) {
+      intersectionIndices.put(intersectionIds.get(i), i);
+      Arrays.fill(outgoingLinks[i], NO_LINK);
+    }
+
+    Map<String, Link> sortedLinks = new TreeMap<>();
+    for (Link link : links) {
+      Objects.requireNonNull(link, "link cannot be null");
+      if (sortedLinks.put(link.id(), link) != null) {
+        throw new IllegalArgumentException("Duplicate link ID: " + link.id());
+      }
+    }
+
+    this.links = List.copyOf(sortedLinks.values());
+    this.linkTargets = new int[this.links.size()];
+    this.rings = new LinkRing[this.links.size()];
+    for (int l = 0; l < this.links.size(); l++) {
+      Link link = this.links.get(l);
+      int from = indexOf(link.from());
+      if (outgoingLinks[from][link.exit().ordinal()] != NO_LINK) {
+        throw new IllegalArgumentException(
+            "Intersection " + link.from() + " already has a link leaving to " + link.exit());
+      }
+
+      outgoingLinks[from][link.exit().ordinal()] = l;
+      linkTargets[l] = indexOf(link.to());
+      rings[l] = new LinkRing(link.capacity());
+    }
+  }
+
+  List<Link> links() {
+    return links;
+  }
+
+  int indexOf(String intersectionId) {
+    Integer index = intersectionIndices.get(intersectionId);
+    if (index == null) {
+      throw new IllegalArgumentException("Unknown intersection: " + intersectionId);
+    }
+    return index;
+  }
+
+  // Hands every vehicle due by the given step to the intersection at the end of its link
+  void deliver(int step, ArrivalSink sink) {
+    for (int l = 0; l < links.size(); l++) {
+      deliver(step, l, sink);
+    }
+  }
+
+  void deliver(int step, int link, ArrivalSink sink) {
+    LinkRing ring = rings[link];
+    while (ring.hasArrival(step)) {
+      String vehicleId = ring.poll();
+      Link route = links.get(link);
+      Movement movement = routeSelector.selectMovement(vehicleId, route.to(), route.approach());
+      sink.arrive(linkTargets[link], vehicleId, movement);
+    }
+  }
+
+  // Lets vehicles held back by full links enter them, then returns a mask of the exits, by
+  // Direction ordinal, that the intersection must keep closed for this step
+  int blockedExits(int step, int intersection) {
+    int mask = 0;
+    for (int link : outgoingLinks[intersection]) {
+      if (link == NO_LINK) {
+        continue;
+      }
+
+      LinkRing ring = rings[link];
+      ring.drainSpilled(step, links.get(link).travelTime());
+      if (ring.isBlocked()) {
+        mask |= 1 << links.get(link).exit().ordinal();
+      }
+    }
+    return mask;
+  }
+
+  boolean hasLink(int intersection, Direction exit) {
+    return outgoingLinks[intersection][exit.ordinal()] != NO_LINK;
+  }
+
+  // Puts a vehicle that left an intersection on its outgoing link; the exit must have a link
+  void handOff(int step, int intersection, String vehicleId, Direction exit) {
+    int link = outgoingLinks[intersection][exit.ordinal()];
+    rings[link].push(vehicleId, step + links.get(link).travelTime());
+  }
+
+  // Only exact between steps
+  int vehiclesOnLink(int link) {
+    return rings[link].size();
+  }
+
+  // Only exact between steps
+  Map<String, Integer> vehiclesOnLinks() {
+    Map<String, Integer> vehiclesOnLinks = new LinkedHashMap<>();
+    for (int l = 0; l < links.size(); l++) {
+      vehiclesOnLinks.put(links.get(l).id(), rings[l].size());
+    }
+    return vehiclesOnLinks;
+  }
+}
@@ -0,0 +1,163 @@
+package lol.omg.jakubbinieda.sim.network;
+
+import java.io.Serial;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import lol.omg.jakubbinieda.sim.engine.Intersection;
+import lol.omg.jakubbinieda.sim.engine.StepBuffer;
+import lol.omg.jakubbinieda.sim.engine.StepResult;
+import lol.omg.jakubbinieda.sim.model.Direction;
+import lol.omg.jakubbinieda.sim.model.Movement;
+
+// Intersections and links are kept in ID order, so a step always visits them in the same order
+public class Network {
+  private static final Direction[] DIRECTIONS = Direction.values();
+
+  private final List<String> intersectionIds;
+  private final Intersection[] intersections;
+  private final StepBuffer[] buffers;
+  private final LinkTransit transit;
+
+  private int stepCount;
+
+  public Network(Map<String, Intersection> intersections, Collection<Link> links) {
+    this(intersections, links, StraightRouteSelector.getInstance());
+  }
+
+  public Network(
+      Map<String, Intersection> intersections,
+      Collection<Link> links,
+      RouteSelector routeSelector) {
+    Objects.requireNonNull(intersections, "intersections cannot be null");
+    Objects.requireNonNull(links, "links cannot be null");
+    Objects.requireNonNull(routeSelector, "routeSelector cannot be null");
+
+    if (intersections.isEmpty()) {
+      throw new IllegalArgumentException("Network must contain at least one intersection");
+    }
+
+    Map<String, Intersection> sorted = new TreeMap<>(intersections);
+    this.intersectionIds = List.copyOf(sorted.keySet());
+    this.intersections = new Intersection[sorted.size()];
+    this.buffers = new StepBuffer[sorted.size()];
+    for (int i = 0; i < intersectionIds.size(); i++) {
+      String id = intersectionIds.get(i);
+      this.intersections[i] = Objects.requireNonNull(sorted.get(id), "intersection cannot be null");
+      this.buffers[i] = new StepBuffer();
+    }
+
+    this.transit = new LinkTransit(intersectionIds, links, routeSelector);
+    this.stepCount = 0;
+  }
+
+  public List<String> getIntersectionIds() {
+    return intersectionIds;
+  }
+
+  public Intersection getIntersection(String id) {
+    return intersections[transit.indexOf(id)];
+  }
+
+  public List<Link> getLinks() {
+    return transit.links();
+  }
+
+  // The vehicle joins the intersection's queue before the next step
+  public void addVehicle(String intersectionId, String vehicleId, Movement movement) {
+    intersections[transit.indexOf(intersectionId)].addVehicle(vehicleId, movement);
+  }
+
+  // Vehicles keep their IDs across the network, so a route cannot pass an intersection twice
+  public NetworkStepResult step() {
+    beginStep();
+    for (int i = 0; i < intersections.length; i++) {
+      stepIntersection(i);
+    }
+    return finishStep();
+  }
+
+  // Intersections only interact through links, each of which has one producer and one consumer,
+  // so they step concurrently; the result is the same as step()
+  public NetworkStepResult step(ForkJoinPool pool) {
+    Objects.requireNonNull(pool, "pool cannot be null");
+
+    beginStep();
+    pool.invoke(new StepTask(0, intersections.length));
+    return finishStep();
+  }
+
+  // A step is beginStep(), stepIntersection() once for every index in any order, then finishStep()
+  void beginStep() {
+    stepCount++;
+    transit.deliver(
+        stepCount,
+        (intersection, vehicleId, movement) ->
+            intersections[intersection].addVehicle(vehicleId, movement));
+  }
+
+  // Produces onto the intersection's outgoing links only, so intersections may step on different
+  // threads
+  void stepIntersection(int index) {
+    Intersection intersection = intersections[index];
+    int blocked = transit.blockedExits(stepCount, index);
+    for (Direction exit : DIRECTIONS) {
+      intersection.setExitBlocked(exit, (blocked & (1 << exit.ordinal())) != 0);
+    }
+
+    StepBuffer buffer = buffers[index];
+    intersection.step(buffer);
+    for (int v = 0; v < buffer.getLeftCount(); v++) {
+      Direction exit = buffer.getLeftMovement(v).to();
+      if (transit.hasLink(index, exit)) {
+        transit.handOff(stepCount, index, buffer.getLeftVehicleId(v), exit);
+      }
+    }
+  }
+
+  NetworkStepResult finishStep() {
+    Map<String, StepResult> results = new LinkedHashMap<>();
+    List<String> leftNetwork = new ArrayList<>();
+    for (int i = 0; i < intersections.length; i++) {
+      StepBuffer buffer = buffers[i];
+      results.put(intersectionIds.get(i), buffer.toStepResult());
+      for (int v = 0; v < buffer.getLeftCount(); v++) {
+        if (!transit.hasLink(i, buffer.getLeftMovement(v).to())) {
+          leftNetwork.add(buffer.getLeftVehicleId(v));
+        }
+      }
+    }
+
+    return new NetworkStepResult(stepCount, results, leftNetwork, transit.vehiclesOnLinks());
+  }
+
+  // Steps intersections [from, to), splitting the range until one intersection is left
+  private final class StepTask extends RecursiveAction {
+    @Serial private static final long serialVersionUID = 1L;
+
+    private final int from;
+    private final int to;
+
+    private StepTask(int from, int to) {
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from == 1) {
+        stepIntersection(from);
+        return;
+      }
+
+      int middle = (from + to) >>> 1;
+      invokeAll(new StepTask(from, middle), new StepTask(middle, to));
+    }
+  }
+}
@@ -0,0 +1,402 @@
+package lol.omg.jakubbinieda.sim.network;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import lol.omg.jakubbinieda.sim.model.Direction;
+import lol.omg.jakubbinieda.sim.model.Movement;
+
+// Keeps the boundary links of a network whose intersections are stepped by NetworkWorkers,
+// possibly in other processes; links between two intersections of the same worker stay on that
+// worker. Every step is a barrier: all workers step, then vehicles are handed to boundary links in
+// intersection ID order, so leftNetwork and vehiclesOnLinks match Network.step(). Intersection
+// results stay on the workers, so step results hold none.
+public class NetworkCoordinator implements AutoCloseable {
+  private static final int INTERNAL = -1;
+  private static final Direction[] DIRECTIONS = Direction.values();
+
+  private final ServerSocket server;
+  private final Collection<Link> links;
+  private final RouteSelector routeSelector;
+  private final List<Worker> workers;
+  private final List<Arrival> pending;
+
+  private List<String> intersectionIds;
+  private List<Link> networkLinks;
+  private int[] owners;
+  private int[] localIndices;
+  // Index of every link in transit, or INTERNAL; vehiclesOnInternalLinks is filled in by workers
+  private int[] boundaryIndices;
+  private int[] vehiclesOnInternalLinks;
+  private LinkTransit transit;
+  private int stepCount;
+  private boolean failed;
+
+  public NetworkCoordinator(int port, Collection<Link> links) throws IOException {
+    this(port, links, StraightRouteSelector.getInstance());
+  }
+
+  // Port 0 picks any free port; see getPort()
+  public NetworkCoordinator(int port, Collection<Link> links, RouteSelector routeSelector)
+      throws IOException {
+    this.links = List.copyOf(Objects.requireNonNull(links, "links cannot be null"));
+    this.routeSelector = Objects.requireNonNull(routeSelector, "routeSelector cannot be null");
+    this.server = new ServerSocket(port);
+    this.workers = new ArrayList<>();
+    this.pending = new ArrayList<>();
+  }
+
+  public int getPort() {
+    return server.getLocalPort();
+  }
+
+  public void awaitWorkers(int count) throws IOException {
+    if (count < 1) {
+      throw new IllegalArgumentException("count must be positive");
+    }
+    if (transit != null) {
+      throw new IllegalStateException("Cannot await workers when workers are already connected");
+    }
+
+    Map<String, Integer> owned = new TreeMap<>();
+    for (int w = 0; w < count; w++) {
+      Worker worker = accept();
+      workers.add(worker);
+      for (String id : worker.intersectionIds()) {
+        if (owned.put(id, w) != null) {
+          throw new IllegalArgumentException(
+              "Intersection " + id + " is owned by more than one worker");
+        }
+      }
+    }
+
+    intersectionIds = List.copyOf(owned.keySet());
+    owners = new int[intersectionIds.size()];
+    localIndices = new int[intersectionIds.size()];
+    for (int i = 0; i < intersectionIds.size(); i++) {
+      String id = intersectionIds.get(i);
+      owners[i] = owned.get(id);
+      localIndices[i] = workers.get(owners[i]).intersectionIds().indexOf(id);
+    }
+
+    // Checks the whole network once, then keeps only the links between workers
+    networkLinks = new LinkTransit(intersectionIds, links, routeSelector).links();
+    List<Link> boundaryLinks = new ArrayList<>();
+    boundaryIndices = new int[networkLinks.size()];
+    for (int l = 0; l < networkLinks.size(); l++) {
+      Link link = networkLinks.get(l);
+      if (owned.get(link.from()).equals(owned.get(link.to()))) {
+        boundaryIndices[l] = INTERNAL;
+      } else {
+        boundaryIndices[l] = boundaryLinks.size();
+        boundaryLinks.add(link);
+      }
+    }
+    vehiclesOnInternalLinks = new int[networkLinks.size()];
+    transit = new LinkTransit(intersectionIds, boundaryLinks, routeSelector);
+
+    for (int w = 0; w < workers.size(); w++) {
+      sendLinks(workers.get(w), w);
+    }
+  }
+
+  public List<String> getIntersectionIds() {
+    checkConnected();
+    return intersectionIds;
+  }
+
+  public List<Link> getLinks() {
+    checkConnected();
+    return networkLinks;
+  }
+
+  // The vehicle is sent to its worker with the next step
+  public void addVehicle(String intersectionId, String vehicleId, Movement movement) {
+    checkConnected();
+    Objects.requireNonNull(vehicleId, "vehicleId cannot be null");
+    Objects.requireNonNull(movement, "movement cannot be null");
+
+    pending.add(new Arrival(transit.indexOf(intersectionId), vehicleId, movement));
+  }
+
+  // When a worker fails, the replies of all others are still read and every worker is shut down,
+  // so no connection is left mid-step; the coordinator cannot be used afterwards
+  public NetworkStepResult step() throws IOException {
+    checkConnected();
+
+    stepCount++;
+    List<List<Arrival>> arrivals = new ArrayList<>();
+    for (int w = 0; w < workers.size(); w++) {
+      arrivals.add(new ArrayList<>());
+    }
+    for (Arrival arrival : pending) {
+      arrivals.get(owners[arrival.intersection()]).add(arrival);
+    }
+    pending.clear();
+
+    List<List<Arrival>> delivered = new ArrayList<>(transit.links().size());
+    for (int l = 0; l < transit.links().size(); l++) {
+      List<Arrival> onLink = new ArrayList<>();
+      transit.deliver(
+          stepCount,
+          l,
+          (intersection, vehicleId, movement) ->
+              onLink.add(new Arrival(intersection, vehicleId, movement)));
+      delivered.add(onLink);
+    }
+
+    int[] blockedExits = new int[intersectionIds.size()];
+    for (int i = 0; i < blockedExits.length; i++) {
+      blockedExits[i] = transit.blockedExits(stepCount, i);
+    }
+
+    List<List<String>> departed = new ArrayList<>(intersectionIds.size());
+    List<List<Direction>> exits = new ArrayList<>(intersectionIds.size());
+    for (int i = 0; i < intersectionIds.size(); i++) {
+      departed.add(new ArrayList<>());
+      exits.add(new ArrayList<>());
+    }
+
+    // Every worker gets its step before any result is read, so they all step at once
+    Exception failure = null;
+    boolean[] stepping = new boolean[workers.size()];
+    for (int w = 0; w < workers.size(); w++) {
+      try {
+        sendStep(workers.get(w), w, arrivals.get(w), delivered, blockedExits);
+        stepping[w] = true;
+      } catch (IOException e) {
+        failure = addFailure(failure, e);
+      }
+    }
+    for (int w = 0; w < workers.size(); w++) {
+      if (!stepping[w]) {
+        continue;
+      }
+      try {
+        receiveResults(workers.get(w), w, departed, exits);
+      } catch (IOException | RuntimeException e) {
+        failure = addFailure(failure, e);
+      }
+    }
+    if (failure != null) {
+      abort(failure);
+    }
+
+    List<String> leftNetwork = new ArrayList<>();
+    for (int i = 0; i < intersectionIds.size(); i++) {
+      List<String> left = departed.get(i);
+      for (int v = 0; v < left.size(); v++) {
+        Direction exit = exits.get(i).get(v);
+        if (transit.hasLink(i, exit)) {
+          transit.handOff(stepCount, i, left.get(v), exit);
+        } else {
+          leftNetwork.add(left.get(v));
+        }
+      }
+    }
+
+    Map<String, Integer> vehiclesOnLinks = new LinkedHashMap<>();
+    for (int l = 0; l < networkLinks.size(); l++) {
+      int boundary = boundaryIndices[l];
+      vehiclesOnLinks.put(
+          networkLinks.get(l).id(),
+          boundary == INTERNAL ? vehiclesOnInternalLinks[l] : transit.vehiclesOnLink(boundary));
+    }
+
+    return new NetworkStepResult(stepCount, Map.of(), leftNetwork, vehiclesOnLinks);
+  }
+
+  @Override
+  public void close() throws IOException {
+    IOException failure = null;
+    for (Worker worker : workers) {
+      try {
+        shutDown(worker);
+      } catch (IOException e) {
+        failure = failure == null ? e : failure;
+      }
+    }
+    workers.clear();
+    server.close();
+
+    if (failure != null) {
+      throw failure;
+    }
+  }
+
+  private static Exception addFailure(Exception failure, Exception e) {
+    if (failure == null) {
+      return e;
+    }
+    failure.addSuppressed(e);
+    return failure;
+  }
+
+  private void abort(Exception failure) throws IOException {
+    failed = true;
+    for (Worker worker : workers) {
+      try {
+        shutDown(worker);
+      } catch (IOException e) {
+        // A failed worker may already have closed its connection
+        failure.addSuppressed(e);
+      }
+    }
+    workers.clear();
+
+    if (failure instanceof IOException e) {
+      throw e;
+    }
+    throw (RuntimeException) failure;
+  }
+
+  private static void shutDown(Worker worker) throws IOException {
+    try {
+      worker.out().writeByte(RemoteProtocol.SHUTDOWN);
+      worker.out().flush();
+    } finally {
+      worker.socket().close();
+    }
+  }
+
+  private Worker accept() throws IOException {
+    Socket socket = server.accept();
+    socket.setTcpNoDelay(true);
+    DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+    DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+
+    if (in.readInt() != RemoteProtocol.MAGIC) {
+      socket.close();
+      throw new IOException("Unexpected protocol header from " + socket.getRemoteSocketAddress());
+    }
+
+    int count = RemoteProtocol.readVarint(in);
+    List<String> ids = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      ids.add(in.readUTF());
+    }
+    return new Worker(socket, in, out, List.copyOf(ids), new ArrayList<>(), new ArrayList<>());
+  }
+
+  // Sends the links ending at the worker's intersections and remembers which of them are internal
+  // and which carry vehicles from other workers
+  private void sendLinks(Worker worker, int index) throws IOException {
+    List<Link> table = new ArrayList<>();
+    List<Boolean> boundary = new ArrayList<>();
+    for (int l = 0; l < networkLinks.size(); l++) {
+      Link link = networkLinks.get(l);
+      if (owners[transit.indexOf(link.to())] != index) {
+        continue;
+      }
+
+      table.add(link);
+      boundary.add(boundaryIndices[l] != INTERNAL);
+      if (boundaryIndices[l] == INTERNAL) {
+        worker.internalLinks().add(l);
+      } else {
+        worker.incomingLinks().add(boundaryIndices[l]);
+      }
+    }
+
+    DataOutputStream out = worker.out();
+    RemoteProtocol.writeVarint(out, table.size());
+    for (int t = 0; t < table.size(); t++) {
+      RemoteProtocol.writeLink(out, table.get(t));
+      out.writeBoolean(boundary.get(t));
+    }
+    out.flush();
+  }
+
+  private void sendStep(
+      Worker worker,
+      int index,
+      List<Arrival> arrivals,
+      List<List<Arrival>> delivered,
+      int[] blockedExits)
+      throws IOException {
+    DataOutputStream out = worker.out();
+    out.writeByte(RemoteProtocol.STEP);
+    RemoteProtocol.writeVarint(out, arrivals.size());
+    for (Arrival arrival : arrivals) {
+      RemoteProtocol.writeVarint(out, localIndices[arrival.intersection()]);
+      out.writeUTF(arrival.vehicleId());
+      out.writeByte(arrival.movement().ordinal());
+    }
+    for (int link : worker.incomingLinks()) {
+      List<Arrival> onLink = delivered.get(link);
+      RemoteProtocol.writeVarint(out, onLink.size());
+      for (Arrival arrival : onLink) {
+        out.writeUTF(arrival.vehicleId());
+        out.writeByte(arrival.movement().ordinal());
+      }
+    }
+    for (int i = 0; i < blockedExits.length; i++) {
+      if (owners[i] == index) {
+        out.writeByte(blockedExits[i]);
+      }
+    }
+    out.flush();
+  }
+
+  private void receiveResults(
+      Worker worker, int index, List<List<String>> departed, List<List<Direction>> exits)
+      throws IOException {
+    DataInputStream in = worker.in();
+    byte status = in.readByte();
+    if (status == RemoteProtocol.FAILURE) {
+      throw new IllegalStateException(
+          "Worker owning " + worker.intersectionIds() + " failed: " + in.readUTF());
+    }
+    if (status != RemoteProtocol.OK) {
+      throw new IOException("Unknown status: " + status);
+    }
+
+    // Worker IDs are sorted, so they are visited in the order the worker wrote them
+    for (int i = 0; i < intersectionIds.size(); i++) {
+      if (owners[i] != index) {
+        continue;
+      }
+
+      int count = RemoteProtocol.readVarint(in);
+      for (int v = 0; v < count; v++) {
+        departed.get(i).add(in.readUTF());
+        exits.get(i).add(DIRECTIONS[in.readUnsignedByte()]);
+      }
+    }
+    for (int link : worker.internalLinks()) {
+      vehiclesOnInternalLinks[link] = RemoteProtocol.readVarint(in);
+    }
+  }
+
+  private void checkConnected() {
+    if (failed) {
+      throw new IllegalStateException("Cannot use coordinator after a worker has failed");
+    }
+    if (transit == null) {
+      throw new IllegalStateException("Cannot use coordinator before workers have connected");
+    }
+  }
+
+  // internalLinks and incomingLinks are filled in once all workers have connected; both hold
+  // indices in link ID order, of links and of boundary links respectively
+  private record Worker(
+      Socket socket,
+      DataInputStream in,
+      DataOutputStream out,
+      List<String> intersectionIds,
+      List<Integer> internalLinks,
+      List<Integer> incomingLinks) {}
+
+  private record Arrival(int intersection, String vehicleId, Movement movement) {}
+}
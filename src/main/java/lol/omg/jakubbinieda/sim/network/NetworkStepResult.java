@@ -0,0 +1,11 @@
+package lol.omg.jakubbinieda.sim.network;
+
+import java.util.List;
+import java.util.Map;
+import lol.omg.jakubbinieda.sim.engine.StepResult;
+
+public record NetworkStepResult(
+    int step,
+    Map<String, StepResult> intersections,
+    List<String> leftNetwork,
+    Map<String, Integer> vehiclesOnLinks) {}
@@ -0,0 +1,214 @@
+package lol.omg.jakubbinieda.sim.network;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import lol.omg.jakubbinieda.sim.engine.Intersection;
+import lol.omg.jakubbinieda.sim.engine.StepBuffer;
+import lol.omg.jakubbinieda.sim.model.Direction;
+import lol.omg.jakubbinieda.sim.model.Movement;
+
+// Owns a part of a network's intersections and the links between them, and steps them whenever
+// the coordinator asks to. Only vehicles crossing to or from other workers travel over the wire.
+// Vehicles on internal links are routed with this worker's RouteSelector, which should match the
+// coordinator's.
+public class NetworkWorker {
+  private static final Direction[] DIRECTIONS = Direction.values();
+
+  private final List<String> intersectionIds;
+  private final Intersection[] intersections;
+  private final StepBuffer[] buffers;
+  private final RouteSelector routeSelector;
+
+  // Set up from the coordinator's link table. deliveryOrder holds the index of an internal link in
+  // transit, or the complement (~slot) of an incoming boundary link, in link ID order.
+  private LinkTransit transit;
+  private int[] deliveryOrder;
+  private int[] boundaryTargets;
+  private int stepCount;
+
+  public NetworkWorker(Map<String, Intersection> intersections) {
+    this(intersections, StraightRouteSelector.getInstance());
+  }
+
+  public NetworkWorker(Map<String, Intersection> intersections, RouteSelector routeSelector) {
+    Objects.requireNonNull(intersections, "intersections cannot be null");
+    this.routeSelector = Objects.requireNonNull(routeSelector, "routeSelector cannot be null");
+    if (intersections.isEmpty()) {
+      throw new IllegalArgumentException("Worker must own at least one intersection");
+    }
+
+    Map<String, Intersection> sorted = new TreeMap<>(intersections);
+    this.intersectionIds = List.copyOf(sorted.keySet());
+    this.intersections = new Intersection[sorted.size()];
+    this.buffers = new StepBuffer[sorted.size()];
+    for (int i = 0; i < intersectionIds.size(); i++) {
+      String id = intersectionIds.get(i);
+      this.intersections[i] = Objects.requireNonNull(sorted.get(id), "intersection cannot be null");
+      this.buffers[i] = new StepBuffer();
+    }
+  }
+
+  // Serves steps until the coordinator shuts the worker down
+  public void run(String host, int port) throws IOException {
+    Objects.requireNonNull(host, "host cannot be null");
+
+    try (Socket socket = new Socket(host, port)) {
+      socket.setTcpNoDelay(true);
+      DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+      DataOutputStream out =
+          new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+
+      out.writeInt(RemoteProtocol.MAGIC);
+      RemoteProtocol.writeVarint(out, intersectionIds.size());
+      for (String id : intersectionIds) {
+        out.writeUTF(id);
+      }
+      out.flush();
+      readLinks(in);
+
+      while (true) {
+        byte command = in.readByte();
+        if (command == RemoteProtocol.SHUTDOWN) {
+          return;
+        }
+        if (command != RemoteProtocol.STEP) {
+          throw new IOException("Unknown command: " + command);
+        }
+
+        step(in, out);
+        out.flush();
+      }
+    }
+  }
+
+  private void readLinks(DataInputStream in) throws IOException {
+    int count = RemoteProtocol.readVarint(in);
+    List<Link> internalLinks = new ArrayList<>();
+    List<Link> boundaryLinks = new ArrayList<>();
+    deliveryOrder = new int[count];
+    for (int l = 0; l < count; l++) {
+      Link link = RemoteProtocol.readLink(in);
+      if (in.readBoolean()) {
+        deliveryOrder[l] = ~boundaryLinks.size();
+        boundaryLinks.add(link);
+      } else {
+        deliveryOrder[l] = internalLinks.size();
+        internalLinks.add(link);
+      }
+    }
+
+    transit = new LinkTransit(intersectionIds, internalLinks, routeSelector);
+    boundaryTargets = new int[boundaryLinks.size()];
+    for (int b = 0; b < boundaryTargets.length; b++) {
+      boundaryTargets[b] = transit.indexOf(boundaryLinks.get(b).to());
+    }
+  }
+
+  private void step(DataInputStream in, DataOutputStream out) throws IOException {
+    int count = RemoteProtocol.readVarint(in);
+    int[] targets = new int[count];
+    String[] vehicleIds = new String[count];
+    Movement[] movements = new Movement[count];
+    for (int a = 0; a < count; a++) {
+      targets[a] = RemoteProtocol.readVarint(in);
+      vehicleIds[a] = in.readUTF();
+      movements[a] = Movement.fromOrdinal(in.readUnsignedByte());
+    }
+    String[][] boundaryIds = new String[boundaryTargets.length][];
+    Movement[][] boundaryMovements = new Movement[boundaryTargets.length][];
+    for (int b = 0; b < boundaryTargets.length; b++) {
+      int arrivals = RemoteProtocol.readVarint(in);
+      boundaryIds[b] = new String[arrivals];
+      boundaryMovements[b] = new Movement[arrivals];
+      for (int a = 0; a < arrivals; a++) {
+        boundaryIds[b][a] = in.readUTF();
+        boundaryMovements[b][a] = Movement.fromOrdinal(in.readUnsignedByte());
+      }
+    }
+    int[] blockedExits = new int[intersections.length];
+    for (int i = 0; i < intersections.length; i++) {
+      blockedExits[i] = in.readUnsignedByte();
+    }
+
+    try {
+      stepCount++;
+      for (int a = 0; a < count; a++) {
+        intersections[targets[a]].addVehicle(vehicleIds[a], movements[a]);
+      }
+      // Same order as Network.step(): every link in ID order, wherever its vehicles come from
+      for (int delivery : deliveryOrder) {
+        if (delivery >= 0) {
+          transit.deliver(
+              stepCount,
+              delivery,
+              (intersection, vehicleId, movement) ->
+                  intersections[intersection].addVehicle(vehicleId, movement));
+        } else {
+          int b = ~delivery;
+          for (int a = 0; a < boundaryIds[b].length; a++) {
+            intersections[boundaryTargets[b]].addVehicle(
+                boundaryIds[b][a], boundaryMovements[b][a]);
+          }
+        }
+      }
+
+      for (int i = 0; i < intersections.length; i++) {
+        int blocked = blockedExits[i] | transit.blockedExits(stepCount, i);
+        for (Direction exit : DIRECTIONS) {
+          intersections[i].setExitBlocked(exit, (blocked & (1 << exit.ordinal())) != 0);
+        }
+
+        StepBuffer buffer = buffers[i];
+        intersections[i].step(buffer);
+        for (int v = 0; v < buffer.getLeftCount(); v++) {
+          Direction exit = buffer.getLeftMovement(v).to();
+          if (transit.hasLink(i, exit)) {
+            transit.handOff(stepCount, i, buffer.getLeftVehicleId(v), exit);
+          }
+        }
+      }
+    } catch (RuntimeException e) {
+      out.writeByte(RemoteProtocol.FAILURE);
+      out.writeUTF(String.valueOf(e.getMessage()));
+      out.flush();
+      throw e;
+    }
+
+    out.writeByte(RemoteProtocol.OK);
+    for (int i = 0; i < buffers.length; i++) {
+      writeDepartures(out, i);
+    }
+    for (int l = 0; l < transit.links().size(); l++) {
+      RemoteProtocol.writeVarint(out, transit.vehiclesOnLink(l));
+    }
+  }
+
+  // Vehicles that left the intersection for another worker or the edge of the network
+  private void writeDepartures(DataOutputStream out, int intersection) throws IOException {
+    StepBuffer buffer = buffers[intersection];
+    int departures = 0;
+    for (int v = 0; v < buffer.getLeftCount(); v++) {
+      if (!transit.hasLink(intersection, buffer.getLeftMovement(v).to())) {
+        departures++;
+      }
+    }
+
+    RemoteProtocol.writeVarint(out, departures);
+    for (int v = 0; v < buffer.getLeftCount(); v++) {
+      Direction exit = buffer.getLeftMovement(v).to();
+      if (!transit.hasLink(intersection, exit)) {
+        out.writeUTF(buffer.getLeftVehicleId(v));
+        out.writeByte(exit.ordinal());
+      }
+    }
+  }
+}
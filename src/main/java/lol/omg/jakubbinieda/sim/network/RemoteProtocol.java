@@ -0,0 +1,74 @@
+package lol.omg.jakubbinieda.sim.network;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import lol.omg.jakubbinieda.sim.model.Direction;
+
+// Wire format between NetworkCoordinator and NetworkWorker. Intersections are referred to by their
+// index in the worker's sorted IDs and links by their index in the coordinator's link table for
+// the worker; counts are varints.
+//
+//   worker:      MAGIC, intersection count, intersection IDs
+//   coordinator: link count, (link, boundary flag)... for every link ending at one of the worker's
+//                intersections, in link ID order; boundary links start at another worker's
+//   coordinator: STEP, arrival count, (intersection, vehicle ID, movement ordinal)..., then per
+//                incoming boundary link: arrival count, (vehicle ID, movement ordinal)..., then
+//                blocked boundary exit mask per intersection; or SHUTDOWN
+//   worker:      OK, per intersection: count, (vehicle ID, exit ordinal)... of the vehicles
+//                that left it other than over an internal link, then vehicles on every internal
+//                link; or FAILURE, message
+final class RemoteProtocol {
+  static final int MAGIC = 0x544c5333;
+
+  static final byte STEP = 1;
+  static final byte SHUTDOWN = 2;
+
+  static final byte OK = 1;
+  static final byte FAILURE = 2;
+
+  private static final Direction[] DIRECTIONS = Direction.values();
+
+  private RemoteProtocol() {}
+
+  static void writeLink(DataOutputStream out, Link link) throws IOException {
+    out.writeUTF(link.id());
+    out.writeUTF(link.from());
+    out.writeByte(link.exit().ordinal());
+    out.writeUTF(link.to());
+    out.writeByte(link.approach().ordinal());
+    writeVarint(out, link.travelTime());
+    writeVarint(out, link.capacity());
+  }
+
+  static Link readLink(DataInputStream in) throws IOException {
+    return new Link(
+        in.readUTF(),
+        in.readUTF(),
+        DIRECTIONS[in.readUnsignedByte()],
+        in.readUTF(),
+        DIRECTIONS[in.readUnsignedByte()],
+        readVarint(in),
+        readVarint(in));
+  }
+
+  static void writeVarint(DataOutputStream out, int value) throws IOException {
+    while ((value & ~0x7f) != 0) {
+      out.writeByte((value & 0x7f) | 0x80);
+      value >>>= 7;
+    }
+    out.writeByte(value);
+  }
+
+  static int readVarint(DataInputStream in) throws IOException {
+    int value = 0;
+    for (int shift = 0; shift < Integer.SIZE; shift += 7) {
+      byte b = in.readByte();
+      value |= (b & 0x7f) << shift;
+      if (b >= 0) {
+        return value;
+      }
+    }
+    throw new IOException("Varint is longer than 32 bits");
+  }
+}
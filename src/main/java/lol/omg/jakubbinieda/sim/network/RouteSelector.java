@@ -0,0 +1,9 @@
+package lol.omg.jakubbinieda.sim.network;
+
+import lol.omg.jakubbinieda.sim.model.Direction;
+import lol.omg.jakubbinieda.sim.model.Movement;
+
+public interface RouteSelector {
+  // Movement of a vehicle arriving at the intersection over a link ending at the given approach
+  Movement selectMovement(String vehicleId, String intersectionId, Direction approach);
+}
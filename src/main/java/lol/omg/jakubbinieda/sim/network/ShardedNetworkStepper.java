@@ -0,0 +1,161 @@
+package lol.omg.jakubbinieda.sim.network;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Each shard always runs on the same worker thread. Intersections only reach each other through
+// their links, so results do not depend on the partition.
+public class ShardedNetworkStepper implements AutoCloseable {
+  // Weight of a new sample in the step cost average, as a shift
+  private static final int COST_SMOOTHING = 3;
+
+  private final Network network;
+  private final int rebalanceInterval;
+  private final ExecutorService[] workers;
+  private final long[] costs;
+
+  private int[][] shards;
+  private int stepsSinceRebalance;
+  private boolean closed;
+
+  public ShardedNetworkStepper(Network network, int shards, int rebalanceInterval) {
+    this.network = Objects.requireNonNull(network, "network cannot be null");
+    if (shards < 1) {
+      throw new IllegalArgumentException("shards must be positive");
+    }
+    if (rebalanceInterval < 1) {
+      throw new IllegalArgumentException("rebalanceInterval must be positive");
+    }
+
+    this.rebalanceInterval = rebalanceInterval;
+    this.costs = new long[network.getIntersectionIds().size()];
+    Arrays.fill(costs, 1);
+
+    this.workers = new ExecutorService[Math.min(shards, costs.length)];
+    for (int w = 0; w < workers.length; w++) {
+      workers[w] = Executors.newSingleThreadExecutor();
+    }
+
+    rebalance();
+  }
+
+  public NetworkStepResult step() {
+    if (closed) {
+      throw new IllegalStateException("Cannot step when stepper is closed");
+    }
+
+    network.beginStep();
+    List<Future<?>> pending = new ArrayList<>(shards.length);
+    for (int s = 0; s < shards.length; s++) {
+      int[] members = shards[s];
+      pending.add(workers[s].submit(() -> stepShard(members)));
+    }
+    awaitAll(pending);
+    NetworkStepResult result = network.finishStep();
+
+    if (++stepsSinceRebalance == rebalanceInterval) {
+      rebalance();
+    }
+    return result;
+  }
+
+  // Intersection IDs of every shard
+  public List<List<String>> getShards() {
+    List<String> ids = network.getIntersectionIds();
+    List<List<String>> result = new ArrayList<>(shards.length);
+    for (int[] members : shards) {
+      List<String> shard = new ArrayList<>(members.length);
+      for (int member : members) {
+        shard.add(ids.get(member));
+      }
+      result.add(List.copyOf(shard));
+    }
+    return List.copyOf(result);
+  }
+
+  @Override
+  public void close() {
+    closed = true;
+    for (ExecutorService worker : workers) {
+      worker.close();
+    }
+  }
+
+  private void stepShard(int[] members) {
+    for (int member : members) {
+      long start = System.nanoTime();
+      network.stepIntersection(member);
+      long sample = System.nanoTime() - start;
+      costs[member] += (sample - costs[member]) >> COST_SMOOTHING;
+    }
+  }
+
+  private void rebalance() {
+    stepsSinceRebalance = 0;
+
+    int[] assignment =
+        GraphPartitioner.getInstance()
+            .partition(network.getIntersectionIds(), network.getLinks(), costs, workers.length);
+
+    int[] sizes = new int[workers.length];
+    for (int shard : assignment) {
+      sizes[shard]++;
+    }
+    int[][] result = new int[workers.length][];
+    for (int s = 0; s < workers.length; s++) {
+      result[s] = new int[sizes[s]];
+      sizes[s] = 0;
+    }
+    for (int i = 0; i < assignment.length; i++) {
+      int shard = assignment[i];
+      result[shard][sizes[shard]++] = i;
+    }
+    shards = result;
+  }
+
+  // Waits for every shard even after one has failed, so none is still touching the network when
+  // the failure is thrown; later failures are added to the first as suppressed
+  private static void awaitAll(List<Future<?>> pending) {
+    Throwable failure = null;
+    boolean interrupted = false;
+    for (Future<?> future : pending) {
+      while (true) {
+        try {
+          future.get();
+          break;
+        } catch (InterruptedException e) {
+          interrupted = true;
+        } catch (ExecutionException e) {
+          if (failure == null) {
+            failure = e.getCause();
+          } else {
+            failure.addSuppressed(e.getCause());
+          }
+          break;
+        }
+      }
+    }
+
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+    if (failure instanceof RuntimeException runtime) {
+      throw runtime;
+    }
+    if (failure instanceof Error error) {
+      throw error;
+    }
+    if (failure != null) {
+      throw new IllegalStateException(failure);
+    }
+    if (interrupted) {
+      throw new IllegalStateException("Interrupted while stepping network");
+    }
+  }
+}
@@ -0,0 +1,17 @@
+package lol.omg.jakubbinieda.sim.network;
+
+import lol.omg.jakubbinieda.sim.model.Direction;
+import lol.omg.jakubbinieda.sim.model.Movement;
+
+public class StraightRouteSelector implements RouteSelector {
+  public static final StraightRouteSelector INSTANCE = new StraightRouteSelector();
+
+  public static StraightRouteSelector getInstance() {
+    return INSTANCE;
+  }
+
+  @Override
+  public Movement selectMovement(String vehicleId, String intersectionId, Direction approach) {
+    return new Movement(approach, approach.opposite());
+  }
+}
@@ -3,12 +3,29 @@ package lol.omg.jakubbinieda.sim;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
 import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import lol.omg.jakubbinieda.sim.controller.BasicController;
+import lol.omg.jakubbinieda.sim.engine.loadbalancer.RandomBalancer;
+import lol.omg.jakubbinieda.sim.factories.SimpleNetworkFactory;
+import lol.omg.jakubbinieda.sim.io.BinaryParser;
+import lol.omg.jakubbinieda.sim.io.JsonParser;
+import lol.omg.jakubbinieda.sim.model.Direction;
+import lol.omg.jakubbinieda.sim.model.Movement;
+import lol.omg.jakubbinieda.sim.network.Network;
+import lol.omg.jakubbinieda.sim.network.NetworkCoordinator;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -18,6 +35,19 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 
 public class RunnerSmokeTest {
+  private static final String DUPLICATE_VEHICLE =
+      """
+      {
+        "commands": [
+          {"type": "addVehicle", "vehicleId": "a", "startRoad": "south", "endRoad": "north"},
+          {"type": "step"},
+          {"type": "step"},
+          {"type": "addVehicle", "vehicleId": "a", "startRoad": "south", "endRoad": "north"},
+          {"type": "step"}
+        ]
+      }
+      """;
+
   private final PrintStream originalOut = System.out;
   private final PrintStream originalErr = System.err;
   @TempDir Path tempDir;
@@ -65,6 +95,30 @@ public class RunnerSmokeTest {
     assertTrue(capturedErr.toString().contains("Error reading input"));
   }
 
+  @Test
+  @DisplayName("Invalid command after valid ones prints error")
+  void Invalid_command_after_valid_ones_prints_error() throws Exception {
+    Path input = tempDir.resolve("input.json");
+    Files.writeString(input, "{\"commands\": [{\"type\": \"step\"}, {\"type\": \"explode\"}]}");
+    Path output = tempDir.resolve("output.json");
+
+    Runner.main(new String[] {input.toString(), output.toString()});
+    assertTrue(capturedErr.toString().contains("Error reading input"));
+    assertTrue(Files.notExists(output));
+  }
+
+  @Test
+  @DisplayName("Duplicate vehicle ID prints error and leaves no output")
+  void Duplicate_vehicle_ID_prints_error_and_leaves_no_output() throws Exception {
+    Path input = tempDir.resolve("input.json");
+    Files.writeString(input, DUPLICATE_VEHICLE);
+    Path output = tempDir.resolve("output.json");
+
+    Runner.main(new String[] {input.toString(), output.toString()});
+    assertTrue(capturedErr.toString().contains("Error running simulation"));
+    assertTrue(Files.notExists(output));
+  }
+
   @Test
   @DisplayName("Empty commands produces empty output")
   void Empty_commands_produces_empty_output() throws Exception {
@@ -185,6 +239,201 @@ public class RunnerSmokeTest {
     assertTrue(content.contains("v1"));
   }
 
+  @Test
+  @DisplayName("Converted scenario gives the same results as its JSON input")
+  void Converted_scenario_gives_the_same_results_as_its_JSON_input() throws Exception {
+    Path input = tempDir.resolve("input.json");
+    Files.writeString(
+        input,
+        """
+        {
+          "commands": [
+            {"type": "addVehicle", "vehicleId": "v1", "startRoad": "south", "endRoad": "north"},
+            {"type": "addVehicle", "vehicleId": "v2", "startRoad": "west", "endRoad": "east"},
+            {"type": "step"},
+            {"type": "step"},
+            {"type": "addVehicle", "vehicleId": "v3", "startRoad": "east", "endRoad": "west"},
+            {"type": "step"},
+            {"type": "step"},
+            {"type": "step"},
+            {"type": "step"},
+            {"type": "step"},
+            {"type": "step"},
+            {"type": "step"},
+            {"type": "step"}
+          ]
+        }
+        """);
+    Path scenario = tempDir.resolve("scenario.tls");
+    Path jsonOutput = tempDir.resolve("output.json");
+    Path binaryOutput = tempDir.resolve("output.bin");
+    Path decodedOutput = tempDir.resolve("decoded.json");
+
+    Runner.main(new String[] {"--convert", input.toString(), scenario.toString()});
+    Runner.main(new String[] {input.toString(), jsonOutput.toString()});
+    Runner.main(new String[] {scenario.toString(), binaryOutput.toString()});
+    JsonParser.getInstance()
+        .writeOutput(decodedOutput, BinaryParser.getInstance().readResults(binaryOutput));
+
+    assertEquals("", capturedErr.toString());
+    assertEquals(Files.readString(jsonOutput), Files.readString(decodedOutput));
+    assertTrue(Files.readString(jsonOutput).contains("v3"));
+  }
+
+  @Test
+  @DisplayName("Converting a missing file prints error")
+  void Converting_a_missing_file_prints_error() {
+    Path scenario = tempDir.resolve("scenario.tls");
+    Runner.main(new String[] {"--convert", "/no/such/file.json", scenario.toString()});
+    assertTrue(capturedErr.toString().contains("Error converting input"));
+  }
+
+  @Test
+  @DisplayName("Pipe mode writes a line for every step")
+  void Pipe_mode_writes_a_line_for_every_step() {
+    InputStream originalIn = System.in;
+    System.setIn(
+        new ByteArrayInputStream(
+            """
+            {"type": "addVehicle", "vehicleId": "v1", "startRoad": "south", "endRoad": "north"}
+            {"type": "step"}
+            {"type": "step"}
+            {"type": "step"}
+            {"type": "step"}
+            {"type": "step"}
+            """
+                .getBytes(StandardCharsets.UTF_8)));
+    try {
+      Runner.main(new String[] {"--ndjson"});
+    } finally {
+      System.setIn(originalIn);
+    }
+
+    List<String> lines = capturedOut.toString(StandardCharsets.UTF_8).lines().toList();
+    assertEquals(5, lines.size());
+    assertEquals(1, lines.stream().filter(line -> line.contains("\"v1\"")).count());
+    assertEquals("", capturedErr.toString());
+  }
+
+  @Test
+  @DisplayName("Pipe mode prints error on an invalid command")
+  void Pipe_mode_prints_error_on_an_invalid_command() {
+    InputStream originalIn = System.in;
+    System.setIn(
+        new ByteArrayInputStream(
+            "{\"type\": \"step\"}\n{\"type\": \"explode\"}\n".getBytes(StandardCharsets.UTF_8)));
+    try {
+      Runner.main(new String[] {"--ndjson"});
+    } finally {
+      System.setIn(originalIn);
+    }
+
+    assertEquals(1, capturedOut.toString(StandardCharsets.UTF_8).lines().count());
+    assertTrue(capturedErr.toString().contains("Error reading input"));
+  }
+
+  @Test
+  @DisplayName("Pipelined run gives the same output")
+  void Pipelined_run_gives_the_same_output() throws Exception {
+    StringBuilder commands = new StringBuilder("{\"commands\": [");
+    for (int i = 0; i < 3000; i++) {
+      if (i % 3 == 0) {
+        String road = i % 2 == 0 ? "south" : "west";
+        commands.append(
+            "{\"type\": \"addVehicle\", \"vehicleId\": \"v%d\", \"startRoad\": \"%s\", "
+                .formatted(i, road));
+        commands.append("\"endRoad\": \"%s\"},".formatted(i % 2 == 0 ? "north" : "east"));
+      } else {
+        commands.append("{\"type\": \"step\"},");
+      }
+    }
+    commands.append("{\"type\": \"step\"}]}");
+    Path input = tempDir.resolve("input.json");
+    Files.writeString(input, commands);
+    Path sequential = tempDir.resolve("sequential.json");
+    Path pipelined = tempDir.resolve("pipelined.json");
+
+    Runner.main(new String[] {input.toString(), sequential.toString()});
+    Runner.main(new String[] {"--pipelined", input.toString(), pipelined.toString()});
+
+    assertEquals("", capturedErr.toString());
+    assertEquals(Files.readString(sequential), Files.readString(pipelined));
+  }
+
+  @Test
+  @DisplayName("Pipelined run with an invalid command leaves no output")
+  void Pipelined_run_with_an_invalid_command_leaves_no_output() throws Exception {
+    Path input = tempDir.resolve("input.json");
+    Files.writeString(input, "{\"commands\": [{\"type\": \"step\"}, {\"type\": \"explode\"}]}");
+    Path output = tempDir.resolve("output.json");
+
+    Runner.main(new String[] {"--pipelined", input.toString(), output.toString()});
+    assertTrue(capturedErr.toString().contains("Error reading input"));
+    assertTrue(Files.notExists(output));
+  }
+
+  @Test
+  @DisplayName("Pipelined run with a duplicate vehicle ID leaves no output")
+  void Pipelined_run_with_a_duplicate_vehicle_ID_leaves_no_output() throws Exception {
+    Path input = tempDir.resolve("input.json");
+    Files.writeString(input, DUPLICATE_VEHICLE);
+    Path output = tempDir.resolve("output.json");
+
+    Runner.main(new String[] {"--pipelined", input.toString(), output.toString()});
+    assertTrue(capturedErr.toString().contains("Error running simulation"));
+    assertTrue(Files.notExists(output));
+  }
+
+  @Test
+  @DisplayName("Worker with an unknown intersection prints error")
+  void Worker_with_an_unknown_intersection_prints_error() {
+    Runner.main(new String[] {"--worker", "localhost", "1", "1", "1", "r5c5"});
+    assertTrue(capturedErr.toString().contains("Error running worker"));
+  }
+
+  @Test
+  @DisplayName("Worker process steps a grid for a coordinator over localhost")
+  void Worker_process_steps_a_grid_for_a_coordinator_over_localhost() throws Exception {
+    Network grid =
+        SimpleNetworkFactory.getInstance()
+            .supplyGrid(1, 2, 2, () -> new BasicController(3, 5), RandomBalancer::new);
+    String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+
+    Process worker;
+    try (NetworkCoordinator coordinator = new NetworkCoordinator(0, grid.getLinks())) {
+      worker =
+          new ProcessBuilder(
+                  java,
+                  "-cp",
+                  System.getProperty("java.class.path"),
+                  Runner.class.getName(),
+                  "--worker",
+                  "localhost",
+                  String.valueOf(coordinator.getPort()),
+                  "1",
+                  "2")
+              .inheritIO()
+              .start();
+
+      assertTimeoutPreemptively(
+          Duration.ofSeconds(60),
+          () -> {
+            coordinator.awaitWorkers(1);
+            assertEquals(List.of("r0c0", "r0c1"), coordinator.getIntersectionIds());
+
+            coordinator.addVehicle("r0c0", "v1", new Movement(Direction.WEST, Direction.EAST));
+            List<String> left = new ArrayList<>();
+            for (int step = 0; step < 100 && left.isEmpty(); step++) {
+              left.addAll(coordinator.step().leftNetwork());
+            }
+            assertEquals(List.of("v1"), left);
+          });
+    }
+
+    assertTrue(worker.waitFor(30, TimeUnit.SECONDS));
+    assertEquals(0, worker.exitValue());
+  }
+
   @Test
   @DisplayName("Private constructor for pitest ;)")
   void Private_constructor_for_pitest() throws Exception {
@@ -0,0 +1,97 @@
+package lol.omg.jakubbinieda.sim.actor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+import java.util.Map;
+import lol.omg.jakubbinieda.sim.io.commands.StepCommand;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class IntersectionActorSystemTest {
+  @Test
+  @DisplayName("Thousands of actors step independently")
+  public void Thousands_of_actors_step_independently() {
+    IntersectionActorTest.RecordingListener listener =
+        new IntersectionActorTest.RecordingListener();
+    int count = 2_000;
+    int steps = 0;
+    int left = 0;
+
+    try (IntersectionActorSystem system = new IntersectionActorSystem(listener)) {
+      for (int i = 0; i < count; i++) {
+        system.spawn("i" + i, IntersectionActorTest.greenIntersection());
+      }
+      for (int i = 0; i < count; i++) {
+        system.send("i" + i, IntersectionActorTest.add("v" + i));
+        // Vehicles need two steps to leave
+        for (int s = 0; s <= i % 3; s++) {
+          system.send("i" + i, new StepCommand());
+        }
+        steps += i % 3 + 1;
+        left += i % 3 == 0 ? 0 : 1;
+      }
+    }
+
+    assertEquals(steps, listener.results.size());
+    assertEquals(left, listener.results.stream().mapToInt(r -> r.leftIntersection().size()).sum());
+  }
+
+  @Test
+  @DisplayName("Metrics are reported per intersection in ID order")
+  public void Metrics_are_reported_per_intersection_in_ID_order() {
+    IntersectionActorSystem system =
+        new IntersectionActorSystem(new IntersectionActorTest.RecordingListener());
+    system.spawn("b", IntersectionActorTest.greenIntersection());
+    system.spawn("a", IntersectionActorTest.greenIntersection());
+    system.send("b", new StepCommand());
+    system.send("b", new StepCommand());
+    system.close();
+
+    Map<String, ActorMetrics> metrics = system.getMetrics();
+    assertEquals(List.of("a", "b"), List.copyOf(metrics.keySet()));
+    assertEquals(0, metrics.get("a").processedCommands());
+    assertEquals(2, metrics.get("b").processedCommands());
+  }
+
+  @Test
+  @DisplayName("Spawning throws IllegalArgumentException when ID is taken")
+  public void Spawning_throws_IllegalArgumentException_when_ID_is_taken() {
+    try (IntersectionActorSystem system =
+        new IntersectionActorSystem(new IntersectionActorTest.RecordingListener())) {
+      system.spawn("a", IntersectionActorTest.greenIntersection());
+
+      Exception e =
+          assertThrows(
+              IllegalArgumentException.class,
+              () -> system.spawn("a", IntersectionActorTest.greenIntersection()));
+      assertEquals("Intersection with ID a already exists", e.getMessage());
+    }
+  }
+
+  @Test
+  @DisplayName("Sending throws IllegalArgumentException when intersection is unknown")
+  public void Sending_throws_IllegalArgumentException_when_intersection_is_unknown() {
+    try (IntersectionActorSystem system =
+        new IntersectionActorSystem(new IntersectionActorTest.RecordingListener())) {
+      Exception e =
+          assertThrows(IllegalArgumentException.class, () -> system.send("x", new StepCommand()));
+      assertEquals("Unknown intersection: x", e.getMessage());
+    }
+  }
+
+  @Test
+  @DisplayName("Spawning throws IllegalStateException when system is closed")
+  public void Spawning_throws_IllegalStateException_when_system_is_closed() {
+    IntersectionActorSystem system =
+        new IntersectionActorSystem(new IntersectionActorTest.RecordingListener());
+    system.close();
+
+    Exception e =
+        assertThrows(
+            IllegalStateException.class,
+            () -> system.spawn("a", IntersectionActorTest.greenIntersection()));
+    assertEquals("Cannot spawn when system is closed", e.getMessage());
+  }
+}
@@ -0,0 +1,218 @@
+package lol.omg.jakubbinieda.sim.actor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import lol.omg.jakubbinieda.sim.controller.Controller;
+import lol.omg.jakubbinieda.sim.engine.Intersection;
+import lol.omg.jakubbinieda.sim.engine.IntersectionState;
+import lol.omg.jakubbinieda.sim.engine.StepResult;
+import lol.omg.jakubbinieda.sim.engine.loadbalancer.RandomBalancer;
+import lol.omg.jakubbinieda.sim.factories.SimpleIntersectionFactory;
+import lol.omg.jakubbinieda.sim.geometry.IntersectionLayout;
+import lol.omg.jakubbinieda.sim.io.commands.AddVehicleCommand;
+import lol.omg.jakubbinieda.sim.io.commands.Command;
+import lol.omg.jakubbinieda.sim.io.commands.StepCommand;
+import lol.omg.jakubbinieda.sim.model.Direction;
+import lol.omg.jakubbinieda.sim.model.Movement;
+import lol.omg.jakubbinieda.sim.signal.SignalCommand;
+import lol.omg.jakubbinieda.sim.signal.SignalGroup;
+import lol.omg.jakubbinieda.sim.signal.SignalState;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class IntersectionActorTest {
+  // Every signal group is green from the first step
+  static Intersection greenIntersection() {
+    Controller controller =
+        new Controller() {
+          private List<SignalCommand> commands;
+
+          @Override
+          public void initialize(IntersectionLayout layout) {
+            commands = new ArrayList<>();
+            for (SignalGroup group : layout.getSignalGroups()) {
+              commands.add(new SignalCommand(group.id(), SignalState.GREEN));
+            }
+          }
+
+          @Override
+          public List<SignalCommand> decide(IntersectionState state) {
+            return commands;
+          }
+        };
+    return SimpleIntersectionFactory.getInstance().supply(controller, new RandomBalancer());
+  }
+
+  static AddVehicleCommand add(String id) {
+    return new AddVehicleCommand(id, new Movement(Direction.NORTH, Direction.SOUTH));
+  }
+
+  static class RecordingListener implements StepListener {
+    final List<StepResult> results = new CopyOnWriteArrayList<>();
+    final List<String> failures = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void onStep(String intersectionId, StepResult result) {
+      results.add(result);
+    }
+
+    @Override
+    public void onFailure(String intersectionId, Command command, RuntimeException failure) {
+      failures.add(intersectionId + ": " + failure.getMessage());
+    }
+  }
+
+  @Test
+  @DisplayName("Commands are applied in the order they were submitted")
+  public void Commands_are_applied_in_the_order_they_were_submitted() {
+    RecordingListener listener = new RecordingListener();
+    try (IntersectionActor actor = new IntersectionActor("a", greenIntersection(), listener)) {
+      actor.submit(add("v1"));
+      actor.submit(new StepCommand());
+      actor.submit(new StepCommand());
+    }
+
+    assertEquals(2, listener.results.size());
+    assertEquals(List.of("v1"), listener.results.get(1).leftIntersection());
+  }
+
+  @Test
+  @DisplayName("Failed command is reported and the actor keeps going")
+  public void Failed_command_is_reported_and_the_actor_keeps_going() {
+    RecordingListener listener = new RecordingListener();
+    IntersectionActor actor = new IntersectionActor("a", greenIntersection(), listener);
+    actor.submit(add("v1"));
+    actor.submit(add("v1"));
+    actor.submit(new StepCommand());
+    actor.close();
+
+    assertEquals(List.of("a: Vehicle with ID v1 already exists"), listener.failures);
+    assertEquals(1, listener.results.size());
+
+    ActorMetrics metrics = actor.getMetrics();
+    assertEquals(3, metrics.processedCommands());
+    assertEquals(1, metrics.failedCommands());
+    assertEquals(0, metrics.inboxDepth());
+    assertTrue(metrics.maxLatencyNanos() >= metrics.lastLatencyNanos());
+  }
+
+  @Test
+  @DisplayName("Submitting throws IllegalStateException when actor is closed")
+  public void Submitting_throws_IllegalStateException_when_actor_is_closed() {
+    IntersectionActor actor =
+        new IntersectionActor("a", greenIntersection(), new RecordingListener());
+    actor.close();
+
+    Exception e = assertThrows(IllegalStateException.class, () -> actor.submit(new StepCommand()));
+    assertEquals("Cannot submit when actor a is closed", e.getMessage());
+  }
+
+  @Test
+  @DisplayName("Commands racing close are either applied or rejected")
+  public void Commands_racing_close_are_either_applied_or_rejected() throws Exception {
+    for (int round = 0; round < 50; round++) {
+      RecordingListener listener = new RecordingListener();
+      IntersectionActor actor = new IntersectionActor("a", greenIntersection(), listener);
+      AtomicInteger accepted = new AtomicInteger();
+      CountDownLatch start = new CountDownLatch(1);
+
+      List<Thread> submitters = new ArrayList<>();
+      for (int t = 0; t < 4; t++) {
+        submitters.add(
+            Thread.ofPlatform()
+                .start(
+                    () -> {
+                      try {
+                        start.await();
+                        for (int c = 0; c < 100; c++) {
+                          actor.submit(new StepCommand());
+                          accepted.incrementAndGet();
+                        }
+                      } catch (IllegalStateException | InterruptedException e) {
+                        // The actor is closed
+                      }
+                    }));
+      }
+      start.countDown();
+      actor.close();
+      for (Thread submitter : submitters) {
+        submitter.join();
+      }
+
+      assertEquals(accepted.get(), listener.results.size());
+      assertEquals(0, actor.getMetrics().inboxDepth());
+    }
+  }
+
+  @Test
+  @DisplayName("Failing failure listener does not stop the actor")
+  public void Failing_failure_listener_does_not_stop_the_actor() {
+    List<StepResult> results = new CopyOnWriteArrayList<>();
+    StepListener listener =
+        new StepListener() {
+          @Override
+          public void onStep(String intersectionId, StepResult result) {
+            results.add(result);
+          }
+
+          @Override
+          public void onFailure(String intersectionId, Command command, RuntimeException failure) {
+            throw new IllegalStateException("listener is broken");
+          }
+        };
+    IntersectionActor actor = new IntersectionActor("a", greenIntersection(), listener);
+    actor.submit(add("v1"));
+    actor.submit(add("v1"));
+    actor.submit(new StepCommand());
+    actor.close();
+
+    assertEquals(1, results.size());
+    assertEquals(1, actor.getMetrics().failedCommands());
+  }
+
+  @Test
+  @DisplayName("Dead actor rejects commands instead of queueing them")
+  public void Dead_actor_rejects_commands_instead_of_queueing_them() {
+    // An Error is not a command failure, so it ends the actor's thread
+    StepListener listener =
+        (intersectionId, result) -> {
+          throw new Error("listener is broken");
+        };
+    IntersectionActor actor = new IntersectionActor("a", greenIntersection(), listener);
+    actor.submit(new StepCommand());
+
+    assertTimeoutPreemptively(
+        Duration.ofSeconds(10),
+        () -> {
+          while (true) {
+            try {
+              actor.submit(add("v1"));
+            } catch (IllegalStateException e) {
+              assertEquals("Cannot submit when actor a is closed", e.getMessage());
+              break;
+            }
+            Thread.sleep(1);
+          }
+        });
+    assertEquals(0, actor.getMetrics().inboxDepth());
+  }
+
+  @Test
+  @DisplayName("Construction throws NullPointerException when listener is null")
+  public void Construction_throws_NullPointerException_when_listener_is_null() {
+    Exception e =
+        assertThrows(
+            NullPointerException.class,
+            () -> new IntersectionActor("a", greenIntersection(), null));
+    assertEquals("listener cannot be null", e.getMessage());
+  }
+}
@@ -299,6 +299,79 @@ class BasicControllerTest {
     }
   }
 
+  @Nested
+  class NextDecisionStepTest {
+    private BasicController controller;
+
+    @BeforeEach
+    void setup() {
+      controller = new BasicController(2, 5);
+      controller.initialize(twoPhaseLayout());
+    }
+
+    @Test
+    @DisplayName("Throws when not initialized")
+    void Throws_when_not_initialized() {
+      BasicController uninitialized = new BasicController(2, 5);
+      assertThrows(
+          IllegalStateException.class,
+          () -> uninitialized.nextDecisionStep(state(1, waiting(0, 0, 0, 0))));
+    }
+
+    @Test
+    @DisplayName("Next step outside of green")
+    void Next_step_outside_of_green() {
+      controller.decide(state(1, waiting(5, 5, 0, 0)));
+      assertEquals(2, controller.nextDecisionStep(state(1, waiting(5, 5, 0, 0))));
+    }
+
+    @Test
+    @DisplayName("Waits for minGreen")
+    void Waits_for_minGreen() {
+      controller.decide(state(1, waiting(5, 5, 0, 0)));
+      controller.decide(state(2, waiting(5, 5, 0, 0)));
+
+      assertEquals(4, controller.nextDecisionStep(state(2, waiting(0, 0, 10, 10))));
+    }
+
+    @Test
+    @DisplayName("Next step after minGreen with demand elsewhere")
+    void Next_step_after_minGreen_with_demand_elsewhere() {
+      controller.decide(state(1, waiting(5, 5, 0, 0)));
+      controller.decide(state(2, waiting(5, 5, 0, 0)));
+      controller.decide(state(3, waiting(5, 5, 0, 0)));
+
+      assertEquals(4, controller.nextDecisionStep(state(3, waiting(0, 0, 10, 10))));
+      assertEquals(
+          SignalState.YELLOW,
+          stateOf(controller.decide(state(4, waiting(0, 0, 10, 10))), "sg-north"));
+    }
+
+    @Test
+    @DisplayName("Waits for maxGreen without demand elsewhere")
+    void Waits_for_maxGreen_without_demand_elsewhere() {
+      controller.decide(state(1, waiting(5, 5, 0, 0)));
+      controller.decide(state(2, waiting(5, 5, 0, 0)));
+
+      assertEquals(7, controller.nextDecisionStep(state(2, waiting(5, 5, 0, 0))));
+      for (int step = 3; step < 7; step++) {
+        assertTrue(controller.decide(state(step, waiting(5, 5, 0, 0))).isEmpty());
+      }
+      assertFalse(controller.decide(state(7, waiting(5, 5, 0, 0))).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Single phase never needs to decide again")
+    void Single_phase_never_needs_to_decide_again() {
+      BasicController single = new BasicController(1, 3);
+      single.initialize(singlePhaseLayout());
+      single.decide(state(1, Map.of()));
+      single.decide(state(2, Map.of()));
+
+      assertEquals(Integer.MAX_VALUE, single.nextDecisionStep(state(2, Map.of())));
+    }
+  }
+
   @Nested
   class MaxGreenTest {
     private BasicController controller;
@@ -366,6 +439,57 @@ class BasicControllerTest {
     }
   }
 
+  @Nested
+  class QueueTriggersTest {
+    private BasicController controller;
+
+    @BeforeEach
+    void setup() {
+      controller = new BasicController(2, 5);
+      controller.initialize(twoPhaseLayout());
+    }
+
+    @Test
+    @DisplayName("Throws when not initialized")
+    void Throws_when_not_initialized() {
+      BasicController uninitialized = new BasicController(2, 5);
+      assertThrows(
+          IllegalStateException.class,
+          () -> uninitialized.queueTriggers(state(1, waiting(0, 0, 0, 0))));
+    }
+
+    @Test
+    @DisplayName("No triggers outside of green")
+    void No_triggers_outside_of_green() {
+      controller.decide(state(1, waiting(5, 5, 0, 0)));
+      assertTrue(controller.queueTriggers(state(1, waiting(5, 5, 0, 0))).isEmpty());
+    }
+
+    @Test
+    @DisplayName("No triggers with demand elsewhere")
+    void No_triggers_with_demand_elsewhere() {
+      controller.decide(state(1, waiting(5, 5, 0, 0)));
+      controller.decide(state(2, waiting(5, 5, 0, 0)));
+
+      assertTrue(controller.queueTriggers(state(2, waiting(1, 1, 10, 10))).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Triggers on more demand elsewhere or less on the active phase")
+    void Triggers_on_more_demand_elsewhere_or_less_on_the_active_phase() {
+      controller.decide(state(1, waiting(5, 5, 0, 0)));
+      controller.decide(state(2, waiting(5, 5, 0, 0)));
+
+      List<QueueTrigger> triggers = controller.queueTriggers(state(2, waiting(3, 0, 1, 0)));
+      assertEquals(
+          Set.of(
+              QueueTrigger.atMost(Direction.NORTH, 2),
+              QueueTrigger.atLeast(Direction.EAST, 2),
+              QueueTrigger.atLeast(Direction.WEST, 1)),
+          Set.copyOf(triggers));
+    }
+  }
+
   @Nested
   class SinglePhaseTest {
     @Test
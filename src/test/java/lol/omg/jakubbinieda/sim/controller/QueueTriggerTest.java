@@ -0,0 +1,37 @@
+package lol.omg.jakubbinieda.sim.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import lol.omg.jakubbinieda.sim.model.Direction;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class QueueTriggerTest {
+  @Test
+  @DisplayName("At least trigger fires from its count upwards")
+  void At_least_trigger_fires_from_its_count_upwards() {
+    QueueTrigger trigger = QueueTrigger.atLeast(Direction.NORTH, 3);
+    assertFalse(trigger.fires(2));
+    assertTrue(trigger.fires(3));
+    assertTrue(trigger.fires(4));
+  }
+
+  @Test
+  @DisplayName("At most trigger fires from its count downwards")
+  void At_most_trigger_fires_from_its_count_downwards() {
+    QueueTrigger trigger = QueueTrigger.atMost(Direction.NORTH, 3);
+    assertTrue(trigger.fires(2));
+    assertTrue(trigger.fires(3));
+    assertFalse(trigger.fires(4));
+  }
+
+  @Test
+  @DisplayName("Construction throws when road is null")
+  void Construction_throws_when_road_is_null() {
+    Exception e = assertThrows(NullPointerException.class, () -> QueueTrigger.atLeast(null, 1));
+    assertEquals("road cannot be null", e.getMessage());
+  }
+}
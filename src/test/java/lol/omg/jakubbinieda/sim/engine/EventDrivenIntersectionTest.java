@@ -0,0 +1,226 @@
+package lol.omg.jakubbinieda.sim.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import lol.omg.jakubbinieda.sim.controller.BasicController;
+import lol.omg.jakubbinieda.sim.controller.Controller;
+import lol.omg.jakubbinieda.sim.engine.crossing.ConstantCrossingTime;
+import lol.omg.jakubbinieda.sim.engine.crossing.CrossingTimeModel;
+import lol.omg.jakubbinieda.sim.engine.crossing.TurnTypeCrossingTime;
+import lol.omg.jakubbinieda.sim.engine.loadbalancer.LoadBalancer;
+import lol.omg.jakubbinieda.sim.geometry.Lane;
+import lol.omg.jakubbinieda.sim.model.Direction;
+import lol.omg.jakubbinieda.sim.model.Movement;
+import lol.omg.jakubbinieda.sim.model.TurnType;
+import lol.omg.jakubbinieda.sim.signal.SignalCommand;
+import lol.omg.jakubbinieda.sim.signal.SignalState;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+public class EventDrivenIntersectionTest {
+
+  static EventDrivenIntersection createEngine(Controller controller) {
+    return createEngine(controller, new ConstantCrossingTime(1));
+  }
+
+  static EventDrivenIntersection createEngine(
+      Controller controller, CrossingTimeModel crossingTimes) {
+    LoadBalancer loadBalancer = Mockito.mock(LoadBalancer.class);
+    Mockito.when(loadBalancer.selectLane(Mockito.any()))
+        .thenAnswer(inv -> ((List<Lane>) inv.getArgument(0)).getFirst());
+
+    return new EventDrivenIntersection(
+        IntersectionTest.createLayout(),
+        controller,
+        loadBalancer,
+        Intersection.DEFAULT_ARCHIVE_CAPACITY,
+        crossingTimes);
+  }
+
+  static BasicController basicController() {
+    return basicController(12);
+  }
+
+  static BasicController basicController(int maxGreen) {
+    BasicController controller = new BasicController(2, maxGreen);
+    controller.initialize(IntersectionTest.createLayout());
+    return controller;
+  }
+
+  static Movement mv(Direction from, Direction to) {
+    return new Movement(from, to);
+  }
+
+  @Nested
+  class ScheduleArrivalTest {
+    @Test
+    @DisplayName("Scheduling throws IllegalArgumentException when step has passed")
+    void Scheduling_throws_IllegalArgumentException_when_step_has_passed() {
+      EventDrivenIntersection engine = createEngine(basicController());
+      engine.step();
+
+      Exception e =
+          assertThrows(
+              IllegalArgumentException.class,
+              () -> engine.scheduleArrival(1, "v1", mv(Direction.NORTH, Direction.SOUTH)));
+      assertEquals("Cannot schedule arrival at step 1 when current step is 1", e.getMessage());
+    }
+
+    @Test
+    @DisplayName("Scheduling throws IllegalArgumentException when ID is already scheduled")
+    void Scheduling_throws_IllegalArgumentException_when_ID_is_already_scheduled() {
+      EventDrivenIntersection engine = createEngine(basicController());
+      engine.scheduleArrival(10, "v1", mv(Direction.NORTH, Direction.SOUTH));
+
+      Exception e =
+          assertThrows(
+              IllegalArgumentException.class,
+              () -> engine.scheduleArrival(20, "v1", mv(Direction.EAST, Direction.WEST)));
+      assertEquals("Vehicle with ID v1 already exists", e.getMessage());
+    }
+
+    @Test
+    @DisplayName("Scheduling throws IllegalArgumentException when ID has left")
+    void Scheduling_throws_IllegalArgumentException_when_ID_has_left() {
+      EventDrivenIntersection engine = createEngine(basicController());
+      engine.addVehicle("v1", mv(Direction.NORTH, Direction.SOUTH));
+      for (int i = 0; i < 5; i++) {
+        engine.step();
+      }
+
+      assertTrue(engine.getArchive().contains("v1"));
+      assertThrows(
+          IllegalArgumentException.class,
+          () -> engine.addVehicle("v1", mv(Direction.NORTH, Direction.SOUTH)));
+    }
+
+    @Test
+    @DisplayName("Scheduled vehicle arrives at its step")
+    void Scheduled_vehicle_arrives_at_its_step() {
+      EventDrivenIntersection engine = createEngine(basicController());
+      engine.scheduleArrival(30, "v1", mv(Direction.NORTH, Direction.SOUTH));
+
+      StepBuffer buffer = new StepBuffer();
+      int taken = 0;
+      while (taken < 29) {
+        taken += engine.advance(29 - taken, buffer);
+        assertEquals(0, buffer.getLaneCount());
+      }
+
+      engine.step(buffer);
+      assertEquals(30, buffer.getStep());
+      assertEquals(1, buffer.getQueueLength(0));
+    }
+  }
+
+  @Nested
+  class AdvanceTest {
+    @Test
+    @DisplayName("Advance throws IllegalArgumentException when steps is not positive")
+    void Advance_throws_IllegalArgumentException_when_steps_is_not_positive() {
+      EventDrivenIntersection engine = createEngine(basicController());
+      Exception e =
+          assertThrows(IllegalArgumentException.class, () -> engine.advance(0, new StepBuffer()));
+      assertEquals("steps must be positive", e.getMessage());
+    }
+
+    @Test
+    @DisplayName("Every step is evaluated when controller gives no hint")
+    void Every_step_is_evaluated_when_controller_gives_no_hint() {
+      Controller controller = Mockito.mock(Controller.class);
+      Mockito.when(controller.decide(Mockito.any()))
+          .thenReturn(List.of(new SignalCommand("sg-north", SignalState.GREEN)));
+      EventDrivenIntersection engine = createEngine(controller);
+
+      StepBuffer buffer = new StepBuffer();
+      for (int i = 1; i <= 5; i++) {
+        assertEquals(1, engine.advance(10, buffer));
+        assertEquals(i, buffer.getStep());
+      }
+    }
+
+    @Test
+    @DisplayName("Empty intersection is evaluated only when the controller wakes up")
+    void Empty_intersection_is_evaluated_only_when_the_controller_wakes_up() {
+      EventDrivenIntersection engine = createEngine(basicController(100));
+
+      StepBuffer buffer = new StepBuffer();
+      int evaluations = 0;
+      int remaining = 10_000;
+      while (remaining > 0) {
+        remaining -= engine.advance(remaining, buffer);
+        evaluations++;
+      }
+
+      assertEquals(10_000, buffer.getStep());
+      assertTrue(evaluations < 10_000 / 20);
+    }
+
+    @Test
+    @DisplayName("Results match the tick-driven intersection")
+    void Results_match_the_tick_driven_intersection() {
+      assertMatchesTickDriven(new ConstantCrossingTime(1));
+    }
+
+    @Test
+    @DisplayName("Results match the tick-driven intersection with multi-step crossings")
+    void Results_match_the_tick_driven_intersection_with_multi_step_crossings() {
+      assertMatchesTickDriven(
+          new TurnTypeCrossingTime(
+              Map.of(
+                  TurnType.STRAIGHT, 3, TurnType.RIGHT, 2, TurnType.LEFT, 7, TurnType.U_TURN, 9)));
+    }
+
+    void assertMatchesTickDriven(CrossingTimeModel crossingTimes) {
+      EventDrivenIntersection engine = createEngine(basicController(), crossingTimes);
+      Intersection intersection =
+          IntersectionTest.createIntersection(basicController(), crossingTimes);
+
+      Random random = new Random(11);
+      List<List<Movement>> arrivals = new ArrayList<>();
+      int vehicles = 0;
+      for (int step = 1; step <= 2_000; step++) {
+        List<Movement> movements = new ArrayList<>();
+        while (random.nextInt(12) == 0) {
+          Direction from = Direction.values()[random.nextInt(4)];
+          Direction to = Direction.values()[(from.ordinal() + 1 + random.nextInt(3)) % 4];
+          movements.add(mv(from, to));
+          engine.scheduleArrival(step, "v" + vehicles++, mv(from, to));
+        }
+        arrivals.add(movements);
+      }
+
+      StepBuffer buffer = new StepBuffer();
+      int step = 0;
+      int vehicle = 0;
+      while (step < 2_000) {
+        int taken = engine.advance(2_000 - step, buffer);
+        for (int i = 0; i < taken; i++) {
+          for (Movement movement : arrivals.get(step)) {
+            intersection.addVehicle("v" + vehicle++, movement);
+          }
+          step++;
+
+          StepResult expected = intersection.step();
+          if (i < taken - 1) {
+            assertTrue(expected.leftIntersection().isEmpty());
+          } else {
+            assertEquals(expected, buffer.toStepResult());
+          }
+        }
+      }
+
+      assertEquals(vehicles, vehicle);
+      assertEquals(
+          intersection.getArchive().getRetiredCount(), engine.getArchive().getRetiredCount());
+    }
+  }
+}
@@ -0,0 +1,64 @@
+package lol.omg.jakubbinieda.sim.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import lol.omg.jakubbinieda.sim.engine.EventQueue.Type;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class EventQueueTest {
+  @Test
+  @DisplayName("Events are removed in step order")
+  public void Events_are_removed_in_step_order() {
+    EventQueue queue = new EventQueue();
+    queue.add(5, Type.ARRIVAL, 0);
+    queue.add(2, Type.CONTROLLER_WAKE_UP, 1);
+    queue.add(9, Type.CROSSING_COMPLETION, 2);
+
+    assertEquals(2, queue.peekStep());
+    assertEquals(Type.CONTROLLER_WAKE_UP, queue.peekType());
+    assertEquals(1, queue.peekPayload());
+    queue.remove();
+    assertEquals(5, queue.peekStep());
+    queue.remove();
+    assertEquals(9, queue.peekStep());
+    queue.remove();
+    assertTrue(queue.isEmpty());
+  }
+
+  @Test
+  @DisplayName("Events at the same step keep insertion order")
+  public void Events_at_the_same_step_keep_insertion_order() {
+    EventQueue queue = new EventQueue();
+    Random random = new Random(3);
+    List<int[]> expected = new ArrayList<>();
+    for (int i = 0; i < 200; i++) {
+      int step = random.nextInt(10);
+      queue.add(step, Type.ARRIVAL, i);
+      expected.add(new int[] {step, i});
+    }
+    expected.sort((a, b) -> a[0] != b[0] ? Integer.compare(a[0], b[0]) : a[1] - b[1]);
+
+    for (int[] event : expected) {
+      assertEquals(event[0], queue.peekStep());
+      assertEquals(event[1], queue.peekPayload());
+      queue.remove();
+    }
+    assertEquals(0, queue.size());
+  }
+
+  @Test
+  @DisplayName("Peeking throws NoSuchElementException when queue is empty")
+  public void Peeking_throws_NoSuchElementException_when_queue_is_empty() {
+    EventQueue queue = new EventQueue();
+    Exception e = assertThrows(NoSuchElementException.class, queue::peekStep);
+    assertEquals("Event queue is empty", e.getMessage());
+    assertThrows(NoSuchElementException.class, queue::remove);
+  }
+}
@@ -0,0 +1,54 @@
+package lol.omg.jakubbinieda.sim.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.NoSuchElementException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class IntRingTest {
+  @Test
+  @DisplayName("Values are polled in insertion order")
+  public void Values_are_polled_in_insertion_order() {
+    IntRing ring = new IntRing();
+    ring.add(3);
+    ring.add(1);
+    ring.add(2);
+
+    assertEquals(3, ring.size());
+    assertEquals(3, ring.peek());
+    assertEquals(3, ring.poll());
+    assertEquals(1, ring.poll());
+    assertEquals(2, ring.poll());
+    assertTrue(ring.isEmpty());
+  }
+
+  @Test
+  @DisplayName("Ring grows while wrapped around")
+  public void Ring_grows_while_wrapped_around() {
+    IntRing ring = new IntRing();
+    for (int i = 0; i < 5; i++) {
+      ring.add(i);
+    }
+    for (int i = 0; i < 5; i++) {
+      ring.poll();
+    }
+
+    for (int i = 0; i < 20; i++) {
+      ring.add(i);
+    }
+    for (int i = 0; i < 20; i++) {
+      assertEquals(i, ring.poll());
+    }
+  }
+
+  @Test
+  @DisplayName("Polling throws NoSuchElementException when ring is empty")
+  public void Polling_throws_NoSuchElementException_when_ring_is_empty() {
+    IntRing ring = new IntRing();
+    Exception e = assertThrows(NoSuchElementException.class, ring::poll);
+    assertEquals("Ring is empty", e.getMessage());
+  }
+}
@@ -0,0 +1,113 @@
+package lol.omg.jakubbinieda.sim.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import lol.omg.jakubbinieda.sim.model.Direction;
+import lol.omg.jakubbinieda.sim.model.Movement;
+import lol.omg.jakubbinieda.sim.signal.SignalState;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class IntersectionStateTrackerTest {
+  static IntersectionStateTracker tracker() {
+    Map<String, SignalState> signalStates = new LinkedHashMap<>();
+    signalStates.put("sg-south", SignalState.RED);
+    return new IntersectionStateTracker(signalStates, List.of(Direction.SOUTH, Direction.EAST));
+  }
+
+  @Test
+  @DisplayName("Published state reflects queued vehicles")
+  public void Published_state_reflects_queued_vehicles() {
+    IntersectionStateTracker tracker = tracker();
+    int south = tracker.addLane("south-0", Direction.SOUTH);
+    int east = tracker.addLane("east-0", Direction.EAST);
+
+    tracker.vehicleQueued(south);
+    tracker.vehicleQueued(south);
+    tracker.vehicleQueued(east);
+
+    IntersectionState state = tracker.publish(3);
+    assertEquals(3, state.step());
+    assertEquals(Map.of("south-0", 2, "east-0", 1), state.queueLengths());
+    assertEquals(Map.of(Direction.SOUTH, 2, Direction.EAST, 1), state.waitingPerRoad());
+    assertNull(state.waitingPerRoad().get(Direction.NORTH));
+  }
+
+  @Test
+  @DisplayName("Crossing movements are tracked until the last vehicle exits")
+  public void Crossing_movements_are_tracked_until_the_last_vehicle_exits() {
+    IntersectionStateTracker tracker = tracker();
+    Movement straight = new Movement(Direction.SOUTH, Direction.NORTH);
+    int lane = tracker.addLane("south-0", Direction.SOUTH);
+    tracker.vehicleQueued(lane);
+    tracker.vehicleQueued(lane);
+
+    tracker.vehicleEntered(lane, straight);
+    tracker.vehicleEntered(lane, straight);
+    tracker.vehicleExited(straight);
+    assertEquals(Set.of(straight), tracker.publish(1).vehiclesOnIntersection());
+
+    tracker.vehicleExited(straight);
+    assertTrue(tracker.publish(2).vehiclesOnIntersection().isEmpty());
+    assertEquals(0, tracker.queueLength(lane));
+  }
+
+  @Test
+  @DisplayName("Published state does not change until next publish")
+  public void Published_state_does_not_change_until_next_publish() {
+    IntersectionStateTracker tracker = tracker();
+    int lane = tracker.addLane("south-0", Direction.SOUTH);
+
+    tracker.vehicleQueued(lane);
+
+    IntersectionState state = tracker.publish(1);
+    tracker.vehicleQueued(lane);
+    assertEquals(1, state.queueLengths().get("south-0"));
+
+    assertSame(state, tracker.publish(2));
+    assertEquals(2, state.queueLengths().get("south-0"));
+  }
+
+  @Test
+  @DisplayName("Queue lengths cover only lanes used by the time of publishing")
+  public void Queue_lengths_cover_only_lanes_used_by_the_time_of_publishing() {
+    IntersectionStateTracker tracker = tracker();
+    int south = tracker.addLane("south-0", Direction.SOUTH);
+    int east = tracker.addLane("east-0", Direction.EAST);
+
+    IntersectionState state = tracker.publish(1);
+    assertTrue(state.queueLengths().isEmpty());
+
+    tracker.vehicleQueued(east);
+    tracker.vehicleEntered(east, new Movement(Direction.EAST, Direction.WEST));
+    assertTrue(state.queueLengths().isEmpty());
+
+    tracker.publish(2);
+    assertEquals(Map.of("east-0", 0), state.queueLengths());
+    assertFalse(state.queueLengths().containsKey("south-0"));
+    assertNull(state.queueLengths().get("south-0"));
+    assertEquals(0, tracker.queueLength(south));
+  }
+
+  @Test
+  @DisplayName("Published views are unmodifiable")
+  public void Published_views_are_unmodifiable() {
+    IntersectionState state = tracker().publish(1);
+
+    assertThrows(
+        UnsupportedOperationException.class,
+        () -> state.signalStates().put("sg-south", SignalState.GREEN));
+    assertThrows(UnsupportedOperationException.class, () -> state.queueLengths().put("south-0", 1));
+    assertFalse(
+        state.vehiclesOnIntersection().contains(new Movement(Direction.SOUTH, Direction.NORTH)));
+  }
+}
@@ -2,22 +2,30 @@ package lol.omg.jakubbinieda.sim.engine;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.lang.management.ManagementFactory;
 import java.util.ArrayList;
 import java.util.EnumMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import lol.omg.jakubbinieda.sim.controller.BasicController;
 import lol.omg.jakubbinieda.sim.controller.Controller;
+import lol.omg.jakubbinieda.sim.controller.QueueTrigger;
+import lol.omg.jakubbinieda.sim.engine.crossing.ConstantCrossingTime;
+import lol.omg.jakubbinieda.sim.engine.crossing.CrossingTimeModel;
+import lol.omg.jakubbinieda.sim.engine.crossing.TurnTypeCrossingTime;
 import lol.omg.jakubbinieda.sim.engine.loadbalancer.LoadBalancer;
 import lol.omg.jakubbinieda.sim.geometry.IntersectionLayout;
 import lol.omg.jakubbinieda.sim.geometry.Lane;
 import lol.omg.jakubbinieda.sim.geometry.Road;
 import lol.omg.jakubbinieda.sim.model.Direction;
 import lol.omg.jakubbinieda.sim.model.Movement;
+import lol.omg.jakubbinieda.sim.model.TurnType;
 import lol.omg.jakubbinieda.sim.model.Vehicle;
 import lol.omg.jakubbinieda.sim.signal.SignalCommand;
 import lol.omg.jakubbinieda.sim.signal.SignalGroup;
@@ -36,6 +44,23 @@ public class IntersectionTest {
 
   // Create a simple 4-way intersection
   static Intersection createIntersection(Controller controller) {
+    return createIntersection(controller, new ConstantCrossingTime(1));
+  }
+
+  static Intersection createIntersection(Controller controller, CrossingTimeModel crossingTimes) {
+    LoadBalancer loadBalancer = Mockito.mock(LoadBalancer.class);
+    Mockito.when(loadBalancer.selectLane(Mockito.any()))
+        .thenAnswer(inv -> ((List<Lane>) inv.getArgument(0)).getFirst());
+
+    return new Intersection(
+        createLayout(),
+        controller,
+        loadBalancer,
+        Intersection.DEFAULT_ARCHIVE_CAPACITY,
+        crossingTimes);
+  }
+
+  static IntersectionLayout createLayout() {
     Map<Direction, Lane> lanes = new EnumMap<>(Direction.class);
     Map<Direction, Set<Movement>> movements = new EnumMap<>(Direction.class);
     Set<Movement> allMovements = new HashSet<>();
@@ -74,11 +99,7 @@ public class IntersectionTest {
       Mockito.when(layout.getRoad(d)).thenReturn(road);
     }
 
-    LoadBalancer loadBalancer = Mockito.mock(LoadBalancer.class);
-    Mockito.when(loadBalancer.selectLane(Mockito.any()))
-        .thenAnswer(inv -> ((List<Lane>) inv.getArgument(0)).getFirst());
-
-    return new Intersection(layout, controller, loadBalancer);
+    return layout;
   }
 
   static Controller fixedController(SignalCommand... commands) {
@@ -206,12 +227,124 @@ public class IntersectionTest {
       assertThrows(IllegalArgumentException.class, () -> intersection.addVehicle(vehicle));
     }
 
+    @Test
+    @DisplayName("Rejected vehicle does not reserve its ID")
+    public void Rejected_vehicle_does_not_reserve_its_ID() {
+      assertThrows(
+          IllegalArgumentException.class,
+          () -> intersection.addVehicle("v1", new Movement(Direction.EAST, Direction.WEST)));
+
+      intersection.addVehicle("v1", new Movement(Direction.NORTH, Direction.SOUTH));
+      assertEquals(0, intersection.getIdTable().lookup("v1"));
+    }
+
     @Test
     @DisplayName("Adding vehicle succeeds when vehicle is valid")
     public void Adding_vehicle_succeeds_when_vehicle_is_valid() {
       Vehicle vehicle = new Vehicle("v1", new Movement(Direction.NORTH, Direction.SOUTH));
       intersection.addVehicle(vehicle);
     }
+
+    @Test
+    @DisplayName("Adding vehicle by ID throws NullPointerException when ID is null")
+    public void Adding_vehicle_by_ID_throws_NullPointerException_when_ID_is_null() {
+      Movement movement = new Movement(Direction.NORTH, Direction.SOUTH);
+      Exception e =
+          assertThrows(NullPointerException.class, () -> intersection.addVehicle(null, movement));
+      assertEquals("id cannot be null", e.getMessage());
+    }
+
+    @Test
+    @DisplayName("Adding vehicle by ID throws NullPointerException when movement is null")
+    public void Adding_vehicle_by_ID_throws_NullPointerException_when_movement_is_null() {
+      Exception e =
+          assertThrows(NullPointerException.class, () -> intersection.addVehicle("v1", null));
+      assertEquals("movement cannot be null", e.getMessage());
+    }
+
+    @Test
+    @DisplayName("Adding vehicle by ID throws IllegalArgumentException when vehicle already exists")
+    public void Adding_vehicle_by_ID_throws_IllegalArgumentException_when_vehicle_already_exists() {
+      Movement movement = new Movement(Direction.NORTH, Direction.SOUTH);
+      intersection.addVehicle(new Vehicle("v1", movement));
+
+      Exception e =
+          assertThrows(
+              IllegalArgumentException.class, () -> intersection.addVehicle("v1", movement));
+      assertEquals("Vehicle with ID v1 already exists", e.getMessage());
+    }
+  }
+
+  @Nested
+  class AddVehiclesTest {
+    static Intersection batchIntersection() {
+      return new Intersection(
+          createLayout(), greenController("sg-south"), lanes -> lanes.getFirst());
+    }
+
+    @Test
+    @DisplayName("Adding vehicles throws NullPointerException when collection is null")
+    void Adding_vehicles_throws_NullPointerException_when_collection_is_null() {
+      Intersection intersection = createIntersection(fixedController());
+      Exception e =
+          assertThrows(
+              NullPointerException.class, () -> intersection.addVehicles((List<Vehicle>) null));
+      assertEquals("vehicles cannot be null", e.getMessage());
+    }
+
+    @Test
+    @DisplayName("Adding vehicles throws IllegalArgumentException when batch repeats an ID")
+    void Adding_vehicles_throws_IllegalArgumentException_when_batch_repeats_an_ID() {
+      Intersection intersection = batchIntersection();
+      List<Vehicle> batch =
+          List.of(
+              new Vehicle("v1", mv(Direction.SOUTH, Direction.NORTH)),
+              new Vehicle("v1", mv(Direction.SOUTH, Direction.EAST)));
+
+      Exception e =
+          assertThrows(IllegalArgumentException.class, () -> intersection.addVehicles(batch));
+      assertEquals("Vehicle with ID v1 already exists", e.getMessage());
+      assertEquals(VehicleIdTable.NONE, intersection.getIdTable().lookup("v1"));
+    }
+
+    @Test
+    @DisplayName("Adding vehicles queues nothing when one vehicle is invalid")
+    void Adding_vehicles_queues_nothing_when_one_vehicle_is_invalid() {
+      Intersection intersection = batchIntersection();
+      intersection.addVehicle("v2", mv(Direction.EAST, Direction.WEST));
+
+      List<Movement> movements =
+          List.of(mv(Direction.SOUTH, Direction.NORTH), mv(Direction.EAST, Direction.WEST));
+      assertThrows(
+          IllegalArgumentException.class,
+          () -> intersection.addVehicles(List.of("v1", "v2"), movements));
+      assertEquals(VehicleIdTable.NONE, intersection.getIdTable().lookup("v1"));
+    }
+
+    @Test
+    @DisplayName("Adding vehicles throws IllegalArgumentException when sizes differ")
+    void Adding_vehicles_throws_IllegalArgumentException_when_sizes_differ() {
+      Intersection intersection = batchIntersection();
+      Exception e =
+          assertThrows(
+              IllegalArgumentException.class,
+              () -> intersection.addVehicles(List.of("v1"), List.of()));
+      assertEquals("ids and movements must have the same size", e.getMessage());
+    }
+
+    @Test
+    @DisplayName("Batch is queued in order")
+    void Batch_is_queued_in_order() {
+      Intersection intersection = batchIntersection();
+      Vehicle first = new Vehicle("v1", mv(Direction.SOUTH, Direction.NORTH));
+      intersection.addVehicles(
+          List.of(first, new Vehicle("v2", mv(Direction.SOUTH, Direction.NORTH))));
+
+      assertEquals(1, intersection.step().queueLengths().get("south-0"));
+      assertEquals(Vehicle.State.CROSSING, first.getState());
+      assertEquals(List.of("v1"), intersection.step().leftIntersection());
+      assertEquals(List.of("v2"), intersection.step().leftIntersection());
+    }
   }
 
   @Nested
@@ -252,6 +385,27 @@ public class IntersectionTest {
       assertTrue(result.leftIntersection().isEmpty());
     }
 
+    @Test
+    @DisplayName("Step reports only lanes that have been used")
+    void Step_reports_only_lanes_that_have_been_used() {
+      Movement northbound = mv(Direction.SOUTH, Direction.NORTH);
+      Movement southbound = mv(Direction.NORTH, Direction.SOUTH);
+      Lane north = new Lane("north-0", Direction.NORTH, Set.of(southbound));
+      Lane south = new Lane("south-0", Direction.SOUTH, Set.of(northbound));
+      Map<Direction, Road> roads = new EnumMap<>(Direction.class);
+      roads.put(Direction.NORTH, new Road(Direction.NORTH, List.of(north)));
+      roads.put(Direction.SOUTH, new Road(Direction.SOUTH, List.of(south)));
+      IntersectionLayout layout =
+          new IntersectionLayout(
+              roads, List.of(new SignalGroup("sg", Set.of(northbound, southbound))));
+
+      Intersection intersection =
+          new Intersection(layout, fixedController(), lanes -> lanes.getFirst());
+      intersection.addVehicle("v1", northbound);
+
+      assertEquals(Map.of("south-0", 1), intersection.step().queueLengths());
+    }
+
     @Test
     @DisplayName("Step returns queue lengths")
     void Step_returns_queue_lengths() {
@@ -309,6 +463,35 @@ public class IntersectionTest {
       assertEquals(SignalState.YELLOW, result.signalStates().get("sg-east"));
       assertEquals(SignalState.RED, result.signalStates().get("sg-west"));
     }
+
+    @Test
+    @DisplayName("Vehicle stops entering after signal returns to RED")
+    void Vehicle_stops_entering_after_signal_returns_to_RED() {
+      Controller controller = Mockito.mock(Controller.class);
+      Mockito.when(controller.decide(Mockito.any()))
+          .thenReturn(List.of(new SignalCommand("sg-south", SignalState.GREEN)))
+          .thenReturn(List.of(new SignalCommand("sg-south", SignalState.RED)));
+
+      Intersection intersection = createIntersection(controller);
+      intersection.addVehicle(new Vehicle("v1", mv(Direction.SOUTH, Direction.NORTH)));
+      intersection.addVehicle(new Vehicle("v2", mv(Direction.SOUTH, Direction.NORTH)));
+
+      assertEquals(1, intersection.step().queueLengths().get("south-0"));
+      assertEquals(1, intersection.step().queueLengths().get("south-0"));
+      assertEquals(1, intersection.step().queueLengths().get("south-0"));
+    }
+
+    @Test
+    @DisplayName("Repeated GREEN command keeps movements permitted")
+    void Repeated_GREEN_command_keeps_movements_permitted() {
+      Intersection intersection = createIntersection(greenController("sg-south", "sg-south"));
+      intersection.addVehicle(new Vehicle("v1", mv(Direction.SOUTH, Direction.NORTH)));
+      intersection.addVehicle(new Vehicle("v2", mv(Direction.SOUTH, Direction.NORTH)));
+
+      intersection.step();
+      assertTrue(intersection.step().leftIntersection().contains("v1"));
+      assertTrue(intersection.step().leftIntersection().contains("v2"));
+    }
   }
 
   @Nested
@@ -341,6 +524,53 @@ public class IntersectionTest {
       intersection.step();
       assertTrue(intersection.step().leftIntersection().contains("v1"));
     }
+
+    @Test
+    @DisplayName("Crossing time comes from the model")
+    void Crossing_time_comes_from_the_model() {
+      Map<TurnType, Integer> times =
+          Map.of(TurnType.STRAIGHT, 2, TurnType.RIGHT, 1, TurnType.LEFT, 4, TurnType.U_TURN, 4);
+      Intersection intersection =
+          createIntersection(
+              greenController("sg-south", "sg-north"), new TurnTypeCrossingTime(times));
+      intersection.addVehicle(new Vehicle("left", mv(Direction.SOUTH, Direction.WEST)));
+      intersection.addVehicle(new Vehicle("straight", mv(Direction.NORTH, Direction.SOUTH)));
+
+      List<List<String>> left = new ArrayList<>();
+      for (int i = 0; i < 6; i++) {
+        left.add(intersection.step().leftIntersection());
+      }
+
+      // The left turn yields to the straight, so it enters one step later
+      assertEquals(
+          List.of(List.of(), List.of(), List.of("straight"), List.of(), List.of(), List.of("left")),
+          left);
+    }
+
+    @Test
+    @DisplayName("Vehicles due at the same step exit in entry order")
+    void Vehicles_due_at_the_same_step_exit_in_entry_order() {
+      CrossingTimeModel model = (id, movement) -> id.equals("first") ? 3 : 2;
+      Intersection intersection = createIntersection(greenController("sg-south"), model);
+      intersection.addVehicle(new Vehicle("first", mv(Direction.SOUTH, Direction.NORTH)));
+      intersection.addVehicle(new Vehicle("second", mv(Direction.SOUTH, Direction.NORTH)));
+
+      intersection.step();
+      intersection.step();
+      intersection.step();
+      assertEquals(List.of("first", "second"), intersection.step().leftIntersection());
+    }
+
+    @Test
+    @DisplayName("Step throws IllegalStateException when model returns non-positive time")
+    void Step_throws_IllegalStateException_when_model_returns_non_positive_time() {
+      Intersection intersection =
+          createIntersection(greenController("sg-south"), (id, movement) -> 0);
+      intersection.addVehicle(new Vehicle("v1", mv(Direction.SOUTH, Direction.NORTH)));
+
+      Exception e = assertThrows(IllegalStateException.class, intersection::step);
+      assertEquals("Crossing time model returned 0 for vehicle v1", e.getMessage());
+    }
   }
 
   @Nested
@@ -365,6 +595,53 @@ public class IntersectionTest {
       assertTrue(result.leftIntersection().contains("v1"));
       assertTrue(result.leftIntersection().contains("v2"));
     }
+
+    @Test
+    @DisplayName("Exited vehicle is moved to archive")
+    void Exited_vehicle_is_moved_to_archive() {
+      Intersection intersection = createIntersection(greenController("sg-south"));
+      intersection.addVehicle(new Vehicle("v1", mv(Direction.SOUTH, Direction.NORTH)));
+      intersection.step();
+      intersection.step();
+
+      assertTrue(intersection.getArchive().contains("v1"));
+      assertEquals(2, intersection.getArchive().getRecent().getFirst().exitStep());
+    }
+
+    @Test
+    @DisplayName("Adding vehicle with ID of retired vehicle throws IllegalArgumentException")
+    void Adding_vehicle_with_ID_of_retired_vehicle_throws_IllegalArgumentException() {
+      Intersection intersection = createIntersection(greenController("sg-south"));
+      intersection.addVehicle(new Vehicle("v1", mv(Direction.SOUTH, Direction.NORTH)));
+      intersection.step();
+      intersection.step();
+
+      Vehicle duplicate = new Vehicle("v1", mv(Direction.SOUTH, Direction.EAST));
+      Exception e =
+          assertThrows(IllegalArgumentException.class, () -> intersection.addVehicle(duplicate));
+      assertEquals("Vehicle with ID v1 already exists", e.getMessage());
+    }
+
+    @Test
+    @DisplayName("Adding vehicle with ID that fell out of the retention window is allowed")
+    void Adding_vehicle_with_ID_that_fell_out_of_the_retention_window_is_allowed() {
+      Intersection intersection = createIntersection(greenController("sg-south"));
+      intersection.getArchive().setIdRetention(Intersection.DEFAULT_ARCHIVE_CAPACITY);
+      for (int i = 0; i <= Intersection.DEFAULT_ARCHIVE_CAPACITY; i++) {
+        intersection.addVehicle(new Vehicle("v" + i, mv(Direction.SOUTH, Direction.NORTH)));
+        intersection.step();
+      }
+      for (int i = 0; i < 3; i++) {
+        intersection.step();
+      }
+
+      assertFalse(intersection.getArchive().contains("v0"));
+      assertTrue(intersection.getArchive().contains("v1"));
+      intersection.addVehicle(new Vehicle("v0", mv(Direction.SOUTH, Direction.NORTH)));
+      Vehicle duplicate = new Vehicle("v1", mv(Direction.SOUTH, Direction.NORTH));
+      assertThrows(IllegalArgumentException.class, () -> intersection.addVehicle(duplicate));
+      assertEquals(Intersection.DEFAULT_ARCHIVE_CAPACITY + 1, intersection.getIdTable().size());
+    }
   }
 
   @Nested
@@ -453,6 +730,29 @@ public class IntersectionTest {
       assertEquals(3, vehicle.getWaitTime());
     }
 
+    @Test
+    @DisplayName("Wait time stops increasing once vehicle enters")
+    void Wait_time_stops_increasing_once_vehicle_enters() {
+      Controller controller = Mockito.mock(Controller.class);
+      Mockito.when(controller.decide(Mockito.any()))
+          .thenReturn(List.of())
+          .thenReturn(List.of())
+          .thenReturn(List.of(new SignalCommand("sg-south", SignalState.GREEN)));
+
+      Intersection intersection = createIntersection(controller);
+      Vehicle first = new Vehicle("v1", mv(Direction.SOUTH, Direction.NORTH));
+      Vehicle second = new Vehicle("v2", mv(Direction.SOUTH, Direction.NORTH));
+      intersection.addVehicle(first);
+      intersection.step();
+      intersection.addVehicle(second);
+      intersection.step();
+      intersection.step();
+      intersection.step();
+
+      assertEquals(2, first.getWaitTime());
+      assertEquals(2, second.getWaitTime());
+    }
+
     @Test
     @DisplayName("Empty lane does nothing")
     void Empty_lane_does_nothing() {
@@ -800,6 +1100,332 @@ public class IntersectionTest {
     }
   }
 
+  @Nested
+  class VehicleStoreTest {
+    @Test
+    @DisplayName("Vehicle added by ID crosses and is archived")
+    void Vehicle_added_by_ID_crosses_and_is_archived() {
+      Intersection intersection = createIntersection(greenController("sg-south"));
+      intersection.addVehicle("v1", mv(Direction.SOUTH, Direction.NORTH));
+      intersection.addVehicle("v2", mv(Direction.SOUTH, Direction.NORTH));
+
+      assertTrue(intersection.step().leftIntersection().isEmpty());
+      assertEquals(List.of("v1"), intersection.step().leftIntersection());
+      assertEquals(List.of("v2"), intersection.step().leftIntersection());
+
+      assertEquals(
+          List.of(
+              new ArchivedVehicle("v1", mv(Direction.SOUTH, Direction.NORTH), 0, 2),
+              new ArchivedVehicle("v2", mv(Direction.SOUTH, Direction.NORTH), 1, 3)),
+          intersection.getArchive().getRecent());
+    }
+
+    @Test
+    @DisplayName("Vehicle façade follows the engine")
+    void Vehicle_facade_follows_the_engine() {
+      Intersection intersection = createIntersection(greenController("sg-south"));
+      Vehicle vehicle = new Vehicle("v1", mv(Direction.SOUTH, Direction.NORTH));
+      intersection.addVehicle(vehicle);
+
+      intersection.step();
+      assertEquals(Vehicle.State.CROSSING, vehicle.getState());
+      intersection.step();
+      assertEquals(Vehicle.State.EXITED, vehicle.getState());
+    }
+
+    @Test
+    @DisplayName("Released handles are reused by later vehicles")
+    void Released_handles_are_reused_by_later_vehicles() {
+      Intersection intersection = createIntersection(greenController("sg-south"));
+      for (int i = 0; i < 100; i++) {
+        intersection.addVehicle("v" + i, mv(Direction.SOUTH, Direction.NORTH));
+        intersection.step();
+      }
+
+      intersection.step();
+      assertEquals(100, intersection.getArchive().getRetiredCount());
+    }
+  }
+
+  @Nested
+  class BufferedStepTest {
+    @Test
+    @DisplayName("Step throws NullPointerException when buffer is null")
+    void Step_throws_NullPointerException_when_buffer_is_null() {
+      Intersection intersection = createIntersection(fixedController());
+      Exception e = assertThrows(NullPointerException.class, () -> intersection.step(null));
+      assertEquals("buffer cannot be null", e.getMessage());
+    }
+
+    @Test
+    @DisplayName("Buffered step matches allocating step")
+    void Buffered_step_matches_allocating_step() {
+      Intersection buffered = createIntersection(greenController("sg-south", "sg-east"));
+      Intersection allocating = createIntersection(greenController("sg-south", "sg-east"));
+      for (Intersection intersection : List.of(buffered, allocating)) {
+        intersection.addVehicle(new Vehicle("v1", mv(Direction.SOUTH, Direction.NORTH)));
+        intersection.addVehicle(new Vehicle("v2", mv(Direction.SOUTH, Direction.WEST)));
+        intersection.addVehicle(new Vehicle("v3", mv(Direction.EAST, Direction.SOUTH)));
+      }
+
+      StepBuffer buffer = new StepBuffer();
+      for (int i = 0; i < 5; i++) {
+        buffered.step(buffer);
+        assertEquals(allocating.step(), buffer.toStepResult());
+      }
+    }
+
+    @Test
+    @DisplayName("Buffered step does not allocate in steady state")
+    void Buffered_step_does_not_allocate_in_steady_state() {
+      List<SignalCommand> eastGreen = List.of(new SignalCommand("sg-east", SignalState.GREEN));
+      List<SignalCommand> eastRed = List.of(new SignalCommand("sg-east", SignalState.RED));
+      Controller controller =
+          new Controller() {
+            @Override
+            public void initialize(IntersectionLayout layout) {}
+
+            @Override
+            public List<SignalCommand> decide(IntersectionState state) {
+              return state.step() % 2 == 0 ? eastGreen : eastRed;
+            }
+
+            // Overridden so the measured path never runs interface defaults that a mock maker
+            // may have instrumented
+            @Override
+            public int nextDecisionStep(IntersectionState state) {
+              return state.step() + 1;
+            }
+
+            @Override
+            public List<QueueTrigger> queueTriggers(IntersectionState state) {
+              return List.of();
+            }
+          };
+
+      Intersection intersection = createIntersection(controller);
+      for (int i = 0; i < 10; i++) {
+        intersection.addVehicle(new Vehicle("v" + i, mv(Direction.SOUTH, Direction.NORTH)));
+      }
+
+      StepBuffer buffer = new StepBuffer();
+      for (int i = 0; i < 10_000; i++) {
+        intersection.step(buffer);
+      }
+
+      com.sun.management.ThreadMXBean threads =
+          (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+      long threadId = Thread.currentThread().threadId();
+      long overhead = -threads.getThreadAllocatedBytes(threadId);
+      overhead += threads.getThreadAllocatedBytes(threadId);
+
+      long before = threads.getThreadAllocatedBytes(threadId);
+      for (int i = 0; i < 10_000; i++) {
+        intersection.step(buffer);
+      }
+      long allocated = threads.getThreadAllocatedBytes(threadId) - before - overhead;
+
+      assertEquals(0, allocated / 10_000);
+      assertEquals(10, buffer.getQueueLength(0));
+    }
+  }
+
+  @Nested
+  class AdvanceTest {
+    @Test
+    @DisplayName("Advance throws IllegalArgumentException when steps is not positive")
+    void Advance_throws_IllegalArgumentException_when_steps_is_not_positive() {
+      Intersection intersection = createIntersection(fixedController());
+      Exception e =
+          assertThrows(
+              IllegalArgumentException.class, () -> intersection.advance(0, new StepBuffer()));
+      assertEquals("steps must be positive", e.getMessage());
+    }
+
+    @Test
+    @DisplayName("Advance throws NullPointerException when buffer is null")
+    void Advance_throws_NullPointerException_when_buffer_is_null() {
+      Intersection intersection = createIntersection(fixedController());
+      Exception e = assertThrows(NullPointerException.class, () -> intersection.advance(1, null));
+      assertEquals("buffer cannot be null", e.getMessage());
+    }
+
+    @Test
+    @DisplayName("Advance takes one step when controller gives no hint")
+    void Advance_takes_one_step_when_controller_gives_no_hint() {
+      Controller controller =
+          new Controller() {
+            @Override
+            public void initialize(IntersectionLayout layout) {}
+
+            @Override
+            public List<SignalCommand> decide(IntersectionState state) {
+              return List.of();
+            }
+          };
+
+      Intersection intersection = createIntersection(controller);
+      StepBuffer buffer = new StepBuffer();
+      intersection.step(buffer);
+
+      assertEquals(1, intersection.advance(10, buffer));
+      assertEquals(2, buffer.getStep());
+    }
+
+    @Test
+    @DisplayName("Advance matches repeated steps")
+    void Advance_matches_repeated_steps() {
+      BasicController advancingController = new BasicController(2, 12);
+      BasicController steppingController = new BasicController(2, 12);
+      advancingController.initialize(createLayout());
+      steppingController.initialize(createLayout());
+      Intersection advancing = createIntersection(advancingController);
+      Intersection stepping = createIntersection(steppingController);
+      StepBuffer buffer = new StepBuffer();
+
+      int calls = 0;
+      for (int round = 0; round < 3; round++) {
+        for (Intersection intersection : List.of(advancing, stepping)) {
+          intersection.addVehicle("n" + round, mv(Direction.NORTH, Direction.SOUTH));
+          intersection.addVehicle("e" + round, mv(Direction.EAST, Direction.WEST));
+        }
+
+        int remaining = 40;
+        while (remaining > 0) {
+          int taken = advancing.advance(remaining, buffer);
+          for (int i = 1; i < taken; i++) {
+            assertTrue(stepping.step().leftIntersection().isEmpty());
+          }
+          assertEquals(stepping.step(), buffer.toStepResult());
+          remaining -= taken;
+          calls++;
+        }
+      }
+
+      assertEquals(120, buffer.getStep());
+      assertTrue(calls < 60);
+    }
+  }
+
+  @Nested
+  class DecisionWakeUpTest {
+    static Controller wakingController(List<Integer> decisions, List<QueueTrigger> triggers) {
+      return new Controller() {
+        @Override
+        public void initialize(IntersectionLayout layout) {}
+
+        @Override
+        public List<SignalCommand> decide(IntersectionState state) {
+          decisions.add(state.step());
+          return List.of();
+        }
+
+        @Override
+        public int nextDecisionStep(IntersectionState state) {
+          return state.step() + 5;
+        }
+
+        @Override
+        public List<QueueTrigger> queueTriggers(IntersectionState state) {
+          return triggers;
+        }
+      };
+    }
+
+    @Test
+    @DisplayName("Decide is skipped until the next decision step")
+    void Decide_is_skipped_until_the_next_decision_step() {
+      List<Integer> decisions = new ArrayList<>();
+      Intersection intersection = createIntersection(wakingController(decisions, List.of()));
+      for (int i = 0; i < 12; i++) {
+        intersection.step();
+      }
+
+      assertEquals(List.of(1, 6, 11), decisions);
+    }
+
+    @Test
+    @DisplayName("Queue trigger wakes the controller early")
+    void Queue_trigger_wakes_the_controller_early() {
+      List<Integer> decisions = new ArrayList<>();
+      List<QueueTrigger> triggers = List.of(QueueTrigger.atLeast(Direction.EAST, 2));
+      Intersection intersection = createIntersection(wakingController(decisions, triggers));
+
+      intersection.step();
+      intersection.addVehicle(new Vehicle("v1", mv(Direction.EAST, Direction.WEST)));
+      intersection.step();
+      intersection.addVehicle(new Vehicle("v2", mv(Direction.EAST, Direction.WEST)));
+      intersection.step();
+      intersection.step();
+
+      assertEquals(List.of(1, 3, 4), decisions);
+    }
+
+    @Test
+    @DisplayName("At most trigger wakes the controller only while the road is short")
+    void At_most_trigger_wakes_the_controller_only_while_the_road_is_short() {
+      List<Integer> decisions = new ArrayList<>();
+      List<QueueTrigger> triggers = List.of(QueueTrigger.atMost(Direction.EAST, 0));
+      Intersection intersection = createIntersection(wakingController(decisions, triggers));
+
+      intersection.step();
+      intersection.step();
+      intersection.addVehicle(new Vehicle("v1", mv(Direction.EAST, Direction.WEST)));
+      intersection.step();
+      intersection.step();
+
+      assertEquals(List.of(1, 2), decisions);
+    }
+
+    // Counts decisions; wake-ups are forwarded only when asked to
+    static Controller countingController(List<Integer> decisions, boolean wakeUps) {
+      BasicController delegate = new BasicController(2, 8);
+      delegate.initialize(createLayout());
+      return new Controller() {
+        @Override
+        public void initialize(IntersectionLayout layout) {}
+
+        @Override
+        public List<SignalCommand> decide(IntersectionState state) {
+          decisions.add(state.step());
+          return delegate.decide(state);
+        }
+
+        @Override
+        public int nextDecisionStep(IntersectionState state) {
+          return wakeUps ? delegate.nextDecisionStep(state) : state.step() + 1;
+        }
+
+        @Override
+        public List<QueueTrigger> queueTriggers(IntersectionState state) {
+          return wakeUps ? delegate.queueTriggers(state) : List.of();
+        }
+      };
+    }
+
+    @Test
+    @DisplayName("Basic controller results do not change")
+    void Basic_controller_results_do_not_change() {
+      List<Integer> wakingDecisions = new ArrayList<>();
+      List<Integer> everyStepDecisions = new ArrayList<>();
+      Intersection intersection = createIntersection(countingController(wakingDecisions, true));
+      Intersection reference = createIntersection(countingController(everyStepDecisions, false));
+
+      for (int step = 0; step < 200; step++) {
+        if (step % 7 == 0) {
+          Direction from = Direction.values()[step % 4];
+          for (Intersection i : List.of(intersection, reference)) {
+            i.addVehicle(new Vehicle("v" + step, mv(from, from.opposite())));
+          }
+        }
+        assertEquals(reference.step(), intersection.step());
+      }
+
+      assertEquals(200, everyStepDecisions.size());
+      assertTrue(wakingDecisions.size() < 150);
+    }
+  }
+
   @Nested
   class CurrentIntersectionStateTest {
     @Test
@@ -892,5 +1518,84 @@ public class IntersectionTest {
       assertTrue(state.vehiclesOnIntersection().contains(mv(Direction.SOUTH, Direction.NORTH)));
       assertFalse(state.vehiclesOnIntersection().contains(mv(Direction.SOUTH, Direction.EAST)));
     }
+
+    @Test
+    @DisplayName("State instance is refreshed in place between steps")
+    void State_instance_is_refreshed_in_place_between_steps() {
+      Controller controller = Mockito.mock(Controller.class);
+      List<Integer> waitingSouth = new ArrayList<>();
+      List<IntersectionState> capturedStates = new ArrayList<>();
+      Mockito.when(controller.decide(Mockito.any()))
+          .thenAnswer(
+              inv -> {
+                IntersectionState state = inv.getArgument(0);
+                capturedStates.add(state);
+                waitingSouth.add(state.waitingPerRoad().get(Direction.SOUTH));
+                return List.of(new SignalCommand("sg-south", SignalState.GREEN));
+              });
+
+      Intersection intersection = createIntersection(controller);
+      intersection.addVehicle(new Vehicle("v1", mv(Direction.SOUTH, Direction.NORTH)));
+
+      intersection.step();
+      intersection.step();
+
+      assertEquals(List.of(1, 0), waitingSouth);
+      assertSame(capturedStates.get(0), capturedStates.get(1));
+      assertEquals(2, capturedStates.get(1).step());
+    }
+  }
+
+  @Nested
+  class ExitBlockingTest {
+    @Test
+    @DisplayName("Vehicle heading for a blocked exit stays queued on green")
+    void Vehicle_heading_for_a_blocked_exit_stays_queued_on_green() {
+      Intersection intersection = createIntersection(greenController("sg-west"));
+      intersection.addVehicle("v1", mv(Direction.WEST, Direction.EAST));
+      intersection.addVehicle("v2", mv(Direction.WEST, Direction.EAST));
+      intersection.setExitBlocked(Direction.EAST, true);
+
+      StepResult first = intersection.step();
+      StepResult second = intersection.step();
+
+      assertEquals(2, first.queueLengths().get("west-0"));
+      assertTrue(second.leftIntersection().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Unblocked exit lets vehicles enter again")
+    void Unblocked_exit_lets_vehicles_enter_again() {
+      Intersection intersection = createIntersection(greenController("sg-west"));
+      intersection.addVehicle("v1", mv(Direction.WEST, Direction.EAST));
+      intersection.setExitBlocked(Direction.EAST, true);
+      intersection.step();
+
+      intersection.setExitBlocked(Direction.EAST, false);
+      intersection.step();
+
+      assertEquals(List.of("v1"), intersection.step().leftIntersection());
+    }
+
+    @Test
+    @DisplayName("Blocked exit does not hold other movements back")
+    void Blocked_exit_does_not_hold_other_movements_back() {
+      Intersection intersection = createIntersection(greenController("sg-west"));
+      intersection.addVehicle("v1", mv(Direction.WEST, Direction.SOUTH));
+      intersection.setExitBlocked(Direction.EAST, true);
+
+      intersection.step();
+
+      assertEquals(List.of("v1"), intersection.step().leftIntersection());
+    }
+
+    @Test
+    @DisplayName("Setting blocked exit throws NullPointerException when exit is null")
+    void Setting_blocked_exit_throws_NullPointerException_when_exit_is_null() {
+      Intersection intersection = createIntersection(fixedController());
+      Exception e =
+          assertThrows(NullPointerException.class, () -> intersection.setExitBlocked(null, true));
+      assertEquals("exit cannot be null", e.getMessage());
+    }
   }
 }
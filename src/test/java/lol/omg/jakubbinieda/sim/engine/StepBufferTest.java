@@ -0,0 +1,68 @@
+package lol.omg.jakubbinieda.sim.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+import java.util.Map;
+import lol.omg.jakubbinieda.sim.model.Direction;
+import lol.omg.jakubbinieda.sim.model.Movement;
+import lol.omg.jakubbinieda.sim.signal.SignalState;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class StepBufferTest {
+  static final Movement STRAIGHT = new Movement(Direction.SOUTH, Direction.NORTH);
+
+  @Test
+  @DisplayName("Filled buffer converts to step result")
+  public void Filled_buffer_converts_to_step_result() {
+    VehicleIdTable ids = new VehicleIdTable();
+    StepBuffer buffer = new StepBuffer();
+    buffer.begin(4, 1, 2, ids);
+    buffer.setSignalState(0, "sg-south", SignalState.GREEN);
+    buffer.setQueueLength(0, "south-0", 3);
+    buffer.setQueueLength(1, "east-0", 0);
+    buffer.addLeftVehicle(ids.add("v1"), STRAIGHT);
+
+    assertEquals(
+        new StepResult(
+            4,
+            Map.of("sg-south", SignalState.GREEN),
+            List.of("v1"),
+            Map.of("south-0", 3, "east-0", 0)),
+        buffer.toStepResult());
+  }
+
+  @Test
+  @DisplayName("Beginning a step clears vehicles that left")
+  public void Beginning_a_step_clears_vehicles_that_left() {
+    VehicleIdTable ids = new VehicleIdTable();
+    StepBuffer buffer = new StepBuffer();
+    buffer.begin(1, 0, 0, ids);
+    for (int i = 0; i < 20; i++) {
+      buffer.addLeftVehicle(ids.add("v" + i), STRAIGHT);
+    }
+    assertEquals(20, buffer.getLeftCount());
+    assertEquals(19, buffer.getLeftVehicle(19));
+    assertEquals("v19", buffer.getLeftVehicleId(19));
+    assertEquals(STRAIGHT, buffer.getLeftMovement(19));
+
+    buffer.begin(2, 0, 0, ids);
+    assertEquals(0, buffer.getLeftCount());
+    assertEquals(List.of(), buffer.copyLeftIntersection());
+  }
+
+  @Test
+  @DisplayName("Accessors throw IndexOutOfBoundsException past the filled size")
+  public void Accessors_throw_IndexOutOfBoundsException_past_the_filled_size() {
+    StepBuffer buffer = new StepBuffer();
+    buffer.begin(1, 1, 1, new VehicleIdTable());
+
+    assertNull(buffer.getSignalState(0));
+    assertThrows(IndexOutOfBoundsException.class, () -> buffer.getSignalState(1));
+    assertThrows(IndexOutOfBoundsException.class, () -> buffer.getQueueLength(1));
+    assertThrows(IndexOutOfBoundsException.class, () -> buffer.getLeftVehicleId(0));
+  }
+}
@@ -0,0 +1,119 @@
+package lol.omg.jakubbinieda.sim.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class TimingWheelTest {
+  static List<Integer> pollAll(TimingWheel wheel) {
+    List<Integer> handles = new ArrayList<>();
+    for (int handle = wheel.pollDue(); handle != TimingWheel.NONE; handle = wheel.pollDue()) {
+      handles.add(handle);
+    }
+    return handles;
+  }
+
+  @Test
+  @DisplayName("Handles come out at their due step")
+  public void Handles_come_out_at_their_due_step() {
+    TimingWheel wheel = new TimingWheel();
+    wheel.schedule(0, 3);
+    wheel.schedule(1, 1);
+    wheel.schedule(2, 3);
+
+    wheel.advanceTo(1);
+    assertEquals(List.of(1), pollAll(wheel));
+    wheel.advanceTo(2);
+    assertEquals(List.of(), pollAll(wheel));
+    wheel.advanceTo(3);
+    assertEquals(List.of(0, 2), pollAll(wheel));
+    assertEquals(0, wheel.size());
+  }
+
+  @Test
+  @DisplayName("Cascaded handles keep scheduling order")
+  public void Cascaded_handles_keep_scheduling_order() {
+    TimingWheel wheel = new TimingWheel();
+    wheel.schedule(0, 5_000);
+    for (int step = 1; step < 5_000; step++) {
+      wheel.advanceTo(step);
+      assertEquals(List.of(), pollAll(wheel));
+      if (step == 4_990) {
+        wheel.schedule(1, 5_000);
+      }
+    }
+
+    wheel.advanceTo(5_000);
+    assertEquals(List.of(0, 1), pollAll(wheel));
+  }
+
+  @Test
+  @DisplayName("Stepping matches a sorted schedule")
+  public void Stepping_matches_a_sorted_schedule() {
+    TimingWheel wheel = new TimingWheel();
+    Random random = new Random(5);
+    List<List<Integer>> expected = new ArrayList<>();
+    for (int step = 0; step <= 20_000; step++) {
+      expected.add(new ArrayList<>());
+    }
+
+    int handle = 0;
+    for (int step = 1; step <= 10_000; step++) {
+      wheel.advanceTo(step);
+      assertEquals(expected.get(step), pollAll(wheel));
+
+      int due = step + 1 + random.nextInt(random.nextBoolean() ? 40 : 9_000);
+      wheel.schedule(handle, due);
+      expected.get(due).add(handle++);
+    }
+  }
+
+  @Test
+  @DisplayName("Next due allows jumping over empty steps")
+  public void Next_due_allows_jumping_over_empty_steps() {
+    TimingWheel wheel = new TimingWheel();
+    assertEquals(Integer.MAX_VALUE, wheel.nextDue());
+
+    wheel.schedule(0, 10);
+    wheel.schedule(1, 300_000);
+    assertEquals(10, wheel.nextDue());
+
+    wheel.advanceTo(10);
+    assertEquals(10, wheel.nextDue());
+    assertEquals(List.of(0), pollAll(wheel));
+
+    int step = wheel.nextDue();
+    while (step < 300_000) {
+      assertEquals(List.of(), pollAll(wheel));
+      wheel.advanceTo(step);
+      step = wheel.nextDue();
+    }
+    assertEquals(300_000, step);
+    wheel.advanceTo(step);
+    assertEquals(List.of(1), pollAll(wheel));
+  }
+
+  @Test
+  @DisplayName("Scheduling throws IllegalArgumentException when step is not in the future")
+  public void Scheduling_throws_IllegalArgumentException_when_step_is_not_in_the_future() {
+    TimingWheel wheel = new TimingWheel();
+    wheel.advanceTo(4);
+
+    Exception e = assertThrows(IllegalArgumentException.class, () -> wheel.schedule(0, 4));
+    assertEquals("Cannot schedule at step 4 when current step is 4", e.getMessage());
+  }
+
+  @Test
+  @DisplayName("Advancing throws IllegalArgumentException when going backwards")
+  public void Advancing_throws_IllegalArgumentException_when_going_backwards() {
+    TimingWheel wheel = new TimingWheel();
+    wheel.advanceTo(4);
+
+    assertThrows(IllegalArgumentException.class, () -> wheel.advanceTo(3));
+  }
+}
@@ -0,0 +1,135 @@
+package lol.omg.jakubbinieda.sim.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import lol.omg.jakubbinieda.sim.model.Direction;
+import lol.omg.jakubbinieda.sim.model.Movement;
+import lol.omg.jakubbinieda.sim.model.Vehicle;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class VehicleArchiveTest {
+  static Vehicle exited(String id) {
+    Vehicle vehicle = new Vehicle(id, new Movement(Direction.SOUTH, Direction.NORTH));
+    vehicle.startCrossing(1);
+    vehicle.tickCrossing();
+    return vehicle;
+  }
+
+  @Test
+  @DisplayName("Construction throws IllegalArgumentException when capacity is negative")
+  public void Construction_throws_IllegalArgumentException_when_capacity_is_negative() {
+    Exception e = assertThrows(IllegalArgumentException.class, () -> new VehicleArchive(-1));
+    assertEquals("capacity cannot be negative", e.getMessage());
+  }
+
+  @Test
+  @DisplayName("Retiring throws NullPointerException when vehicle is null")
+  public void Retiring_throws_NullPointerException_when_vehicle_is_null() {
+    VehicleArchive archive = new VehicleArchive(4);
+    Exception e = assertThrows(NullPointerException.class, () -> archive.retire(null, 1));
+    assertEquals("vehicle cannot be null", e.getMessage());
+  }
+
+  @Test
+  @DisplayName("Retiring throws IllegalStateException when vehicle has not exited")
+  public void Retiring_throws_IllegalStateException_when_vehicle_has_not_exited() {
+    VehicleArchive archive = new VehicleArchive(4);
+    Vehicle vehicle = new Vehicle("v1", new Movement(Direction.SOUTH, Direction.NORTH));
+
+    Exception e = assertThrows(IllegalStateException.class, () -> archive.retire(vehicle, 1));
+    assertEquals("Cannot retire vehicle when state is QUEUED", e.getMessage());
+  }
+
+  @Test
+  @DisplayName("Retiring throws IllegalArgumentException when vehicle was already retired")
+  public void Retiring_throws_IllegalArgumentException_when_vehicle_was_already_retired() {
+    VehicleArchive archive = new VehicleArchive(4);
+    Vehicle vehicle = exited("v1");
+    archive.retire(vehicle, 1);
+
+    Exception e = assertThrows(IllegalArgumentException.class, () -> archive.retire(vehicle, 2));
+    assertEquals("Vehicle with ID v1 already retired", e.getMessage());
+  }
+
+  @Test
+  @DisplayName("Retired vehicle is summarized")
+  public void Retired_vehicle_is_summarized() {
+    VehicleArchive archive = new VehicleArchive(4);
+    archive.retire(exited("v1"), 7);
+
+    assertTrue(archive.contains("v1"));
+    assertFalse(archive.contains("v2"));
+    assertEquals(
+        List.of(new ArchivedVehicle("v1", new Movement(Direction.SOUTH, Direction.NORTH), 0, 7)),
+        archive.getRecent());
+  }
+
+  @Test
+  @DisplayName("Oldest summaries are dropped when capacity is reached")
+  public void Oldest_summaries_are_dropped_when_capacity_is_reached() {
+    VehicleArchive archive = new VehicleArchive(2);
+    archive.retire(exited("v1"), 1);
+    archive.retire(exited("v2"), 2);
+    archive.retire(exited("v3"), 3);
+
+    assertEquals(
+        List.of("v2", "v3"), archive.getRecent().stream().map(ArchivedVehicle::id).toList());
+    assertEquals(3, archive.getRetiredCount());
+    assertTrue(archive.contains("v1"));
+  }
+
+  @Test
+  @DisplayName("Zero capacity keeps only IDs")
+  public void Zero_capacity_keeps_only_IDs() {
+    VehicleArchive archive = new VehicleArchive(0);
+    archive.retire(exited("v1"), 1);
+
+    assertTrue(archive.getRecent().isEmpty());
+    assertTrue(archive.contains("v1"));
+    assertEquals(1, archive.getRetiredCount());
+  }
+
+  @Test
+  @DisplayName("Setting ID retention throws IllegalArgumentException when below capacity")
+  public void Setting_ID_retention_throws_IllegalArgumentException_when_below_capacity() {
+    VehicleArchive archive = new VehicleArchive(4);
+    Exception e = assertThrows(IllegalArgumentException.class, () -> archive.setIdRetention(3));
+    assertEquals("retention cannot be less than capacity", e.getMessage());
+  }
+
+  @Test
+  @DisplayName("Setting ID retention throws IllegalStateException when vehicles have been retired")
+  public void Setting_ID_retention_throws_IllegalStateException_when_vehicles_have_been_retired() {
+    VehicleArchive archive = new VehicleArchive(0);
+    archive.retire(exited("v1"), 1);
+
+    Exception e = assertThrows(IllegalStateException.class, () -> archive.setIdRetention(8));
+    assertEquals("Cannot set ID retention when vehicles have been retired", e.getMessage());
+  }
+
+  @Test
+  @DisplayName("Bounded ID retention forgets the oldest IDs")
+  public void Bounded_ID_retention_forgets_the_oldest_IDs() {
+    VehicleIdTable idTable = new VehicleIdTable();
+    VehicleArchive archive = new VehicleArchive(1, idTable);
+    archive.setIdRetention(2);
+    for (int i = 1; i <= 1000; i++) {
+      archive.retire(exited("v" + i), i);
+    }
+
+    assertFalse(archive.contains("v998"));
+    assertTrue(archive.contains("v999"));
+    assertTrue(archive.contains("v1000"));
+    assertEquals(List.of("v1000"), archive.getRecent().stream().map(ArchivedVehicle::id).toList());
+    assertEquals(1000, archive.getRetiredCount());
+    assertEquals(2, idTable.size());
+
+    archive.retire(exited("v1"), 1001);
+    assertTrue(archive.contains("v1"));
+  }
+}
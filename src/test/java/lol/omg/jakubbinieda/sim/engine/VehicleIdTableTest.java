@@ -0,0 +1,134 @@
+package lol.omg.jakubbinieda.sim.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class VehicleIdTableTest {
+  @Test
+  @DisplayName("IDs are given dense handles in insertion order")
+  public void IDs_are_given_dense_handles_in_insertion_order() {
+    VehicleIdTable table = new VehicleIdTable();
+    for (int i = 0; i < 1000; i++) {
+      assertEquals(i, table.add("v" + i));
+    }
+
+    assertEquals(1000, table.size());
+    for (int i = 0; i < 1000; i++) {
+      assertEquals(i, table.lookup("v" + i));
+      assertEquals("v" + i, table.resolve(i));
+    }
+  }
+
+  @Test
+  @DisplayName("Adding throws IllegalArgumentException when ID already exists")
+  public void Adding_throws_IllegalArgumentException_when_ID_already_exists() {
+    VehicleIdTable table = new VehicleIdTable();
+    table.add("v1");
+
+    Exception e = assertThrows(IllegalArgumentException.class, () -> table.add("v1"));
+    assertEquals("Vehicle with ID v1 already exists", e.getMessage());
+  }
+
+  @Test
+  @DisplayName("Adding throws NullPointerException when ID is null")
+  public void Adding_throws_NullPointerException_when_ID_is_null() {
+    VehicleIdTable table = new VehicleIdTable();
+    Exception e = assertThrows(NullPointerException.class, () -> table.add(null));
+    assertEquals("id cannot be null", e.getMessage());
+  }
+
+  @Test
+  @DisplayName("Interning returns the existing handle")
+  public void Interning_returns_the_existing_handle() {
+    VehicleIdTable table = new VehicleIdTable();
+    int handle = table.add("v1");
+
+    assertEquals(handle, table.intern("v1"));
+    assertEquals(1, table.intern("v2"));
+    assertEquals(2, table.size());
+  }
+
+  @Test
+  @DisplayName("Unknown IDs are not found")
+  public void Unknown_IDs_are_not_found() {
+    VehicleIdTable table = new VehicleIdTable();
+    table.add("v1");
+
+    assertEquals(VehicleIdTable.NONE, table.lookup("v2"));
+    Exception e = assertThrows(IllegalArgumentException.class, () -> table.resolve(1));
+    assertEquals("Unknown vehicle handle 1", e.getMessage());
+  }
+
+  @Test
+  @DisplayName("Colliding hash codes are kept apart")
+  public void Colliding_hash_codes_are_kept_apart() {
+    VehicleIdTable table = new VehicleIdTable();
+    assertEquals("Aa".hashCode(), "BB".hashCode());
+
+    int first = table.add("Aa");
+    int second = table.add("BB");
+
+    assertEquals(first, table.lookup("Aa"));
+    assertEquals(second, table.lookup("BB"));
+  }
+
+  @Test
+  @DisplayName("Released handle is forgotten and reused")
+  public void Released_handle_is_forgotten_and_reused() {
+    VehicleIdTable table = new VehicleIdTable();
+    table.add("v1");
+    int handle = table.add("v2");
+    table.release(handle);
+
+    assertEquals(VehicleIdTable.NONE, table.lookup("v2"));
+    assertEquals(1, table.size());
+    Exception e = assertThrows(IllegalArgumentException.class, () -> table.resolve(handle));
+    assertEquals("Unknown vehicle handle 1", e.getMessage());
+
+    assertEquals(handle, table.add("v3"));
+    assertEquals("v3", table.resolve(handle));
+  }
+
+  @Test
+  @DisplayName("Releasing throws IllegalArgumentException when handle is unknown")
+  public void Releasing_throws_IllegalArgumentException_when_handle_is_unknown() {
+    VehicleIdTable table = new VehicleIdTable();
+    int handle = table.add("v1");
+    table.release(handle);
+
+    Exception e = assertThrows(IllegalArgumentException.class, () -> table.release(handle));
+    assertEquals("Unknown vehicle handle 0", e.getMessage());
+  }
+
+  @Test
+  @DisplayName("Releasing keeps the remaining IDs findable")
+  public void Releasing_keeps_the_remaining_IDs_findable() {
+    VehicleIdTable table = new VehicleIdTable();
+    int[] handles = new int[1000];
+    for (int i = 0; i < 1000; i++) {
+      handles[i] = table.add("v" + i);
+    }
+    for (int i = 0; i < 1000; i += 3) {
+      table.release(handles[i]);
+    }
+
+    for (int i = 0; i < 1000; i++) {
+      assertEquals(i % 3 == 0 ? VehicleIdTable.NONE : handles[i], table.lookup("v" + i));
+    }
+  }
+
+  @Test
+  @DisplayName("Releasing one of colliding IDs keeps the other")
+  public void Releasing_one_of_colliding_IDs_keeps_the_other() {
+    VehicleIdTable table = new VehicleIdTable();
+    int first = table.add("Aa");
+    int second = table.add("BB");
+    table.release(first);
+
+    assertEquals(VehicleIdTable.NONE, table.lookup("Aa"));
+    assertEquals(second, table.lookup("BB"));
+  }
+}
@@ -0,0 +1,101 @@
+package lol.omg.jakubbinieda.sim.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import lol.omg.jakubbinieda.sim.model.Direction;
+import lol.omg.jakubbinieda.sim.model.Movement;
+import lol.omg.jakubbinieda.sim.model.Vehicle;
+import lol.omg.jakubbinieda.sim.model.Vehicle.State;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class VehicleStoreTest {
+  static final Movement STRAIGHT = new Movement(Direction.SOUTH, Direction.NORTH);
+
+  @Test
+  @DisplayName("Added vehicle is queued")
+  public void Added_vehicle_is_queued() {
+    VehicleStore store = new VehicleStore();
+    int handle = store.add(1, STRAIGHT, 2, 5, null);
+
+    assertEquals(1, store.id(handle));
+    assertEquals(STRAIGHT, store.movement(handle));
+    assertEquals(STRAIGHT.ordinal(), store.movementOrdinal(handle));
+    assertEquals(State.QUEUED, store.state(handle));
+    assertEquals(1, store.size());
+  }
+
+  @Test
+  @DisplayName("Wait time is frozen when crossing starts")
+  public void Wait_time_is_frozen_when_crossing_starts() {
+    VehicleStore store = new VehicleStore();
+    int handle = store.add(1, STRAIGHT, 2, 5, null);
+    assertEquals(5, store.waitTime(handle, 8));
+
+    store.startCrossing(handle, 9, 2);
+    assertEquals(6, store.waitTime(handle, 20));
+    assertEquals(State.CROSSING, store.state(handle));
+    store.finishCrossing(handle);
+    assertEquals(State.EXITED, store.state(handle));
+  }
+
+  @Test
+  @DisplayName("Façade is kept in step with the store")
+  public void Facade_is_kept_in_step_with_the_store() {
+    VehicleStore store = new VehicleStore();
+    Vehicle vehicle = new Vehicle("v1", STRAIGHT);
+    int handle = store.add(1, STRAIGHT, 0, 0, vehicle);
+
+    store.startCrossing(handle, 0, 3);
+    assertEquals(State.CROSSING, vehicle.getState());
+    store.finishCrossing(handle);
+    assertEquals(State.EXITED, vehicle.getState());
+    assertEquals(0, vehicle.getCrossingTimeRemaining());
+  }
+
+  @Test
+  @DisplayName("Finishing throws IllegalStateException when vehicle is not crossing")
+  public void Finishing_throws_IllegalStateException_when_vehicle_is_not_crossing() {
+    VehicleStore store = new VehicleStore();
+    int handle = store.add(1, STRAIGHT, 0, 0, null);
+
+    Exception e = assertThrows(IllegalStateException.class, () -> store.finishCrossing(handle));
+    assertEquals("Cannot finish crossing when state is QUEUED", e.getMessage());
+  }
+
+  @Test
+  @DisplayName("Releasing throws IllegalStateException when vehicle has not exited")
+  public void Releasing_throws_IllegalStateException_when_vehicle_has_not_exited() {
+    VehicleStore store = new VehicleStore();
+    int handle = store.add(1, STRAIGHT, 0, 0, null);
+
+    Exception e = assertThrows(IllegalStateException.class, () -> store.release(handle));
+    assertEquals("Cannot release vehicle when state is QUEUED", e.getMessage());
+  }
+
+  @Test
+  @DisplayName("Released handle is reused")
+  public void Released_handle_is_reused() {
+    VehicleStore store = new VehicleStore();
+    int first = store.add(1, STRAIGHT, 0, 0, null);
+    store.startCrossing(first, 0, 1);
+    store.finishCrossing(first);
+    store.release(first);
+
+    assertEquals(VehicleIdTable.NONE, store.id(first));
+    assertEquals(0, store.size());
+    assertEquals(first, store.add(2, STRAIGHT, 0, 0, null));
+  }
+
+  @Test
+  @DisplayName("Store grows past its initial capacity")
+  public void Store_grows_past_its_initial_capacity() {
+    VehicleStore store = new VehicleStore();
+    for (int i = 0; i < 100; i++) {
+      assertEquals(i, store.add(i, STRAIGHT, 0, 0, null));
+    }
+    assertEquals(99, store.id(99));
+    assertEquals(100, store.size());
+  }
+}
@@ -0,0 +1,26 @@
+package lol.omg.jakubbinieda.sim.engine.crossing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import lol.omg.jakubbinieda.sim.model.Direction;
+import lol.omg.jakubbinieda.sim.model.Movement;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class ConstantCrossingTimeTest {
+  @Test
+  @DisplayName("Construction throws IllegalArgumentException when steps is not positive")
+  public void Construction_throws_IllegalArgumentException_when_steps_is_not_positive() {
+    Exception e = assertThrows(IllegalArgumentException.class, () -> new ConstantCrossingTime(0));
+    assertEquals("steps must be positive", e.getMessage());
+  }
+
+  @Test
+  @DisplayName("Every vehicle gets the same crossing time")
+  public void Every_vehicle_gets_the_same_crossing_time() {
+    CrossingTimeModel model = new ConstantCrossingTime(4);
+    assertEquals(4, model.crossingTime("v1", new Movement(Direction.NORTH, Direction.SOUTH)));
+    assertEquals(4, model.crossingTime("v2", new Movement(Direction.EAST, Direction.SOUTH)));
+  }
+}
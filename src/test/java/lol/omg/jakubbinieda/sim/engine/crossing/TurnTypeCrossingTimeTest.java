@@ -0,0 +1,45 @@
+package lol.omg.jakubbinieda.sim.engine.crossing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Map;
+import lol.omg.jakubbinieda.sim.model.Direction;
+import lol.omg.jakubbinieda.sim.model.Movement;
+import lol.omg.jakubbinieda.sim.model.TurnType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class TurnTypeCrossingTimeTest {
+  static final Map<TurnType, Integer> TIMES =
+      Map.of(TurnType.STRAIGHT, 2, TurnType.RIGHT, 1, TurnType.LEFT, 4, TurnType.U_TURN, 6);
+
+  @Test
+  @DisplayName("Crossing time depends on turn type")
+  public void Crossing_time_depends_on_turn_type() {
+    CrossingTimeModel model = new TurnTypeCrossingTime(TIMES);
+    assertEquals(2, model.crossingTime("v1", new Movement(Direction.SOUTH, Direction.NORTH)));
+    assertEquals(1, model.crossingTime("v1", new Movement(Direction.SOUTH, Direction.EAST)));
+    assertEquals(4, model.crossingTime("v1", new Movement(Direction.SOUTH, Direction.WEST)));
+  }
+
+  @Test
+  @DisplayName("Construction throws IllegalArgumentException when turn type is missing")
+  public void Construction_throws_IllegalArgumentException_when_turn_type_is_missing() {
+    Exception e =
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> new TurnTypeCrossingTime(Map.of(TurnType.STRAIGHT, 1)));
+    assertEquals("Missing crossing time for RIGHT", e.getMessage());
+  }
+
+  @Test
+  @DisplayName("Construction throws IllegalArgumentException when time is not positive")
+  public void Construction_throws_IllegalArgumentException_when_time_is_not_positive() {
+    Map<TurnType, Integer> times =
+        Map.of(TurnType.STRAIGHT, 1, TurnType.RIGHT, 0, TurnType.LEFT, 1, TurnType.U_TURN, 1);
+    Exception e =
+        assertThrows(IllegalArgumentException.class, () -> new TurnTypeCrossingTime(times));
+    assertEquals("Crossing time for RIGHT must be positive", e.getMessage());
+  }
+}
@@ -57,4 +57,20 @@ public class RandomBalancerTest {
 
     assertEquals(lanes.get(random.nextInt(lanes.size())), balancer.selectLane(lanes));
   }
+
+  @Test
+  @DisplayName("Selecting lanes for a batch draws once per vehicle in order")
+  public void Selecting_lanes_for_a_batch_draws_once_per_vehicle_in_order() {
+    Lane lane1 =
+        new Lane("lane1", Direction.NORTH, Set.of(new Movement(Direction.NORTH, Direction.SOUTH)));
+    Lane lane2 =
+        new Lane("lane2", Direction.NORTH, Set.of(new Movement(Direction.NORTH, Direction.SOUTH)));
+    List<Lane> lanes = List.of(lane1, lane2);
+
+    RandomBalancer single = new RandomBalancer(new Random(7));
+    List<Lane> expected = List.of(single.selectLane(lanes), single.selectLane(lanes));
+
+    RandomBalancer batch = new RandomBalancer(new Random(7));
+    assertEquals(expected, batch.selectLanes(List.of(lanes, lanes)));
+  }
 }
@@ -0,0 +1,57 @@
+package lol.omg.jakubbinieda.sim.factories;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import lol.omg.jakubbinieda.sim.controller.BasicController;
+import lol.omg.jakubbinieda.sim.engine.loadbalancer.RandomBalancer;
+import lol.omg.jakubbinieda.sim.model.Direction;
+import lol.omg.jakubbinieda.sim.network.Link;
+import lol.omg.jakubbinieda.sim.network.Network;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class SimpleNetworkFactoryTest {
+  static Network grid(int rows, int columns) {
+    return SimpleNetworkFactory.getInstance()
+        .supplyGrid(rows, columns, 2, () -> new BasicController(2, 6), RandomBalancer::new);
+  }
+
+  @Test
+  @DisplayName("There is only one instance")
+  public void There_is_only_one_instance() {
+    assertSame(SimpleNetworkFactory.getInstance(), SimpleNetworkFactory.getInstance());
+  }
+
+  @Test
+  @DisplayName("Grid links neighbours both ways")
+  public void Grid_links_neighbours_both_ways() {
+    Network network = grid(2, 3);
+
+    assertEquals(6, network.getIntersectionIds().size());
+    assertEquals(14, network.getLinks().size());
+    List<Link> links = network.getLinks();
+    assertTrue(
+        links.contains(new Link("r0c0-r0c1", "r0c0", Direction.EAST, "r0c1", Direction.WEST, 2)));
+    assertTrue(
+        links.contains(new Link("r1c2-r0c2", "r1c2", Direction.NORTH, "r0c2", Direction.SOUTH, 2)));
+  }
+
+  @Test
+  @DisplayName("Single intersection grid has no links")
+  public void Single_intersection_grid_has_no_links() {
+    Network network = grid(1, 1);
+    assertEquals(List.of("r0c0"), network.getIntersectionIds());
+    assertEquals(List.of(), network.getLinks());
+  }
+
+  @Test
+  @DisplayName("Supplying throws IllegalArgumentException when grid is empty")
+  public void Supplying_throws_IllegalArgumentException_when_grid_is_empty() {
+    Exception e = assertThrows(IllegalArgumentException.class, () -> grid(0, 3));
+    assertEquals("Grid must have at least one row and column", e.getMessage());
+  }
+}
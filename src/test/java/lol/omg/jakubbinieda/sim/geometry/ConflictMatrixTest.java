@@ -0,0 +1,105 @@
+package lol.omg.jakubbinieda.sim.geometry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import lol.omg.jakubbinieda.sim.model.Direction;
+import lol.omg.jakubbinieda.sim.model.Movement;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+public class ConflictMatrixTest {
+  private final ConflictMatrix matrix = ConflictMatrix.getInstance();
+
+  static Movement mv(Direction from, Direction to) {
+    return new Movement(from, to);
+  }
+
+  @Test
+  @DisplayName("getInstance returns singleton")
+  public void getInstance_returns_singleton() {
+    assertSame(ConflictMatrix.INSTANCE, ConflictMatrix.getInstance());
+  }
+
+  @ParameterizedTest
+  @EnumSource(Direction.class)
+  @DisplayName("Movements from the same approach do not conflict")
+  public void Movements_from_the_same_approach_do_not_conflict(Direction from) {
+    for (Direction a : Direction.values()) {
+      for (Direction b : Direction.values()) {
+        assertFalse(matrix.conflicts(mv(from, a), mv(from, b)));
+      }
+    }
+  }
+
+  @Test
+  @DisplayName("Opposing straights do not conflict")
+  public void Opposing_straights_do_not_conflict() {
+    Movement a = mv(Direction.SOUTH, Direction.NORTH);
+    Movement b = mv(Direction.NORTH, Direction.SOUTH);
+    assertFalse(matrix.conflicts(a, b));
+  }
+
+  @Test
+  @DisplayName("Left conflicts with opposing straight")
+  public void Left_conflicts_with_opposing_straight() {
+    Movement a = mv(Direction.SOUTH, Direction.WEST);
+    Movement b = mv(Direction.NORTH, Direction.SOUTH);
+    assertTrue(matrix.conflicts(a, b));
+  }
+
+  @Test
+  @DisplayName("Opposing lefts do not conflict")
+  public void Opposing_lefts_do_not_conflict() {
+    Movement a = mv(Direction.SOUTH, Direction.WEST);
+    Movement b = mv(Direction.NORTH, Direction.EAST);
+    assertFalse(matrix.conflicts(a, b));
+  }
+
+  @Test
+  @DisplayName("Perpendicular rights do not conflict")
+  public void Perpendicular_rights_do_not_conflict() {
+    Movement a = mv(Direction.SOUTH, Direction.EAST);
+    Movement b = mv(Direction.EAST, Direction.NORTH);
+    assertFalse(matrix.conflicts(a, b));
+  }
+
+  @Test
+  @DisplayName("Perpendicular straight and right conflict")
+  public void Perpendicular_straight_and_right_conflict() {
+    Movement a = mv(Direction.SOUTH, Direction.NORTH);
+    Movement b = mv(Direction.EAST, Direction.NORTH);
+    assertTrue(matrix.conflicts(a, b));
+  }
+
+  @Test
+  @DisplayName("Conflicts are symmetric")
+  public void Conflicts_are_symmetric() {
+    for (int a = 0; a < Movement.COUNT; a++) {
+      for (int b = 0; b < Movement.COUNT; b++) {
+        assertEquals(
+            matrix.conflicts(Movement.fromOrdinal(a), Movement.fromOrdinal(b)),
+            matrix.conflicts(Movement.fromOrdinal(b), Movement.fromOrdinal(a)));
+      }
+    }
+  }
+
+  @Test
+  @DisplayName("Conflict mask matches pairwise conflicts")
+  public void Conflict_mask_matches_pairwise_conflicts() {
+    Movement movement = mv(Direction.SOUTH, Direction.WEST);
+    int mask = 0;
+    for (int b = 0; b < Movement.COUNT; b++) {
+      if (matrix.conflicts(movement, Movement.fromOrdinal(b))) {
+        mask |= 1 << b;
+      }
+    }
+
+    assertEquals(mask, matrix.conflictMask(movement));
+    assertEquals(mask, matrix.conflictMask(movement.ordinal()));
+  }
+}
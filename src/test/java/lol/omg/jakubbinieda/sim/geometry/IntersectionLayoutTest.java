@@ -4,6 +4,7 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -215,4 +216,23 @@ public class IntersectionLayoutTest {
     assertEquals(road1, layout.getRoad(Direction.NORTH));
     assertEquals(road2, layout.getRoad(Direction.SOUTH));
   }
+
+  @Test
+  @DisplayName("Lanes are listed in road order")
+  public void Lanes_are_listed_in_road_order() {
+    Movement straight = new Movement(Direction.NORTH, Direction.SOUTH);
+    Lane lane1 = new Lane("lane1", Direction.NORTH, Set.of(straight));
+    Lane lane2 = new Lane("lane2", Direction.NORTH, Set.of(straight));
+    Lane lane3 =
+        new Lane("lane3", Direction.SOUTH, Set.of(new Movement(Direction.SOUTH, Direction.NORTH)));
+
+    Map<Direction, Road> roads = new EnumMap<>(Direction.class);
+    roads.put(Direction.NORTH, new Road(Direction.NORTH, List.of(lane1, lane2)));
+    roads.put(Direction.SOUTH, new Road(Direction.SOUTH, List.of(lane3)));
+    IntersectionLayout layout =
+        new IntersectionLayout(
+            roads, List.of(sg("sg", straight, new Movement(Direction.SOUTH, Direction.NORTH))));
+
+    assertEquals(List.of(lane1, lane2, lane3), layout.getLanes());
+  }
 }
@@ -0,0 +1,125 @@
+package lol.omg.jakubbinieda.sim.io;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+class BackgroundStepSinkTest {
+  // Fails with "Disk full" on write number failAt
+  static class RecordingSink implements StepSink {
+    final List<List<String>> written = Collections.synchronizedList(new ArrayList<>());
+    private final int failAt;
+    volatile boolean closed;
+
+    RecordingSink() {
+      this(Integer.MAX_VALUE);
+    }
+
+    RecordingSink(int failAt) {
+      this.failAt = failAt;
+    }
+
+    @Override
+    public void write(List<String> leftVehicles) throws IOException {
+      if (written.size() == failAt) {
+        throw new IOException("Disk full");
+      }
+      written.add(leftVehicles);
+    }
+
+    @Override
+    public void close() {
+      closed = true;
+    }
+  }
+
+  static List<List<String>> statuses(int count) {
+    List<List<String>> statuses = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      statuses.add(i % 3 == 0 ? List.of() : List.of("v" + i));
+    }
+    return statuses;
+  }
+
+  @Nested
+  class WritingTest {
+    @Test
+    @DisplayName("Everything written reaches the sink in order by close")
+    void Everything_written_reaches_the_sink_in_order_by_close() throws IOException {
+      RecordingSink inner = new RecordingSink();
+      List<List<String>> expected = statuses(1000);
+      try (BackgroundStepSink sink = new BackgroundStepSink(inner, 7, 2)) {
+        for (List<String> status : expected) {
+          sink.write(status);
+        }
+      }
+
+      assertEquals(expected, inner.written);
+      assertTrue(inner.closed);
+    }
+
+    @Test
+    @DisplayName("Closing twice closes the sink once")
+    void Closing_twice_closes_the_sink_once() throws IOException {
+      RecordingSink inner = new RecordingSink();
+      BackgroundStepSink sink = new BackgroundStepSink(inner);
+      sink.write(List.of("v1"));
+      sink.close();
+      sink.close();
+
+      assertEquals(List.of(List.of("v1")), inner.written);
+      assertThrows(IllegalStateException.class, () -> sink.write(List.of()));
+    }
+  }
+
+  @Nested
+  class FailureTest {
+    @Test
+    @DisplayName("Write error is thrown by a later write or by close")
+    void Write_error_is_thrown_by_a_later_write_or_by_close() {
+      RecordingSink inner = new RecordingSink(3);
+      BackgroundStepSink sink = new BackgroundStepSink(inner, 2, 1);
+
+      // The writer keeps draining after the failure, so a full queue never blocks the caller
+      IOException e =
+          assertThrows(
+              IOException.class,
+              () -> {
+                for (List<String> status : statuses(100_000)) {
+                  sink.write(status);
+                }
+                sink.close();
+              });
+      assertEquals("Disk full", e.getMessage());
+      assertEquals(3, inner.written.size());
+    }
+
+    @Test
+    @DisplayName("Sink is closed even when writing failed")
+    void Sink_is_closed_even_when_writing_failed() throws IOException {
+      RecordingSink inner = new RecordingSink(0);
+      BackgroundStepSink sink = new BackgroundStepSink(inner);
+      sink.write(List.of("v1"));
+
+      assertThrows(IOException.class, sink::close);
+      assertTrue(inner.closed);
+    }
+  }
+
+  @Test
+  @DisplayName("Non-positive sizes are rejected")
+  void Non_positive_sizes_are_rejected() {
+    RecordingSink inner = new RecordingSink();
+    assertThrows(IllegalArgumentException.class, () -> new BackgroundStepSink(inner, 0, 1));
+    assertThrows(IllegalArgumentException.class, () -> new BackgroundStepSink(inner, 1, 0));
+    assertThrows(NullPointerException.class, () -> new BackgroundStepSink(null));
+  }
+}
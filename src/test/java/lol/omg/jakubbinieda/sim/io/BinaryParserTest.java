@@ -0,0 +1,231 @@
+package lol.omg.jakubbinieda.sim.io;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import lol.omg.jakubbinieda.sim.io.commands.Command;
+import lol.omg.jakubbinieda.sim.io.commands.StepCommand;
+import lol.omg.jakubbinieda.sim.model.Direction;
+import lol.omg.jakubbinieda.sim.model.Movement;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class BinaryParserTest {
+  private static final String INPUT =
+      """
+      {
+        "commands": [
+          { "type": "addVehicle", "vehicleId": "v1", "startRoad": "south", "endRoad": "north" },
+          { "type": "addVehicle", "vehicleId": "łoś", "startRoad": "west", "endRoad": "west" },
+          { "type": "step" },
+          { "type": "step" },
+          { "type": "step" },
+          { "type": "addVehicle", "vehicleId": "v3", "startRoad": "east", "endRoad": "south" },
+          { "type": "step" }
+        ]
+      }
+      """;
+
+  @TempDir Path dir;
+
+  Path convert(String json) throws IOException {
+    Path input = dir.resolve("input.json");
+    Path scenario = dir.resolve("scenario.tls");
+    Files.writeString(input, json);
+    BinaryParser.getInstance().convert(input, scenario);
+    return scenario;
+  }
+
+  List<Command> readAll(Path scenario) throws IOException {
+    List<Command> commands = new ArrayList<>();
+    try (BinaryScenarioReader reader = BinaryParser.getInstance().openScenario(scenario)) {
+      while (reader.hasNext()) {
+        commands.add(reader.next());
+      }
+    }
+    return commands;
+  }
+
+  Path write(int... values) throws IOException {
+    byte[] bytes = new byte[values.length];
+    for (int i = 0; i < values.length; i++) {
+      bytes[i] = (byte) values[i];
+    }
+
+    Path file = dir.resolve("scenario.tls");
+    Files.write(file, bytes);
+    return file;
+  }
+
+  @Nested
+  class ScenarioTest {
+    @Test
+    @DisplayName("Converted scenario reads back the same commands")
+    void Converted_scenario_reads_back_the_same_commands() throws IOException {
+      Path input = dir.resolve("input.json");
+      Files.writeString(input, INPUT);
+      List<Command> expected = new ArrayList<>();
+      try (CommandReader reader = JsonParser.getInstance().openCommands(input)) {
+        while (reader.hasNext()) {
+          expected.add(reader.next());
+        }
+      }
+
+      assertEquals(expected, readAll(convert(INPUT)));
+    }
+
+    @Test
+    @DisplayName("Layout is a dictionary then one varint per command")
+    void Layout_is_a_dictionary_then_one_varint_per_command() throws IOException {
+      Path scenario =
+          convert(
+              """
+              { "commands": [
+                  { "type": "step" },
+                  { "type": "addVehicle", "vehicleId": "ab", "startRoad": "north",
+                    "endRoad": "south" },
+                  { "type": "step" },
+                  { "type": "step" }
+              ] }
+              """);
+
+      int movement = new Movement(Direction.NORTH, Direction.SOUTH).ordinal();
+      assertArrayEquals(
+          new byte[] {
+            0x54, 0x4c, 0x53, 0x43, 1, 1, 2, 'a', 'b', 1 << 1, (byte) (movement << 1 | 1), 2 << 1
+          },
+          Files.readAllBytes(scenario));
+    }
+
+    @Test
+    @DisplayName("Long step runs take a multi-byte varint")
+    void Long_step_runs_take_a_multi_byte_varint() throws IOException {
+      List<Command> commands = readAll(write(0x54, 0x4c, 0x53, 0x43, 1, 0, 0x90, 0x03));
+
+      assertEquals(200, commands.size());
+      assertTrue(commands.stream().allMatch(StepCommand.class::isInstance));
+    }
+
+    @Test
+    @DisplayName("Input without commands converts to an empty scenario")
+    void Input_without_commands_converts_to_an_empty_scenario() throws IOException {
+      assertTrue(readAll(convert("{ \"commands\": [] }")).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Reading past the end throws")
+    void Reading_past_the_end_throws() throws IOException {
+      try (BinaryScenarioReader reader =
+          BinaryParser.getInstance().openScenario(convert("{ \"commands\": [] }"))) {
+        assertFalse(reader.hasNext());
+        assertThrows(NoSuchElementException.class, reader::next);
+      }
+    }
+
+    @Test
+    @DisplayName("Only scenario files are recognised")
+    void Only_scenario_files_are_recognised() throws IOException {
+      assertTrue(BinaryParser.getInstance().isScenario(convert(INPUT)));
+
+      Path json = dir.resolve("other.json");
+      Files.writeString(json, INPUT);
+      assertFalse(BinaryParser.getInstance().isScenario(json));
+      assertFalse(BinaryParser.getInstance().isScenario(write(0x54, 0x4c)));
+    }
+
+    @Test
+    @DisplayName("Wrong magic or version is rejected")
+    void Wrong_magic_or_version_is_rejected() throws IOException {
+      Path json = dir.resolve("other.json");
+      Files.writeString(json, INPUT);
+      assertThrows(IOException.class, () -> BinaryParser.getInstance().openScenario(json));
+
+      Path future = write(0x54, 0x4c, 0x53, 0x43, 2, 0);
+      IOException e =
+          assertThrows(IOException.class, () -> BinaryParser.getInstance().openScenario(future));
+      assertEquals("Unsupported binary scenario version 2", e.getMessage());
+    }
+
+    @Test
+    @DisplayName("Truncated dictionary is rejected")
+    void Truncated_dictionary_is_rejected() throws IOException {
+      Path scenario = write(0x54, 0x4c, 0x53, 0x43, 1, 1, 5, 'a');
+      assertThrows(IOException.class, () -> BinaryParser.getInstance().openScenario(scenario));
+    }
+
+    @Test
+    @DisplayName("Corrupt commands are rejected")
+    void Corrupt_commands_are_rejected() throws IOException {
+      assertThrows(IOException.class, () -> readAll(write(0x54, 0x4c, 0x53, 0x43, 1, 0, 0)));
+      assertThrows(IOException.class, () -> readAll(write(0x54, 0x4c, 0x53, 0x43, 1, 0, 33)));
+      assertThrows(IOException.class, () -> readAll(write(0x54, 0x4c, 0x53, 0x43, 1, 0, 1)));
+      assertThrows(IOException.class, () -> readAll(write(0x54, 0x4c, 0x53, 0x43, 1, 0, 0x80)));
+    }
+
+    @Test
+    @DisplayName("Vehicle without an ID cannot be converted")
+    void Vehicle_without_an_ID_cannot_be_converted() {
+      assertThrows(
+          IOException.class,
+          () ->
+              convert(
+                  """
+                  { "commands": [
+                      { "type": "addVehicle", "startRoad": "north", "endRoad": "south" }
+                  ] }
+                  """));
+    }
+  }
+
+  @Nested
+  class ResultsTest {
+    @Test
+    @DisplayName("Written results read back the same")
+    void Written_results_read_back_the_same() throws IOException {
+      Path file = dir.resolve("output.bin");
+      try (BinaryResultWriter writer = BinaryParser.getInstance().openResults(file)) {
+        writer.write(List.of());
+        writer.write(List.of("v1", "łoś"));
+        writer.write(List.of("v3"));
+      }
+
+      assertEquals(
+          new SimulationOutput(
+              List.of(
+                  new StepStatus(List.of()),
+                  new StepStatus(List.of("v1", "łoś")),
+                  new StepStatus(List.of("v3")))),
+          BinaryParser.getInstance().readResults(file));
+    }
+
+    @Test
+    @DisplayName("Idle step takes one byte")
+    void Idle_step_takes_one_byte() throws IOException {
+      Path file = dir.resolve("output.bin");
+      try (BinaryResultWriter writer = BinaryParser.getInstance().openResults(file)) {
+        writer.write(List.of());
+        writer.close();
+      }
+
+      assertArrayEquals(new byte[] {0x54, 0x4c, 0x53, 0x52, 1, 0}, Files.readAllBytes(file));
+    }
+
+    @Test
+    @DisplayName("Truncated results are rejected")
+    void Truncated_results_are_rejected() throws IOException {
+      Path file = write(0x54, 0x4c, 0x53, 0x52, 1, 2, 2, 'v');
+      assertThrows(IOException.class, () -> BinaryParser.getInstance().readResults(file));
+    }
+  }
+}
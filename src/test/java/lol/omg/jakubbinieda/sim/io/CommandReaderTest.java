@@ -0,0 +1,130 @@
+package lol.omg.jakubbinieda.sim.io;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import lol.omg.jakubbinieda.sim.io.commands.AddVehicleCommand;
+import lol.omg.jakubbinieda.sim.io.commands.Command;
+import lol.omg.jakubbinieda.sim.io.commands.StepCommand;
+import lol.omg.jakubbinieda.sim.model.Direction;
+import lol.omg.jakubbinieda.sim.model.Movement;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CommandReaderTest {
+  @TempDir Path dir;
+
+  List<Command> readAll(String json) throws IOException {
+    Path file = dir.resolve("input.json");
+    Files.writeString(file, json);
+
+    List<Command> commands = new ArrayList<>();
+    try (CommandReader reader = JsonParser.getInstance().openCommands(file)) {
+      while (reader.hasNext()) {
+        commands.add(reader.next());
+      }
+    }
+    return commands;
+  }
+
+  @Test
+  @DisplayName("Reads commands in order")
+  void Reads_commands_in_order() throws IOException {
+    List<Command> commands =
+        readAll(
+            """
+            {
+              "commands": [
+                { "type": "addVehicle", "vehicleId": "v1", "startRoad": "south",
+                  "endRoad": "north" },
+                { "type": "step" },
+                { "type": "addVehicle", "vehicleId": "v2", "startRoad": "west",
+                  "endRoad": "east" }
+              ]
+            }
+            """);
+
+    assertEquals(
+        List.of(
+            new AddVehicleCommand("v1", new Movement(Direction.SOUTH, Direction.NORTH)),
+            new StepCommand(),
+            new AddVehicleCommand("v2", new Movement(Direction.WEST, Direction.EAST))),
+        commands);
+  }
+
+  @Test
+  @DisplayName("Other fields of the input are skipped")
+  void Other_fields_of_the_input_are_skipped() throws IOException {
+    List<Command> commands =
+        readAll(
+            """
+            { "meta": { "source": [1, 2, {"x": []}] }, "commands": [ { "type": "step" } ] }
+            """);
+
+    assertEquals(List.of(new StepCommand()), commands);
+  }
+
+  @Test
+  @DisplayName("Input without commands has none")
+  void Input_without_commands_has_none() throws IOException {
+    assertTrue(readAll("{ \"meta\": 1 }").isEmpty());
+    assertTrue(readAll("{ \"commands\": null }").isEmpty());
+    assertTrue(readAll("{ \"commands\": [] }").isEmpty());
+  }
+
+  @Test
+  @DisplayName("Checking for more commands does not consume them")
+  void Checking_for_more_commands_does_not_consume_them() throws IOException {
+    Path file = dir.resolve("input.json");
+    Files.writeString(file, "{ \"commands\": [ { \"type\": \"step\" } ] }");
+
+    try (CommandReader reader = JsonParser.getInstance().openCommands(file)) {
+      assertTrue(reader.hasNext());
+      assertTrue(reader.hasNext());
+      assertEquals(new StepCommand(), reader.next());
+      assertFalse(reader.hasNext());
+
+      Exception e = assertThrows(NoSuchElementException.class, reader::next);
+      assertEquals("No more commands", e.getMessage());
+    }
+  }
+
+  @Test
+  @DisplayName("Reading throws IOException on unknown command")
+  void Reading_throws_IOException_on_unknown_command() {
+    assertThrows(
+        IOException.class,
+        () -> readAll("{ \"commands\": [ { \"type\": \"step\" }, { \"type\": \"explode\" } ] }"));
+  }
+
+  @Test
+  @DisplayName("Reading throws IOException when a command is not an object")
+  void Reading_throws_IOException_when_a_command_is_not_an_object() {
+    Exception e = assertThrows(IOException.class, () -> readAll("{ \"commands\": [ 1 ] }"));
+    assertEquals("Expected a command but found VALUE_NUMBER_INT", e.getMessage());
+  }
+
+  @Test
+  @DisplayName("Reading throws IOException when commands is not an array")
+  void Reading_throws_IOException_when_commands_is_not_an_array() {
+    Exception e = assertThrows(IOException.class, () -> readAll("{ \"commands\": {} }"));
+    assertEquals("Expected commands to be an array but found START_OBJECT", e.getMessage());
+  }
+
+  @Test
+  @DisplayName("Opening throws NullPointerException on null path")
+  void Opening_throws_NullPointerException_on_null_path() {
+    Exception e =
+        assertThrows(NullPointerException.class, () -> JsonParser.getInstance().openCommands(null));
+    assertEquals("path cannot be null", e.getMessage());
+  }
+}
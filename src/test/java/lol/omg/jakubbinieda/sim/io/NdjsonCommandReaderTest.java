@@ -0,0 +1,110 @@
+package lol.omg.jakubbinieda.sim.io;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import lol.omg.jakubbinieda.sim.io.commands.AddVehicleCommand;
+import lol.omg.jakubbinieda.sim.io.commands.Command;
+import lol.omg.jakubbinieda.sim.io.commands.StepCommand;
+import lol.omg.jakubbinieda.sim.model.Direction;
+import lol.omg.jakubbinieda.sim.model.Movement;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class NdjsonCommandReaderTest {
+  List<Command> readAll(String lines) throws IOException {
+    InputStream in = new ByteArrayInputStream(lines.getBytes(StandardCharsets.UTF_8));
+    List<Command> commands = new ArrayList<>();
+    try (NdjsonCommandReader reader = JsonParser.getInstance().openNdjsonCommands(in)) {
+      while (reader.hasNext()) {
+        commands.add(reader.next());
+      }
+    }
+    return commands;
+  }
+
+  @Test
+  @DisplayName("Reads one command per line")
+  void Reads_one_command_per_line() throws IOException {
+    List<Command> commands =
+        readAll(
+            """
+            {"type": "addVehicle", "vehicleId": "v1", "startRoad": "south", "endRoad": "north"}
+            {"type": "step"}
+
+            {"type": "step"}
+            """);
+
+    assertEquals(
+        List.of(
+            new AddVehicleCommand("v1", new Movement(Direction.SOUTH, Direction.NORTH)),
+            new StepCommand(),
+            new StepCommand()),
+        commands);
+  }
+
+  @Test
+  @DisplayName("Empty input has no commands")
+  void Empty_input_has_no_commands() throws IOException {
+    assertEquals(List.of(), readAll(""));
+  }
+
+  @Test
+  @DisplayName("Reading past the end throws")
+  void Reading_past_the_end_throws() throws IOException {
+    InputStream in = new ByteArrayInputStream(new byte[0]);
+    try (NdjsonCommandReader reader = JsonParser.getInstance().openNdjsonCommands(in)) {
+      assertFalse(reader.hasNext());
+      assertThrows(NoSuchElementException.class, reader::next);
+    }
+  }
+
+  @Test
+  @DisplayName("Invalid line throws")
+  void Invalid_line_throws() {
+    assertThrows(Exception.class, () -> readAll("{\"type\": \"step\"}\n{\"type\": \"explode\"}\n"));
+  }
+
+  @Test
+  @DisplayName("Command is read before the next line arrives")
+  void Command_is_read_before_the_next_line_arrives() throws IOException {
+    PipedOutputStream feed = new PipedOutputStream();
+    PipedInputStream in = new PipedInputStream(feed);
+    feed.write("{\"type\": \"step\"}\n".getBytes(StandardCharsets.UTF_8));
+    feed.flush();
+
+    NdjsonCommandReader reader = JsonParser.getInstance().openNdjsonCommands(in);
+    assertTimeoutPreemptively(
+        Duration.ofSeconds(5), () -> assertEquals(new StepCommand(), reader.next()));
+
+    feed.close();
+    assertFalse(reader.hasNext());
+  }
+
+  @Test
+  @DisplayName("Closing leaves the stream open")
+  void Closing_leaves_the_stream_open() throws IOException {
+    PipedOutputStream feed = new PipedOutputStream();
+    PipedInputStream in = new PipedInputStream(feed);
+    feed.write("{\"type\": \"step\"}\n".getBytes(StandardCharsets.UTF_8));
+    feed.flush();
+
+    try (NdjsonCommandReader reader = JsonParser.getInstance().openNdjsonCommands(in)) {
+      reader.next();
+    }
+    feed.write('x');
+    assertEquals('x', in.read());
+  }
+}
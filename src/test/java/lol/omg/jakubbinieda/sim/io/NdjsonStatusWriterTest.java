@@ -0,0 +1,66 @@
+package lol.omg.jakubbinieda.sim.io;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class NdjsonStatusWriterTest {
+  @Test
+  @DisplayName("Writes one compact line per step")
+  void Writes_one_compact_line_per_step() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (NdjsonStatusWriter writer = JsonParser.getInstance().openNdjsonOutput(out)) {
+      writer.write(List.of("v1", "v\"2"));
+      writer.write(List.of());
+    }
+
+    assertEquals(
+        "{\"leftVehicles\":[\"v1\",\"v\\\"2\"]}\n{\"leftVehicles\":[]}\n",
+        out.toString(StandardCharsets.UTF_8));
+  }
+
+  @Test
+  @DisplayName("Each line is flushed as it is written")
+  void Each_line_is_flushed_as_it_is_written() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    NdjsonStatusWriter writer = JsonParser.getInstance().openNdjsonOutput(out);
+    writer.write(List.of("v1"));
+
+    assertEquals("{\"leftVehicles\":[\"v1\"]}\n", out.toString(StandardCharsets.UTF_8));
+  }
+
+  @Test
+  @DisplayName("Closing leaves the stream open")
+  void Closing_leaves_the_stream_open() throws IOException {
+    ByteArrayOutputStream target = new ByteArrayOutputStream();
+    PrintStream out = new PrintStream(target);
+    JsonParser.getInstance().openNdjsonOutput(out).close();
+
+    out.print("x");
+    out.flush();
+    assertEquals("x", target.toString(StandardCharsets.UTF_8));
+  }
+
+  @Test
+  @DisplayName("Broken print stream throws")
+  void Broken_print_stream_throws() throws IOException {
+    OutputStream broken =
+        new OutputStream() {
+          @Override
+          public void write(int b) throws IOException {
+            throw new IOException("Broken pipe");
+          }
+        };
+    NdjsonStatusWriter writer = JsonParser.getInstance().openNdjsonOutput(new PrintStream(broken));
+
+    assertThrows(IOException.class, () -> writer.write(List.of("v1")));
+  }
+}
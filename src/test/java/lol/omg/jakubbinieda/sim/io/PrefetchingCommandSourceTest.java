@@ -0,0 +1,149 @@
+package lol.omg.jakubbinieda.sim.io;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import lol.omg.jakubbinieda.sim.io.commands.AddVehicleCommand;
+import lol.omg.jakubbinieda.sim.io.commands.Command;
+import lol.omg.jakubbinieda.sim.io.commands.StepCommand;
+import lol.omg.jakubbinieda.sim.model.Direction;
+import lol.omg.jakubbinieda.sim.model.Movement;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+class PrefetchingCommandSourceTest {
+  static List<Command> commands(int count) {
+    List<Command> commands = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      commands.add(
+          i % 2 == 0
+              ? new AddVehicleCommand("v" + i, new Movement(Direction.NORTH, Direction.SOUTH))
+              : new StepCommand());
+    }
+    return commands;
+  }
+
+  static List<Command> readAll(CommandSource source) throws IOException {
+    List<Command> commands = new ArrayList<>();
+    while (source.hasNext()) {
+      commands.add(source.next());
+    }
+    return commands;
+  }
+
+  // Fails with "Broken input" once failAt commands have been read
+  static class ListSource implements CommandSource {
+    private final List<Command> commands;
+    private final int failAt;
+    private int position;
+    private volatile boolean closed;
+
+    ListSource(List<Command> commands) {
+      this(commands, Integer.MAX_VALUE);
+    }
+
+    ListSource(List<Command> commands, int failAt) {
+      this.commands = commands;
+      this.failAt = failAt;
+    }
+
+    @Override
+    public boolean hasNext() throws IOException {
+      if (position == failAt) {
+        throw new IOException("Broken input");
+      }
+      return position < commands.size();
+    }
+
+    @Override
+    public Command next() {
+      return commands.get(position++);
+    }
+
+    @Override
+    public void close() {
+      closed = true;
+    }
+  }
+
+  @Nested
+  class ReadingTest {
+    @Test
+    @DisplayName("Returns every command in order across batches")
+    void Returns_every_command_in_order_across_batches() throws IOException {
+      List<Command> expected = commands(1000);
+      try (PrefetchingCommandSource source =
+          new PrefetchingCommandSource(new ListSource(expected), 7, 2)) {
+        assertEquals(expected, readAll(source));
+      }
+    }
+
+    @Test
+    @DisplayName("Source filling whole batches ends")
+    void Source_filling_whole_batches_ends() throws IOException {
+      List<Command> expected = commands(12);
+      try (PrefetchingCommandSource source =
+          new PrefetchingCommandSource(new ListSource(expected), 4, 1)) {
+        assertEquals(expected, readAll(source));
+        assertFalse(source.hasNext());
+      }
+    }
+
+    @Test
+    @DisplayName("Empty source has no commands")
+    void Empty_source_has_no_commands() throws IOException {
+      try (PrefetchingCommandSource source =
+          new PrefetchingCommandSource(new ListSource(List.of()))) {
+        assertFalse(source.hasNext());
+        assertThrows(NoSuchElementException.class, source::next);
+      }
+    }
+  }
+
+  @Nested
+  class FailureTest {
+    @Test
+    @DisplayName("Read error is thrown after the commands before it")
+    void Read_error_is_thrown_after_the_commands_before_it() throws IOException {
+      List<Command> all = commands(10);
+      try (PrefetchingCommandSource source =
+          new PrefetchingCommandSource(new ListSource(all, 5), 3, 2)) {
+        for (int i = 0; i < 5; i++) {
+          assertEquals(all.get(i), source.next());
+        }
+
+        IOException e = assertThrows(IOException.class, source::hasNext);
+        assertEquals("Broken input", e.getMessage());
+        assertThrows(IOException.class, source::hasNext);
+      }
+    }
+
+    @Test
+    @DisplayName("Closing early stops the reader and closes the source")
+    void Closing_early_stops_the_reader_and_closes_the_source() throws IOException {
+      ListSource inner = new ListSource(commands(10_000));
+      PrefetchingCommandSource source = new PrefetchingCommandSource(inner, 4, 1);
+      source.next();
+      source.close();
+      source.close();
+
+      assertTrue(inner.closed);
+    }
+  }
+
+  @Test
+  @DisplayName("Non-positive sizes are rejected")
+  void Non_positive_sizes_are_rejected() {
+    ListSource inner = new ListSource(List.of());
+    assertThrows(IllegalArgumentException.class, () -> new PrefetchingCommandSource(inner, 0, 1));
+    assertThrows(IllegalArgumentException.class, () -> new PrefetchingCommandSource(inner, 1, 0));
+    assertThrows(NullPointerException.class, () -> new PrefetchingCommandSource(null));
+  }
+}
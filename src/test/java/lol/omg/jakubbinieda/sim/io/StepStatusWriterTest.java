@@ -0,0 +1,91 @@
+package lol.omg.jakubbinieda.sim.io;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class StepStatusWriterTest {
+  private final JsonParser parser = JsonParser.getInstance();
+
+  @TempDir Path dir;
+
+  void assertSameBytes(List<StepStatus> statuses) throws IOException {
+    Path expected = dir.resolve("expected.json");
+    parser.writeOutput(expected, new SimulationOutput(statuses));
+
+    Path actual = dir.resolve("actual.json");
+    try (StepStatusWriter writer = parser.openOutput(actual)) {
+      for (StepStatus status : statuses) {
+        writer.write(status);
+      }
+    }
+
+    assertArrayEquals(Files.readAllBytes(expected), Files.readAllBytes(actual));
+  }
+
+  @Test
+  @DisplayName("Writes the same bytes as writeOutput")
+  void Writes_the_same_bytes_as_writeOutput() throws IOException {
+    assertSameBytes(
+        List.of(
+            new StepStatus(List.of("v1", "v2")),
+            new StepStatus(List.of()),
+            new StepStatus(List.of("v\"3\\u"))));
+  }
+
+  @Test
+  @DisplayName("Writes the same bytes as writeOutput when there are no steps")
+  void Writes_the_same_bytes_as_writeOutput_when_there_are_no_steps() throws IOException {
+    assertSameBytes(List.of());
+  }
+
+  @Test
+  @DisplayName("Flushed statuses are in the file before it is closed")
+  void Flushed_statuses_are_in_the_file_before_it_is_closed() throws IOException {
+    Path file = dir.resolve("output.json");
+    try (StepStatusWriter writer = parser.openOutput(file)) {
+      writer.write(List.of("v1"));
+      writer.flush();
+
+      assertTrue(Files.readString(file).contains("\"v1\""));
+    }
+  }
+
+  @Test
+  @DisplayName("Closing twice leaves the file unchanged")
+  void Closing_twice_leaves_the_file_unchanged() throws IOException {
+    Path file = dir.resolve("output.json");
+    StepStatusWriter writer = parser.openOutput(file);
+    writer.close();
+    String content = Files.readString(file);
+
+    assertDoesNotThrow(writer::close);
+    assertEquals(content, Files.readString(file));
+  }
+
+  @Test
+  @DisplayName("Writing throws NullPointerException on null status")
+  void Writing_throws_NullPointerException_on_null_status() throws IOException {
+    try (StepStatusWriter writer = parser.openOutput(dir.resolve("output.json"))) {
+      Exception e = assertThrows(NullPointerException.class, () -> writer.write((StepStatus) null));
+      assertEquals("status cannot be null", e.getMessage());
+    }
+  }
+
+  @Test
+  @DisplayName("Opening throws NullPointerException on null path")
+  void Opening_throws_NullPointerException_on_null_path() {
+    Exception e = assertThrows(NullPointerException.class, () -> parser.openOutput(null));
+    assertEquals("path cannot be null", e.getMessage());
+  }
+}
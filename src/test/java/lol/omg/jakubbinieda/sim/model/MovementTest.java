@@ -1,9 +1,14 @@
 package lol.omg.jakubbinieda.sim.model;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.HashSet;
+import java.util.Set;
 import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.EnumSource;
 
@@ -55,4 +60,34 @@ public class MovementTest {
     Movement movement = new Movement(from, from.counterClockwise());
     assertEquals(TurnType.RIGHT, movement.getTurnType());
   }
+
+  @Test
+  @DisplayName("Ordinals are dense and unique")
+  public void Ordinals_are_dense_and_unique() {
+    Set<Integer> ordinals = new HashSet<>();
+    for (Direction from : Direction.values()) {
+      for (Direction to : Direction.values()) {
+        int ordinal = new Movement(from, to).ordinal();
+        assertTrue(ordinal >= 0 && ordinal < Movement.COUNT);
+        ordinals.add(ordinal);
+      }
+    }
+    assertEquals(Movement.COUNT, ordinals.size());
+  }
+
+  @ParameterizedTest
+  @EnumSource(Direction.class)
+  @DisplayName("fromOrdinal returns movement with the same ordinal")
+  public void fromOrdinal_returns_movement_with_the_same_ordinal(Direction from) {
+    Movement movement = new Movement(from, from.clockwise());
+    assertEquals(movement, Movement.fromOrdinal(movement.ordinal()));
+    assertSame(Movement.fromOrdinal(movement.ordinal()), Movement.fromOrdinal(movement.ordinal()));
+  }
+
+  @Test
+  @DisplayName("fromOrdinal throws IllegalArgumentException when ordinal is out of range")
+  public void fromOrdinal_throws_IllegalArgumentException_when_ordinal_is_out_of_range() {
+    Exception e = assertThrows(IllegalArgumentException.class, () -> Movement.fromOrdinal(16));
+    assertEquals("Invalid movement ordinal 16", e.getMessage());
+  }
 }
@@ -107,6 +107,51 @@ public class VehicleTest {
     assertEquals(3, vehicle.getWaitTime());
   }
 
+  @Test
+  @DisplayName("Starting waiting throws NullPointerException when clock is null")
+  public void Starting_waiting_throws_NullPointerException_when_clock_is_null() {
+    Vehicle vehicle = new Vehicle("vehicle1", new Movement(Direction.NORTH, Direction.SOUTH));
+
+    Exception e = assertThrows(NullPointerException.class, () -> vehicle.startWaiting(null));
+    assertEquals("clock cannot be null", e.getMessage());
+  }
+
+  @Test
+  @DisplayName("Starting waiting when state is CROSSING throws IllegalStateException")
+  public void Starting_waiting_when_state_is_CROSSING_throws_IllegalStateException() {
+    Vehicle vehicle = new Vehicle("vehicle1", new Movement(Direction.NORTH, Direction.SOUTH));
+    vehicle.startCrossing(1);
+
+    Exception e = assertThrows(IllegalStateException.class, () -> vehicle.startWaiting(() -> 0));
+    assertEquals("Cannot start waiting when state is CROSSING", e.getMessage());
+  }
+
+  @Test
+  @DisplayName("Wait time follows clock while waiting")
+  public void Wait_time_follows_clock_while_waiting() {
+    int[] clock = {4};
+    Vehicle vehicle = new Vehicle("vehicle1", new Movement(Direction.NORTH, Direction.SOUTH));
+    vehicle.incrementWaitTime();
+    vehicle.startWaiting(() -> clock[0]);
+    assertEquals(1, vehicle.getWaitTime());
+
+    clock[0] = 7;
+    assertEquals(4, vehicle.getWaitTime());
+  }
+
+  @Test
+  @DisplayName("Wait time is frozen when crossing starts")
+  public void Wait_time_is_frozen_when_crossing_starts() {
+    int[] clock = {0};
+    Vehicle vehicle = new Vehicle("vehicle1", new Movement(Direction.NORTH, Direction.SOUTH));
+    vehicle.startWaiting(() -> clock[0]);
+    clock[0] = 3;
+    vehicle.startCrossing(1);
+
+    clock[0] = 10;
+    assertEquals(3, vehicle.getWaitTime());
+  }
+
   @Test
   @DisplayName("Ticking crossing when state is QUEUED throws IllegalStateException")
   public void Ticking_crossing_when_state_is_QUEUED_throws_IllegalStateException() {
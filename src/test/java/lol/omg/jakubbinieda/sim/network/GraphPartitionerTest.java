@@ -0,0 +1,81 @@
+package lol.omg.jakubbinieda.sim.network;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+import lol.omg.jakubbinieda.sim.model.Direction;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class GraphPartitionerTest {
+  static final List<String> IDS = List.of("a", "b", "c", "d");
+
+  // a - b - c - d
+  static final List<Link> CHAIN =
+      List.of(
+          new Link("a-b", "a", Direction.EAST, "b", Direction.WEST, 1),
+          new Link("b-c", "b", Direction.EAST, "c", Direction.WEST, 1),
+          new Link("d-c", "d", Direction.WEST, "c", Direction.EAST, 1));
+
+  static int[] partition(List<String> ids, List<Link> links, long[] weights, int shards) {
+    return GraphPartitioner.getInstance().partition(ids, links, weights, shards);
+  }
+
+  @Test
+  @DisplayName("There is only one instance")
+  public void There_is_only_one_instance() {
+    assertSame(GraphPartitioner.getInstance(), GraphPartitioner.getInstance());
+  }
+
+  @Test
+  @DisplayName("Equal weights split a chain into connected halves")
+  public void Equal_weights_split_a_chain_into_connected_halves() {
+    assertArrayEquals(new int[] {0, 0, 1, 1}, partition(IDS, CHAIN, new long[] {1, 1, 1, 1}, 2));
+  }
+
+  @Test
+  @DisplayName("Hot intersection gets a shard of its own")
+  public void Hot_intersection_gets_a_shard_of_its_own() {
+    assertArrayEquals(new int[] {1, 1, 0, 1}, partition(IDS, CHAIN, new long[] {1, 1, 10, 1}, 2));
+  }
+
+  @Test
+  @DisplayName("Shards follow links rather than ID order")
+  public void Shards_follow_links_rather_than_ID_order() {
+    // a - c and b - d
+    List<Link> links =
+        List.of(
+            new Link("a-c", "a", Direction.EAST, "c", Direction.WEST, 1),
+            new Link("b-d", "b", Direction.EAST, "d", Direction.WEST, 1));
+
+    assertArrayEquals(new int[] {0, 1, 0, 1}, partition(IDS, links, new long[] {1, 1, 1, 1}, 2));
+  }
+
+  @Test
+  @DisplayName("Every shard gets an intersection when shards outnumber them")
+  public void Every_shard_gets_an_intersection_when_shards_outnumber_them() {
+    assertArrayEquals(new int[] {0, 1, 2, 3}, partition(IDS, CHAIN, new long[] {1, 1, 1, 1}, 10));
+  }
+
+  @Test
+  @DisplayName("Partitioning throws IllegalArgumentException when shards is not positive")
+  public void Partitioning_throws_IllegalArgumentException_when_shards_is_not_positive() {
+    Exception e =
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> partition(IDS, CHAIN, new long[] {1, 1, 1, 1}, 0));
+    assertEquals("shards must be positive", e.getMessage());
+  }
+
+  @Test
+  @DisplayName("Partitioning throws IllegalArgumentException when weights do not match")
+  public void Partitioning_throws_IllegalArgumentException_when_weights_do_not_match() {
+    Exception e =
+        assertThrows(
+            IllegalArgumentException.class, () -> partition(IDS, CHAIN, new long[] {1, 1}, 2));
+    assertEquals("Expected 4 weights but got 2", e.getMessage());
+  }
+}
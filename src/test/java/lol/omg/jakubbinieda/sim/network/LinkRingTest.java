@@ -0,0 +1,108 @@
+package lol.omg.jakubbinieda.sim.network;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.NoSuchElementException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class LinkRingTest {
+  @Test
+  @DisplayName("Vehicles arrive in the order they were pushed")
+  public void Vehicles_arrive_in_the_order_they_were_pushed() {
+    LinkRing ring = new LinkRing(4);
+    ring.push("v7", 3);
+    ring.push("v8", 3);
+
+    assertFalse(ring.hasArrival(2));
+    assertTrue(ring.hasArrival(3));
+    assertEquals("v7", ring.poll());
+    assertEquals("v8", ring.poll());
+    assertFalse(ring.hasArrival(3));
+  }
+
+  @Test
+  @DisplayName("Vehicles spill back when the ring is full")
+  public void Vehicles_spill_back_when_the_ring_is_full() {
+    LinkRing ring = new LinkRing(2);
+    ring.push("v1", 5);
+    assertFalse(ring.isBlocked());
+    ring.push("v2", 5);
+    assertTrue(ring.isBlocked());
+
+    ring.push("v3", 5);
+    assertEquals(3, ring.size());
+
+    ring.poll();
+    // Still blocked until the spilled vehicle is on the link
+    assertTrue(ring.isBlocked());
+    ring.drainSpilled(6, 4);
+    assertTrue(ring.isBlocked());
+
+    ring.poll();
+    assertFalse(ring.isBlocked());
+    assertFalse(ring.hasArrival(9));
+    assertTrue(ring.hasArrival(10));
+    assertEquals("v3", ring.poll());
+  }
+
+  @Test
+  @DisplayName("Spilled vehicles keep their order across wrap around")
+  public void Spilled_vehicles_keep_their_order_across_wrap_around() {
+    LinkRing ring = new LinkRing(1);
+    for (int v = 0; v < 20; v++) {
+      ring.push("v" + v, 0);
+    }
+
+    for (int v = 0; v < 20; v++) {
+      ring.drainSpilled(0, 1);
+      assertEquals("v" + v, ring.poll());
+    }
+    assertEquals(0, ring.size());
+  }
+
+  @Test
+  @DisplayName("Vehicles cross threads in order")
+  public void Vehicles_cross_threads_in_order() throws Exception {
+    LinkRing ring = new LinkRing(16);
+    int count = 100_000;
+
+    Thread producer =
+        new Thread(
+            () -> {
+              for (int v = 0; v < count; v++) {
+                while (ring.isBlocked()) {
+                  Thread.onSpinWait();
+                }
+                ring.push("v" + v, 0);
+              }
+            });
+    producer.start();
+
+    for (int expected = 0; expected < count; expected++) {
+      while (!ring.hasArrival(0)) {
+        Thread.onSpinWait();
+      }
+      assertEquals("v" + expected, ring.poll());
+    }
+    producer.join();
+  }
+
+  @Test
+  @DisplayName("Poll throws NoSuchElementException when link is empty")
+  public void Poll_throws_NoSuchElementException_when_link_is_empty() {
+    LinkRing ring = new LinkRing(1);
+    Exception e = assertThrows(NoSuchElementException.class, ring::poll);
+    assertEquals("Link is empty", e.getMessage());
+  }
+
+  @Test
+  @DisplayName("Construction throws IllegalArgumentException when capacity is not positive")
+  public void Construction_throws_IllegalArgumentException_when_capacity_is_not_positive() {
+    Exception e = assertThrows(IllegalArgumentException.class, () -> new LinkRing(0));
+    assertEquals("capacity must be positive", e.getMessage());
+  }
+}
@@ -0,0 +1,164 @@
+package lol.omg.jakubbinieda.sim.network;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import lol.omg.jakubbinieda.sim.engine.Intersection;
+import lol.omg.jakubbinieda.sim.model.Direction;
+import lol.omg.jakubbinieda.sim.model.Movement;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class NetworkCoordinatorTest {
+  // Starts one worker per part, each with its own connection to the coordinator
+  static List<Future<?>> startWorkers(
+      ExecutorService executor,
+      NetworkCoordinator coordinator,
+      List<Map<String, Intersection>> parts)
+      throws IOException {
+    List<Future<?>> futures = new ArrayList<>();
+    for (Map<String, Intersection> part : parts) {
+      NetworkWorker worker = new NetworkWorker(part);
+      futures.add(
+          executor.submit(
+              () -> {
+                worker.run("localhost", coordinator.getPort());
+                return null;
+              }));
+    }
+    coordinator.awaitWorkers(parts.size());
+    return futures;
+  }
+
+  // Splits grid intersections into one part per row
+  static List<Map<String, Intersection>> split(Network network) {
+    Map<Character, Map<String, Intersection>> parts = new TreeMap<>();
+    for (String id : network.getIntersectionIds()) {
+      parts
+          .computeIfAbsent(id.charAt(1), key -> new TreeMap<>())
+          .put(id, network.getIntersection(id));
+    }
+    return List.copyOf(parts.values());
+  }
+
+  @Test
+  @DisplayName("Distributed step matches local step")
+  public void Distributed_step_matches_local_step() throws Exception {
+    Network local = NetworkTest.ParallelStepTest.seededGrid();
+    Network remote = NetworkTest.ParallelStepTest.seededGrid();
+    Random random = new Random(42);
+    Direction[] directions = Direction.values();
+    List<String> ids = local.getIntersectionIds();
+
+    ExecutorService executor = Executors.newCachedThreadPool();
+    List<Future<?>> workers;
+    try (NetworkCoordinator coordinator = new NetworkCoordinator(0, remote.getLinks())) {
+      workers = startWorkers(executor, coordinator, split(remote));
+      assertEquals(ids, coordinator.getIntersectionIds());
+
+      for (int step = 0; step < 100; step++) {
+        for (int v = 0; v < random.nextInt(4); v++) {
+          String intersectionId = ids.get(random.nextInt(ids.size()));
+          String vehicleId = "v" + step + "-" + v;
+          Movement movement =
+              new Movement(directions[random.nextInt(4)], directions[random.nextInt(4)]);
+          local.addVehicle(intersectionId, vehicleId, movement);
+          coordinator.addVehicle(intersectionId, vehicleId, movement);
+        }
+
+        NetworkStepResult expected = local.step();
+        NetworkStepResult actual = coordinator.step();
+        assertEquals(expected.step(), actual.step());
+        assertEquals(expected.leftNetwork(), actual.leftNetwork());
+        assertEquals(expected.vehiclesOnLinks(), actual.vehiclesOnLinks());
+      }
+    }
+
+    for (Future<?> worker : workers) {
+      worker.get();
+    }
+    executor.shutdown();
+
+    // Intersection results stay on the workers, so their state is compared directly
+    for (String id : ids) {
+      assertEquals(local.getIntersection(id).step(), remote.getIntersection(id).step());
+    }
+  }
+
+  @Test
+  @DisplayName("Worker failure is reported by the coordinator")
+  public void Worker_failure_is_reported_by_the_coordinator() throws Exception {
+    Network network = NetworkTest.corridor();
+    ExecutorService executor = Executors.newCachedThreadPool();
+
+    NetworkCoordinator coordinator = new NetworkCoordinator(0, network.getLinks());
+    List<Future<?>> workers =
+        startWorkers(
+            executor,
+            coordinator,
+            List.of(
+                Map.of("a", network.getIntersection("a")),
+                Map.of("b", network.getIntersection("b"))));
+    coordinator.addVehicle("b", "v1", new Movement(Direction.WEST, Direction.EAST));
+    coordinator.addVehicle("b", "v1", new Movement(Direction.WEST, Direction.EAST));
+
+    Exception e = assertThrows(IllegalStateException.class, coordinator::step);
+    assertEquals("Worker owning [b] failed: Vehicle with ID v1 already exists", e.getMessage());
+
+    // The healthy worker's reply was read and it was shut down cleanly
+    workers.get(0).get();
+    e = assertThrows(IllegalStateException.class, coordinator::step);
+    assertEquals("Cannot use coordinator after a worker has failed", e.getMessage());
+
+    try {
+      coordinator.close();
+    } catch (IOException ignored) {
+      // The failed worker may already have closed its connection
+    }
+    executor.shutdown();
+  }
+
+  @Test
+  @DisplayName("Awaiting throws IllegalArgumentException when two workers own an intersection")
+  public void Awaiting_throws_IllegalArgumentException_when_two_workers_own_an_intersection()
+      throws Exception {
+    Network network = NetworkTest.corridor();
+    ExecutorService executor = Executors.newCachedThreadPool();
+
+    try (NetworkCoordinator coordinator = new NetworkCoordinator(0, network.getLinks())) {
+      Map<String, Intersection> part = Map.of("a", network.getIntersection("a"));
+      Exception e =
+          assertThrows(
+              IllegalArgumentException.class,
+              () -> startWorkers(executor, coordinator, List.of(part, part)));
+      assertEquals("Intersection a is owned by more than one worker", e.getMessage());
+    }
+    executor.shutdown();
+  }
+
+  @Test
+  @DisplayName("Stepping throws IllegalStateException before workers have connected")
+  public void Stepping_throws_IllegalStateException_before_workers_have_connected()
+      throws Exception {
+    try (NetworkCoordinator coordinator = new NetworkCoordinator(0, List.of())) {
+      Exception e = assertThrows(IllegalStateException.class, coordinator::step);
+      assertEquals("Cannot use coordinator before workers have connected", e.getMessage());
+    }
+  }
+
+  @Test
+  @DisplayName("Worker throws IllegalArgumentException when it owns no intersection")
+  public void Worker_throws_IllegalArgumentException_when_it_owns_no_intersection() {
+    Exception e = assertThrows(IllegalArgumentException.class, () -> new NetworkWorker(Map.of()));
+    assertEquals("Worker must own at least one intersection", e.getMessage());
+  }
+}
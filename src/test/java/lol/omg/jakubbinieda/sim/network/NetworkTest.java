@@ -0,0 +1,285 @@
+package lol.omg.jakubbinieda.sim.network;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import lol.omg.jakubbinieda.sim.controller.BasicController;
+import lol.omg.jakubbinieda.sim.controller.Controller;
+import lol.omg.jakubbinieda.sim.engine.Intersection;
+import lol.omg.jakubbinieda.sim.engine.loadbalancer.LoadBalancer;
+import lol.omg.jakubbinieda.sim.engine.loadbalancer.RandomBalancer;
+import lol.omg.jakubbinieda.sim.factories.SimpleIntersectionFactory;
+import lol.omg.jakubbinieda.sim.factories.SimpleNetworkFactory;
+import lol.omg.jakubbinieda.sim.geometry.Lane;
+import lol.omg.jakubbinieda.sim.model.Direction;
+import lol.omg.jakubbinieda.sim.model.Movement;
+import lol.omg.jakubbinieda.sim.signal.SignalCommand;
+import lol.omg.jakubbinieda.sim.signal.SignalState;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+public class NetworkTest {
+
+  static Intersection greenIntersection() {
+    Controller controller = Mockito.mock(Controller.class);
+    List<SignalCommand> commands = new ArrayList<>();
+    for (Direction d : Direction.values()) {
+      commands.add(new SignalCommand("sg-" + d.name().toLowerCase(), SignalState.GREEN));
+    }
+    Mockito.when(controller.decide(Mockito.any())).thenReturn(commands);
+
+    LoadBalancer loadBalancer = Mockito.mock(LoadBalancer.class);
+    Mockito.when(loadBalancer.selectLane(Mockito.any()))
+        .thenAnswer(inv -> ((List<Lane>) inv.getArgument(0)).getFirst());
+
+    return SimpleIntersectionFactory.getInstance().supply(controller, loadBalancer);
+  }
+
+  // a -> b, three steps apart
+  static Network corridor() {
+    return new Network(
+        Map.of("a", greenIntersection(), "b", greenIntersection()),
+        List.of(new Link("a-b", "a", Direction.EAST, "b", Direction.WEST, 3)));
+  }
+
+  static Movement mv(Direction from, Direction to) {
+    return new Movement(from, to);
+  }
+
+  @Nested
+  class ConstructorTest {
+    @Test
+    @DisplayName("Construction throws IllegalArgumentException when network is empty")
+    void Construction_throws_IllegalArgumentException_when_network_is_empty() {
+      Exception e =
+          assertThrows(IllegalArgumentException.class, () -> new Network(Map.of(), List.of()));
+      assertEquals("Network must contain at least one intersection", e.getMessage());
+    }
+
+    @Test
+    @DisplayName("Construction throws IllegalArgumentException when link targets unknown node")
+    void Construction_throws_IllegalArgumentException_when_link_targets_unknown_node() {
+      Map<String, Intersection> intersections = Map.of("a", greenIntersection());
+      List<Link> links = List.of(new Link("a-b", "a", Direction.EAST, "b", Direction.WEST, 1));
+
+      Exception e =
+          assertThrows(IllegalArgumentException.class, () -> new Network(intersections, links));
+      assertEquals("Unknown intersection: b", e.getMessage());
+    }
+
+    @Test
+    @DisplayName("Construction throws IllegalArgumentException when link ID repeats")
+    void Construction_throws_IllegalArgumentException_when_link_ID_repeats() {
+      Map<String, Intersection> intersections =
+          Map.of("a", greenIntersection(), "b", greenIntersection());
+      List<Link> links =
+          List.of(
+              new Link("l", "a", Direction.EAST, "b", Direction.WEST, 1),
+              new Link("l", "b", Direction.WEST, "a", Direction.EAST, 1));
+
+      Exception e =
+          assertThrows(IllegalArgumentException.class, () -> new Network(intersections, links));
+      assertEquals("Duplicate link ID: l", e.getMessage());
+    }
+
+    @Test
+    @DisplayName("Construction throws IllegalArgumentException when exit has two links")
+    void Construction_throws_IllegalArgumentException_when_exit_has_two_links() {
+      Map<String, Intersection> intersections =
+          Map.of("a", greenIntersection(), "b", greenIntersection());
+      List<Link> links =
+          List.of(
+              new Link("l1", "a", Direction.EAST, "b", Direction.WEST, 1),
+              new Link("l2", "a", Direction.EAST, "b", Direction.NORTH, 1));
+
+      Exception e =
+          assertThrows(IllegalArgumentException.class, () -> new Network(intersections, links));
+      assertEquals("Intersection a already has a link leaving to EAST", e.getMessage());
+    }
+
+    @Test
+    @DisplayName("Link throws IllegalArgumentException when capacity is not positive")
+    void Link_throws_IllegalArgumentException_when_capacity_is_not_positive() {
+      Exception e =
+          assertThrows(
+              IllegalArgumentException.class,
+              () -> new Link("l", "a", Direction.EAST, "b", Direction.WEST, 1, 0));
+      assertEquals("capacity must be positive", e.getMessage());
+    }
+
+    @Test
+    @DisplayName("Link throws IllegalArgumentException when travel time is not positive")
+    void Link_throws_IllegalArgumentException_when_travel_time_is_not_positive() {
+      Exception e =
+          assertThrows(
+              IllegalArgumentException.class,
+              () -> new Link("l", "a", Direction.EAST, "b", Direction.WEST, 0));
+      assertEquals("travelTime must be positive", e.getMessage());
+    }
+  }
+
+  @Nested
+  class StepTest {
+    @Test
+    @DisplayName("Vehicle joins the next intersection after the travel time")
+    void Vehicle_joins_the_next_intersection_after_the_travel_time() {
+      Network network = corridor();
+      network.addVehicle("a", "v1", mv(Direction.WEST, Direction.EAST));
+
+      List<NetworkStepResult> results = new ArrayList<>();
+      for (int i = 0; i < 7; i++) {
+        results.add(network.step());
+      }
+
+      assertEquals(List.of("v1"), results.get(1).intersections().get("a").leftIntersection());
+      assertEquals(1, results.get(1).vehiclesOnLinks().get("a-b"));
+      assertEquals(1, results.get(3).vehiclesOnLinks().get("a-b"));
+      assertEquals(0, results.get(4).vehiclesOnLinks().get("a-b"));
+      assertEquals(List.of("v1"), results.get(5).intersections().get("b").leftIntersection());
+      assertEquals(List.of("v1"), results.get(5).leftNetwork());
+      assertTrue(results.get(6).leftNetwork().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Vehicle leaving on an unlinked road leaves the network")
+    void Vehicle_leaving_on_an_unlinked_road_leaves_the_network() {
+      Network network = corridor();
+      network.addVehicle("a", "v1", mv(Direction.WEST, Direction.NORTH));
+
+      network.step();
+      NetworkStepResult result = network.step();
+
+      assertEquals(List.of("v1"), result.leftNetwork());
+      assertEquals(0, result.vehiclesOnLinks().get("a-b"));
+    }
+
+    @Test
+    @DisplayName("Route selector picks the movement at the next intersection")
+    void Route_selector_picks_the_movement_at_the_next_intersection() {
+      List<String> routed = new ArrayList<>();
+      RouteSelector turnRight =
+          (vehicleId, intersectionId, approach) -> {
+            routed.add(vehicleId + "@" + intersectionId + " from " + approach);
+            return new Movement(approach, Direction.SOUTH);
+          };
+      Network network =
+          new Network(
+              Map.of("a", greenIntersection(), "b", greenIntersection()),
+              List.of(new Link("a-b", "a", Direction.EAST, "b", Direction.WEST, 1)),
+              turnRight);
+      network.addVehicle("a", "v1", mv(Direction.WEST, Direction.EAST));
+
+      for (int i = 0; i < 4; i++) {
+        network.step();
+      }
+
+      assertEquals(List.of("v1@b from WEST"), routed);
+      assertTrue(network.getIntersection("b").getArchive().contains("v1"));
+    }
+
+    @Test
+    @DisplayName("Full link holds vehicles back at its source")
+    void Full_link_holds_vehicles_back_at_its_source() {
+      Network network =
+          new Network(
+              Map.of("a", greenIntersection(), "b", greenIntersection()),
+              List.of(new Link("a-b", "a", Direction.EAST, "b", Direction.WEST, 5, 1)));
+      for (String id : List.of("v1", "v2", "v3")) {
+        network.addVehicle("a", id, mv(Direction.WEST, Direction.EAST));
+      }
+
+      List<NetworkStepResult> results = new ArrayList<>();
+      for (int i = 0; i < 20; i++) {
+        results.add(network.step());
+      }
+
+      // v2 was already crossing when the link filled, so it waits to enter the link
+      assertEquals(2, results.get(2).vehiclesOnLinks().get("a-b"));
+      // v3 stays queued until v2 has left the link
+      for (int i = 1; i < 11; i++) {
+        assertEquals(1, results.get(i).intersections().get("a").queueLengths().get("WEST-0"));
+      }
+      assertEquals(List.of("v1"), results.get(7).leftNetwork());
+      assertEquals(List.of("v3"), results.get(12).intersections().get("a").leftIntersection());
+      assertEquals(List.of("v2"), results.get(12).leftNetwork());
+      assertEquals(List.of("v3"), results.get(18).leftNetwork());
+    }
+
+    @Test
+    @DisplayName("Results are reported in intersection ID order")
+    void Results_are_reported_in_intersection_ID_order() {
+      Network network =
+          new Network(
+              Map.of("c", greenIntersection(), "a", greenIntersection(), "b", greenIntersection()),
+              List.of());
+
+      assertEquals(List.of("a", "b", "c"), network.getIntersectionIds());
+      assertEquals(List.of("a", "b", "c"), List.copyOf(network.step().intersections().keySet()));
+    }
+
+    @Test
+    @DisplayName("Adding vehicle throws IllegalArgumentException when intersection is unknown")
+    void Adding_vehicle_throws_IllegalArgumentException_when_intersection_is_unknown() {
+      Network network = corridor();
+      Exception e =
+          assertThrows(
+              IllegalArgumentException.class,
+              () -> network.addVehicle("x", "v1", mv(Direction.WEST, Direction.EAST)));
+      assertEquals("Unknown intersection: x", e.getMessage());
+    }
+  }
+
+  @Nested
+  class ParallelStepTest {
+    static Network seededGrid() {
+      Random seeds = new Random(7);
+      return SimpleNetworkFactory.getInstance()
+          .supplyGrid(
+              4,
+              5,
+              2,
+              () -> new BasicController(2, 6),
+              () -> new RandomBalancer(new Random(seeds.nextLong())));
+    }
+
+    @Test
+    @DisplayName("Parallel step matches sequential step")
+    void Parallel_step_matches_sequential_step() {
+      Network sequential = seededGrid();
+      Network parallel = seededGrid();
+      Random random = new Random(42);
+      Direction[] directions = Direction.values();
+      List<String> ids = sequential.getIntersectionIds();
+
+      try (ForkJoinPool pool = new ForkJoinPool(4)) {
+        for (int step = 0; step < 200; step++) {
+          for (int v = 0; v < random.nextInt(4); v++) {
+            String intersectionId = ids.get(random.nextInt(ids.size()));
+            String vehicleId = "v" + step + "-" + v;
+            Movement movement = mv(directions[random.nextInt(4)], directions[random.nextInt(4)]);
+            sequential.addVehicle(intersectionId, vehicleId, movement);
+            parallel.addVehicle(intersectionId, vehicleId, movement);
+          }
+
+          assertEquals(sequential.step(), parallel.step(pool));
+        }
+      }
+    }
+
+    @Test
+    @DisplayName("Parallel step throws NullPointerException when pool is null")
+    void Parallel_step_throws_NullPointerException_when_pool_is_null() {
+      Network network = corridor();
+      Exception e = assertThrows(NullPointerException.class, () -> network.step(null));
+      assertEquals("pool cannot be null", e.getMessage());
+    }
+  }
+}
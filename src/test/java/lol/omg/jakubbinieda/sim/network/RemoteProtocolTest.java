@@ -0,0 +1,59 @@
+package lol.omg.jakubbinieda.sim.network;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import lol.omg.jakubbinieda.sim.model.Direction;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class RemoteProtocolTest {
+  private static DataInputStream reader(ByteArrayOutputStream bytes) {
+    return new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+  }
+
+  @Test
+  @DisplayName("Link round trips")
+  public void Link_round_trips() throws IOException {
+    Link link = new Link("a-b", "a", Direction.EAST, "b", Direction.WEST, 3, 200);
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      RemoteProtocol.writeLink(out, link);
+    }
+
+    assertEquals(link, RemoteProtocol.readLink(reader(bytes)));
+  }
+
+  @Test
+  @DisplayName("Varints round trip and stay short for small values")
+  public void Varints_round_trip_and_stay_short_for_small_values() throws IOException {
+    int[] values = {0, 1, 127, 128, 300, Integer.MAX_VALUE, -1};
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      for (int value : values) {
+        RemoteProtocol.writeVarint(out, value);
+      }
+    }
+
+    DataInputStream in = reader(bytes);
+    for (int value : values) {
+      assertEquals(value, RemoteProtocol.readVarint(in));
+    }
+    assertEquals(1 + 1 + 1 + 2 + 2 + 5 + 5, bytes.size());
+  }
+
+  @Test
+  @DisplayName("Reading throws IOException when varint is longer than 32 bits")
+  public void Reading_throws_IOException_when_varint_is_longer_than_32_bits() {
+    byte[] bytes = {(byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, 0x01};
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+
+    Exception e = assertThrows(IOException.class, () -> RemoteProtocol.readVarint(in));
+    assertEquals("Varint is longer than 32 bits", e.getMessage());
+  }
+}
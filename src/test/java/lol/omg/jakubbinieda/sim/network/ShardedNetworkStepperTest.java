@@ -0,0 +1,136 @@
+package lol.omg.jakubbinieda.sim.network;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import lol.omg.jakubbinieda.sim.controller.Controller;
+import lol.omg.jakubbinieda.sim.engine.Intersection;
+import lol.omg.jakubbinieda.sim.engine.IntersectionState;
+import lol.omg.jakubbinieda.sim.engine.loadbalancer.RandomBalancer;
+import lol.omg.jakubbinieda.sim.factories.SimpleIntersectionFactory;
+import lol.omg.jakubbinieda.sim.geometry.IntersectionLayout;
+import lol.omg.jakubbinieda.sim.model.Direction;
+import lol.omg.jakubbinieda.sim.model.Movement;
+import lol.omg.jakubbinieda.sim.signal.SignalCommand;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class ShardedNetworkStepperTest {
+  @Test
+  @DisplayName("Sharded step matches sequential step across rebalances")
+  public void Sharded_step_matches_sequential_step_across_rebalances() {
+    Network sequential = NetworkTest.ParallelStepTest.seededGrid();
+    Network sharded = NetworkTest.ParallelStepTest.seededGrid();
+    Random random = new Random(42);
+    Direction[] directions = Direction.values();
+    List<String> ids = sequential.getIntersectionIds();
+
+    try (ShardedNetworkStepper stepper = new ShardedNetworkStepper(sharded, 3, 5)) {
+      for (int step = 0; step < 200; step++) {
+        for (int v = 0; v < random.nextInt(4); v++) {
+          String intersectionId = ids.get(random.nextInt(ids.size()));
+          String vehicleId = "v" + step + "-" + v;
+          Movement movement =
+              new Movement(directions[random.nextInt(4)], directions[random.nextInt(4)]);
+          sequential.addVehicle(intersectionId, vehicleId, movement);
+          sharded.addVehicle(intersectionId, vehicleId, movement);
+        }
+
+        assertEquals(sequential.step(), stepper.step());
+      }
+    }
+  }
+
+  @Test
+  @DisplayName("Shards cover every intersection once")
+  public void Shards_cover_every_intersection_once() {
+    Network network = NetworkTest.ParallelStepTest.seededGrid();
+
+    try (ShardedNetworkStepper stepper = new ShardedNetworkStepper(network, 3, 1)) {
+      stepper.step();
+
+      List<String> covered = new ArrayList<>();
+      stepper.getShards().forEach(covered::addAll);
+      covered.sort(null);
+      assertEquals(3, stepper.getShards().size());
+      assertEquals(network.getIntersectionIds(), covered);
+    }
+  }
+
+  // Fails every decision, after a delay
+  static Intersection failingIntersection(String message, long delayMillis) {
+    Controller controller =
+        new Controller() {
+          @Override
+          public void initialize(IntersectionLayout layout) {}
+
+          @Override
+          public List<SignalCommand> decide(IntersectionState state) {
+            try {
+              Thread.sleep(delayMillis);
+            } catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+            }
+            throw new IllegalStateException(message);
+          }
+        };
+    return SimpleIntersectionFactory.getInstance().supply(controller, new RandomBalancer());
+  }
+
+  @Test
+  @DisplayName("Failed step waits for every shard and keeps all failures")
+  public void Failed_step_waits_for_every_shard_and_keeps_all_failures() {
+    Network network =
+        new Network(
+            Map.of(
+                "a", failingIntersection("a failed", 0), "b", failingIntersection("b failed", 200)),
+            List.of());
+
+    try (ShardedNetworkStepper stepper = new ShardedNetworkStepper(network, 2, 100)) {
+      Exception e = assertThrows(IllegalStateException.class, stepper::step);
+
+      Set<String> messages = new HashSet<>();
+      messages.add(e.getMessage());
+      for (Throwable suppressed : e.getSuppressed()) {
+        messages.add(suppressed.getMessage());
+      }
+      assertEquals(Set.of("a failed", "b failed"), messages);
+    }
+  }
+
+  @Test
+  @DisplayName("Stepping throws IllegalStateException when stepper is closed")
+  public void Stepping_throws_IllegalStateException_when_stepper_is_closed() {
+    ShardedNetworkStepper stepper = new ShardedNetworkStepper(NetworkTest.corridor(), 2, 1);
+    stepper.close();
+
+    Exception e = assertThrows(IllegalStateException.class, stepper::step);
+    assertEquals("Cannot step when stepper is closed", e.getMessage());
+  }
+
+  @Test
+  @DisplayName("Construction throws IllegalArgumentException when shards is not positive")
+  public void Construction_throws_IllegalArgumentException_when_shards_is_not_positive() {
+    Exception e =
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> new ShardedNetworkStepper(NetworkTest.corridor(), 0, 1));
+    assertEquals("shards must be positive", e.getMessage());
+  }
+
+  @Test
+  @DisplayName("Construction throws IllegalArgumentException when interval is not positive")
+  public void Construction_throws_IllegalArgumentException_when_interval_is_not_positive() {
+    Exception e =
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> new ShardedNetworkStepper(NetworkTest.corridor(), 2, 0));
+    assertEquals("rebalanceInterval must be positive", e.getMessage());
+  }
+}